@@ -2,8 +2,10 @@ package com.example.uade.tpo.ecommerce_grupo10;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // vencimiento de reservas de stock
 public class EcommerceGrupo10Application {
 
 	public static void main(String[] args) {
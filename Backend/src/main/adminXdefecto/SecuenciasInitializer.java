@@ -0,0 +1,43 @@
+package com.example.uade.tpo.ecommerce_grupo10.adminXdefecto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Secuencias;
+
+import jakarta.annotation.PostConstruct;
+
+// Las tablas que ya tienen filas (ids generados con AUTO_INCREMENT) arrancan su
+// secuencia despues del mayor id existente. Corre antes de cualquier insert: despues
+// de que Hibernate crea la tabla de secuencias y antes de los CommandLineRunner
+@Component
+@DependsOn("entityManagerFactory")
+public class SecuenciasInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecuenciasInitializer.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @PostConstruct
+    public void inicializar() {
+        for (String tabla : Secuencias.TABLAS) {
+            Long maximo = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + tabla, Long.class);
+            if (maximo == null) {
+                continue; // tabla vacia: Hibernate crea la fila con el valor inicial
+            }
+            // el optimizador pooled toma el valor leido como el techo del bloque
+            // (entrega valor - BLOQUE + 1 .. valor), por eso se guarda maximo + BLOQUE.
+            // Si la secuencia ya estaba mas adelante no se toca
+            jdbcTemplate.update("INSERT INTO " + Secuencias.TABLA + " (" + Secuencias.COLUMNA_ENTIDAD + ", "
+                    + Secuencias.COLUMNA_VALOR + ") VALUES (?, ?) ON DUPLICATE KEY UPDATE "
+                    + Secuencias.COLUMNA_VALOR + " = GREATEST(" + Secuencias.COLUMNA_VALOR + ", VALUES("
+                    + Secuencias.COLUMNA_VALOR + "))", tabla, maximo + Secuencias.BLOQUE);
+            logger.debug("Secuencia de {} ajustada despues del id {}", tabla, maximo);
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoReconstruccionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.service.admin.AdminService;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.ResumenVentasService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -17,6 +28,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminController {
 
     private final AdminService adminService;
+    private final ResumenVentasService resumenVentasService;
 
     /**
      * Promueve un VENDEDOR a ADMIN
@@ -37,4 +49,38 @@ public class AdminController {
         UsuarioDTO usuario = adminService.degradarAdmin(usuarioId);
         return ResponseEntity.ok(usuario);
     }
+
+    /**
+     * Ranking de vendedores por ingresos en el rango (por defecto, los ultimos 30 dias)
+     */
+    @GetMapping("/ventas/vendedores")
+    public List<VentaAcumuladaDTO> rankingVendedores(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "20") int limite) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+        return resumenVentasService.ranking(DimensionVenta.VENDEDOR, inicio, fin, limite);
+    }
+
+    /**
+     * Ranking de categorias por ingresos en el rango (por defecto, los ultimos 30 dias)
+     */
+    @GetMapping("/ventas/categorias")
+    public List<VentaAcumuladaDTO> rankingCategorias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "20") int limite) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(29);
+        return resumenVentasService.ranking(DimensionVenta.CATEGORIA, inicio, fin, limite);
+    }
+
+    /**
+     * Recalcula el resumen de ventas desde las ordenes (en paralelo, por tramos de dias)
+     */
+    @PostMapping("/ventas/reconstruir")
+    public ResponseEntity<ResultadoReconstruccionDTO> reconstruirVentas() {
+        return ResponseEntity.ok(resumenVentasService.reconstruir());
+    }
 }
@@ -8,12 +8,10 @@ import org.springframework.web.bind.annotation.*;
 import com.example.uade.tpo.ecommerce_grupo10.controllers.requests.AddItemRequest;
 import com.example.uade.tpo.ecommerce_grupo10.controllers.requests.UpdateCantidadRequest;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.CarritoDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
 import com.example.uade.tpo.ecommerce_grupo10.service.carrito.CarritoService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
-
-import java.util.Optional;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioAutenticado;
 
 import lombok.RequiredArgsConstructor;
 
@@ -25,24 +23,19 @@ import lombok.RequiredArgsConstructor;
 public class CarritoController {
 
     private final CarritoService carritoService;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
 
     /**
      * Valida que el usuario autenticado sea el propietario del carrito y que sea un
      * COMPRADOR
      */
     private void validarAccesoCarrito(Long usuarioId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
-
-        // Obtener el usuario por email para verificar que coincida con el usuarioId
-        Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-        if (usuarioOpt.isEmpty()) {
+        // El id y el rol vienen en el principal autenticado (sin consultar la base)
+        UsuarioAutenticado usuario = securityService.getCurrentUser();
+        if (usuario == null) {
             throw new RuntimeException("Usuario no encontrado");
         }
 
-        UsuarioDTO usuario = usuarioOpt.get();
-
         // Verificar que el usuario autenticado sea el mismo que el usuarioId del path
         if (!usuario.getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes acceso al carrito de otro usuario");
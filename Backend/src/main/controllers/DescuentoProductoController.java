@@ -11,6 +11,7 @@ import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
 
 import lombok.RequiredArgsConstructor;
@@ -162,4 +163,12 @@ public class DescuentoProductoController {
     public ResponseEntity<Page<DescuentoProductoDTO>> listar(Pageable pageable) {
         return ResponseEntity.ok(service.listar(pageable));
     }
+
+    // sin COUNT (scroll infinito); totalAproximado=true agrega un total cacheado
+    @GetMapping("/descuentos/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<DescuentoProductoDTO>> listarSinTotal(
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            Pageable pageable) {
+        return ResponseEntity.ok(service.listarSinTotal(pageable, totalAproximado));
+    }
 }
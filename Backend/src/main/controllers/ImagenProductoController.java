@@ -4,10 +4,9 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.service.imagenProducto.ImagenProductoService;
 import com.example.uade.tpo.ecommerce_grupo10.service.producto.ProductoService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
 
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
@@ -33,7 +32,7 @@ public class ImagenProductoController {
 
     private final ImagenProductoService imagenProductoService;
     private final ProductoService productoService;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
 
     // crear imagen simple (solo URL)
     @PostMapping("/simple")
@@ -163,18 +162,16 @@ public class ImagenProductoController {
             return false;
         }
 
-        // Verificar que el producto pertenezca al vendedor
-        String emailUsuario = auth.getName();
-        Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
+        // Verificar que el producto pertenezca al vendedor (el id viene en el principal)
+        Long vendedorId = securityService.getCurrentUserId();
 
-        if (usuarioOpt.isEmpty()) {
+        if (vendedorId == null) {
             return false;
         }
 
         // Obtener el producto y verificar que pertenezca al vendedor autenticado
         try {
             var producto = productoService.get(productoId);
-            Long vendedorId = usuarioOpt.get().getId();
             return producto.getVendedor().getId().equals(vendedorId);
         } catch (Exception e) {
             return false;
@@ -1,6 +1,5 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
-import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
@@ -14,9 +13,10 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.service.orden.OrdenService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
 
 import org.springframework.web.bind.annotation.*;
 
@@ -29,7 +29,7 @@ import lombok.RequiredArgsConstructor;
 public class OrdenController {
 
     private final OrdenService ordenService;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
 
     // Crear una orden
     @PostMapping
@@ -55,9 +55,44 @@ public class OrdenController {
             @PathVariable Long usuarioId,
             Pageable pageable) {
 
+        verificarAccesoAOrdenes(usuarioId);
+        return ResponseEntity.ok(ordenService.listarPorUsuario(usuarioId, pageable));
+    }
+
+    // Variantes sin COUNT (scroll infinito): hayMas en vez del total;
+    // totalAproximado=true agrega un total cacheado
+    @GetMapping("/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<OrdenDTO>> listarSinTotal(
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            Pageable pageable) {
+        return ResponseEntity.ok(ordenService.listarSinTotal(pageable, totalAproximado));
+    }
+
+    @GetMapping("/usuario/{usuarioId}/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<OrdenDTO>> listarPorUsuarioSinTotal(
+            @PathVariable Long usuarioId,
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            Pageable pageable) {
+
+        verificarAccesoAOrdenes(usuarioId);
+        return ResponseEntity.ok(ordenService.listarPorUsuarioSinTotal(usuarioId, pageable, totalAproximado));
+    }
+
+    // Historial por cursor (mas recientes primero, sin COUNT)
+    @GetMapping("/usuario/{usuarioId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<OrdenDTO>> listarPorUsuarioCursor(
+            @PathVariable Long usuarioId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size) {
+
+        verificarAccesoAOrdenes(usuarioId);
+        return ResponseEntity.ok(ordenService.listarPorUsuarioCursor(usuarioId, cursor, size));
+    }
+
+    // un ADMIN ve cualquier historial, el resto solo el propio
+    private void verificarAccesoAOrdenes(Long usuarioId) {
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
@@ -65,19 +100,15 @@ public class OrdenController {
 
         // Si no es ADMIN, verificar que el usuarioId corresponda al usuario autenticado
         if (!esAdmin) {
-            // Obtener el usuario por email para comparar IDs
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-            if (usuarioOpt.isPresent()) {
-                UsuarioDTO usuarioAutenticado = usuarioOpt.get();
-                if (!usuarioAutenticado.getId().equals(usuarioId)) {
-                    throw new RuntimeException("No tienes permisos para ver las órdenes de otro usuario");
-                }
-            } else {
+            // El id del usuario autenticado viene en el principal
+            Long usuarioAutenticadoId = securityService.getCurrentUserId();
+            if (usuarioAutenticadoId == null) {
                 throw new RuntimeException("Usuario no encontrado");
             }
+            if (!usuarioAutenticadoId.equals(usuarioId)) {
+                throw new RuntimeException("No tienes permisos para ver las órdenes de otro usuario");
+            }
         }
-
-        return ResponseEntity.ok(ordenService.listarPorUsuario(usuarioId, pageable));
     }
 
     // Actualizar estado
@@ -1,11 +1,12 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -14,12 +15,19 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ActualizacionStockPrecioDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoActualizacionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoImportacionDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperProducto;
+import com.example.uade.tpo.ecommerce_grupo10.service.importacion.FormatoImportacion;
+import com.example.uade.tpo.ecommerce_grupo10.service.importacion.ImportacionProductosService;
 import com.example.uade.tpo.ecommerce_grupo10.service.producto.ProductoService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -37,7 +45,8 @@ public class ProductoController {
 
     private final ProductoService productoService;
     private final MapperProducto mapperProducto;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
+    private final ImportacionProductosService importacionProductosService;
 
     // Catálogo disponible - ADMIN ve todos, VENDEDOR ve solo los suyos
     @GetMapping
@@ -47,31 +56,23 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
 
-        Page<Producto> result;
+        Slice<ProductoDTO> result;
 
         if (esAdmin) {
             // ADMIN puede ver todos los productos
             result = productoService.listarDisponibles(PageRequest.of(page, size));
         } else {
             // VENDEDOR solo puede ver sus productos
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-            if (usuarioOpt.isPresent()) {
-                Long vendedorId = usuarioOpt.get().getId();
-                result = productoService.listarPorVendedor(vendedorId, PageRequest.of(page, size));
-            } else {
-                throw new RuntimeException("Usuario no encontrado");
-            }
+            Long vendedorId = securityService.getCurrentUserId();
+            result = productoService.listarPorVendedor(vendedorId, PageRequest.of(page, size));
         }
 
-        return result.getContent().stream()
-                .map(mapperProducto::toDTOConDescuentos)
-                .toList();
+        return result.getContent();
     }
 
     // Buscar por titulo - ADMIN ve todos, VENDEDOR ve solo los suyos
@@ -83,38 +84,29 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
 
-        Page<Producto> result;
+        Slice<ProductoDTO> result;
 
         if (esAdmin) {
             // ADMIN puede buscar en todos los productos
             result = productoService.buscarPorTitulo(titulo, PageRequest.of(page, size));
         } else {
             // VENDEDOR solo puede buscar en sus productos
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-            if (usuarioOpt.isPresent()) {
-                Long vendedorId = usuarioOpt.get().getId();
-                result = productoService.buscarPorTituloPorVendedor(vendedorId, titulo, PageRequest.of(page, size));
-            } else {
-                throw new RuntimeException("Usuario no encontrado");
-            }
+            Long vendedorId = securityService.getCurrentUserId();
+            result = productoService.buscarPorTituloPorVendedor(vendedorId, titulo, PageRequest.of(page, size));
         }
 
-        return result.getContent().stream()
-                .map(mapperProducto::toDTOConDescuentos)
-                .toList();
+        return result.getContent();
     }
 
     // Obtener un producto por ID
     @GetMapping("/{id}")
     public ResponseEntity<ProductoDTO> obtenerProducto(@PathVariable Long id) {
-        Producto p = productoService.get(id);
-        return ResponseEntity.ok(mapperProducto.toDTOConDescuentos(p));
+        return ResponseEntity.ok(productoService.obtenerDTO(id));
     } // Filtrar por categoria - ADMIN ve todos, VENDEDOR ve solo los suyos
 
     @GetMapping("/categoria/{id}")
@@ -125,31 +117,23 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
                 .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
 
-        Page<Producto> result;
+        Slice<ProductoDTO> result;
 
         if (esAdmin) {
             // ADMIN puede filtrar todos los productos por categoría
             result = productoService.buscarPorCategoria(id, PageRequest.of(page, size));
         } else {
             // VENDEDOR solo puede filtrar sus productos por categoría
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-            if (usuarioOpt.isPresent()) {
-                Long vendedorId = usuarioOpt.get().getId();
-                result = productoService.buscarPorCategoriaPorVendedor(vendedorId, id, PageRequest.of(page, size));
-            } else {
-                throw new RuntimeException("Usuario no encontrado");
-            }
+            Long vendedorId = securityService.getCurrentUserId();
+            result = productoService.buscarPorCategoriaPorVendedor(vendedorId, id, PageRequest.of(page, size));
         }
 
-        return result.getContent().stream()
-                .map(mapperProducto::toDTOConDescuentos)
-                .toList();
+        return result.getContent();
     }
 
     // Crear
@@ -159,6 +143,29 @@ public class ProductoController {
         return ResponseEntity.ok(mapperProducto.toDTOConDescuentos(creado));
     }
 
+    // Importacion masiva - CSV (text/csv) o NDJSON (application/x-ndjson); el formato
+    // tambien se puede indicar con ?formato=. El cuerpo se lee a medida que llega y los
+    // productos quedan a nombre del usuario autenticado
+    @PostMapping("/importar")
+    public ResponseEntity<ResultadoImportacionDTO> importarProductos(
+            HttpServletRequest request,
+            @RequestParam(required = false) String formato,
+            @RequestParam(required = false) Integer lote) throws IOException {
+        FormatoImportacion formatoImportacion = FormatoImportacion.desde(formato, request.getContentType());
+        return ResponseEntity.ok(importacionProductosService.importar(request.getInputStream(), formatoImportacion,
+                securityService.getCurrentUserId(), lote));
+    }
+
+    // Actualizacion masiva de stock y precio (sincronizacion de inventario) - ADMIN
+    // actualiza cualquiera, VENDEDOR solo los suyos (el resto vuelve como SIN_PERMISO)
+    @PatchMapping("/lote")
+    public ResponseEntity<List<ResultadoActualizacionDTO>> actualizarStockYPrecio(
+            @RequestBody List<ActualizacionStockPrecioDTO> cambios) {
+        boolean esAdmin = securityService.getCurrentUserRol() == Rol.ADMIN;
+        return ResponseEntity.ok(
+                productoService.actualizarStockYPrecio(cambios, securityService.getCurrentUserId(), esAdmin));
+    }
+
     /// Actualizar - Solo VENDEDORES pueden editar sus propios productos, ADMIN
     /// puede editar cualquiera
     @PatchMapping("/{id}")
@@ -166,7 +173,6 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
@@ -183,13 +189,7 @@ public class ProductoController {
 
             // Obtener el producto y verificar que pertenezca al vendedor
             Producto producto = productoService.get(id);
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-
-            if (usuarioOpt.isEmpty()) {
-                throw new RuntimeException("Usuario no encontrado");
-            }
-
-            Long vendedorId = usuarioOpt.get().getId();
+            Long vendedorId = securityService.getCurrentUserId();
 
             // Verificar que el producto pertenezca al vendedor autenticado
             if (!producto.getVendedor().getId().equals(vendedorId)) {
@@ -210,7 +210,6 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
@@ -227,13 +226,7 @@ public class ProductoController {
 
             // Obtener el producto y verificar que pertenezca al vendedor
             Producto producto = productoService.get(id);
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-
-            if (usuarioOpt.isEmpty()) {
-                throw new RuntimeException("Usuario no encontrado");
-            }
-
-            Long vendedorId = usuarioOpt.get().getId();
+            Long vendedorId = securityService.getCurrentUserId();
 
             // Verificar que el producto pertenezca al vendedor autenticado
             if (!producto.getVendedor().getId().equals(vendedorId)) {
@@ -256,7 +249,6 @@ public class ProductoController {
 
         // Obtener el usuario autenticado
         Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
 
         // Verificar si el usuario es ADMIN
         boolean esAdmin = auth.getAuthorities().stream()
@@ -269,15 +261,31 @@ public class ProductoController {
             result = productoService.buscarPorPrecio(min, max, pageable);
         } else {
             // VENDEDOR solo puede buscar sus productos por precio
-            Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-            if (usuarioOpt.isPresent()) {
-                Long vendedorId = usuarioOpt.get().getId();
-                result = productoService.buscarPorPrecioPorVendedor(vendedorId, min, max, pageable);
-            } else {
-                throw new RuntimeException("Usuario no encontrado");
-            }
+            Long vendedorId = securityService.getCurrentUserId();
+            result = productoService.buscarPorPrecioPorVendedor(vendedorId, min, max, pageable);
         }
 
         return ResponseEntity.ok(result);
     }
+
+    // Igual que /precio pero sin el COUNT exacto (scroll infinito); totalAproximado
+    // agrega un total cacheado
+    @GetMapping("/precio/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<ProductoDTO>> buscarPorPrecioSinTotal(
+            @RequestParam Double min,
+            @RequestParam Double max,
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            @PageableDefault(size = 10, sort = "precio") Pageable pageable) {
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        boolean esAdmin = auth.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+
+        if (esAdmin) {
+            return ResponseEntity.ok(productoService.buscarPorPrecioSinTotal(min, max, pageable, totalAproximado));
+        }
+        Long vendedorId = securityService.getCurrentUserId();
+        return ResponseEntity.ok(productoService.buscarPorPrecioPorVendedorSinTotal(vendedorId, min, max, pageable,
+                totalAproximado));
+    }
 }
@@ -1,19 +1,34 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.BusquedaFacetadaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DisponibilidadDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperProducto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.SugerenciaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.busqueda.SugerenciasService;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.CatalogoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.VersionCatalogoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.producto.DetalleProductoService;
 import com.example.uade.tpo.ecommerce_grupo10.service.producto.ProductoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.reserva.ReservaStockService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -22,45 +37,111 @@ import lombok.RequiredArgsConstructor;
 public class ProductoPublicController {
 
     private final ProductoService productoService;
-    private final MapperProducto mapperProducto;
+    private final DetalleProductoService detalleProductoService;
+    private final CatalogoService catalogoService;
+    private final ReservaStockService reservaStockService;
+    private final SugerenciasService sugerenciasService;
+    private final VersionCatalogoService versionCatalogoService;
+    private final RespuestaCondicional respuestaCondicional;
 
     /**
      * Endpoints publicos para que los COMPRADORES puedan ver productos
      * Sin autenticacion requerida
+     * El listado y los filtros por categoria y precio se sirven desde el catalogo
+     * en memoria (no consultan la base)
+     * Las lecturas del catalogo responden con ETag y Cache-Control; si el cliente
+     * ya tiene la version actual se devuelve 304 sin consultar nada
      */
 
     @GetMapping
     public ResponseEntity<Page<ProductoDTO>> listarProductos(
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productoService.listarDisponibles(pageable)
-                .map(mapperProducto::toDTOConDescuentos));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> catalogoService.listarDisponibles(pageable));
     }
 
+    // el endpoint mas pedido: se responde con los bytes del JSON ya serializado (y
+    // comprimido) desde la cache de detalles
     @GetMapping("/{id}")
-    public ResponseEntity<ProductoDTO> obtenerProducto(@PathVariable Long id) {
-        return ResponseEntity.ok(mapperProducto.toDTOConDescuentos(productoService.get(id)));
+    public ResponseEntity<byte[]> obtenerProducto(@PathVariable Long id, HttpServletRequest request) {
+        return respuestaCondicional.responderJson(request, versionCatalogoService.versionProducto(id),
+                () -> detalleProductoService.obtener(id));
+    }
+
+    // varios productos por id en una sola llamada (carrito, wishlist, comparador), en
+    // el orden pedido: /lote?ids=3,1,2. Los ids que no existen se omiten
+    @GetMapping("/lote")
+    public ResponseEntity<List<ProductoDTO>> obtenerProductos(@RequestParam List<Long> ids,
+            HttpServletRequest request) {
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.obtenerPorIds(ids));
+    }
+
+    // lo mismo con los ids en el cuerpo, para listas que no entran en la URL
+    @PostMapping("/lote")
+    public ResponseEntity<List<ProductoDTO>> obtenerProductosPorCuerpo(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(productoService.obtenerPorIds(ids));
+    }
+
+    // se responde desde el ledger de reservas, sin leer el producto
+    @GetMapping("/{id}/disponibilidad")
+    public ResponseEntity<DisponibilidadDTO> disponibilidad(@PathVariable Long id) {
+        return ResponseEntity.ok(new DisponibilidadDTO(id, reservaStockService.disponible(id)));
     }
 
     @GetMapping("/categoria/{categoriaId}")
     public ResponseEntity<Page<ProductoDTO>> productosPorCategoria(
             @PathVariable Long categoriaId,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productoService.buscarPorCategoria(categoriaId, pageable)
-                .map(mapperProducto::toDTOConDescuentos));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> catalogoService.buscarPorCategoria(categoriaId, pageable));
     }
 
     @GetMapping("/buscar")
     public ResponseEntity<Page<ProductoDTO>> buscarProductos(
             @RequestParam String titulo,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        Pageable pageable = PageRequest.of(page, size);
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorTitulo(titulo, pageable));
+    }
+
+    // busqueda combinada: cualquier mezcla de filtros y, en la misma respuesta, los
+    // conteos para armar los filtros del costado. Desde el catalogo en memoria
+    @GetMapping("/busqueda")
+    public ResponseEntity<BusquedaFacetadaDTO> busquedaCombinada(
+            @RequestParam(required = false) String texto,
+            @RequestParam(required = false) Long categoriaId,
+            @RequestParam(required = false) Double precioMin,
+            @RequestParam(required = false) Double precioMax,
+            @RequestParam(required = false) Long vendedorId,
+            @RequestParam(required = false) Boolean conDescuento,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productoService.buscarPorTitulo(titulo, pageable)
-                .map(mapperProducto::toDTOConDescuentos));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> catalogoService.buscarConFacetas(texto, categoriaId, precioMin, precioMax, vendedorId,
+                        conDescuento, pageable));
+    }
+
+    // autocompletado mientras se tipea: se responde desde memoria, sin paginar ni
+    // consultar descuentos
+    @GetMapping("/sugerencias")
+    public ResponseEntity<List<SugerenciaDTO>> sugerencias(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "8") int limite,
+            HttpServletRequest request) {
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> sugerenciasService.sugerir(q, limite));
     }
 
     @GetMapping("/precio")
@@ -68,8 +149,85 @@ public class ProductoPublicController {
             @RequestParam Double precioMin,
             @RequestParam Double precioMax,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
         Pageable pageable = PageRequest.of(page, size);
-        return ResponseEntity.ok(productoService.buscarPorPrecio(precioMin, precioMax, pageable));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> catalogoService.buscarPorPrecio(precioMin, precioMax, pageable));
+    }
+
+    // por precio final (con el descuento vigente aplicado), ordenado de menor a mayor
+    @GetMapping("/precio-efectivo")
+    public ResponseEntity<Page<ProductoDTO>> buscarPorPrecioEfectivo(
+            @RequestParam Double precioMin,
+            @RequestParam Double precioMax,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("precioEfectivo", "id"));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorPrecioEfectivo(precioMin, precioMax, pageable));
+    }
+
+    // Variantes sin COUNT de las dos busquedas que van a la base, para scroll
+    // infinito: hayMas en vez del total (totalAproximado=true agrega uno cacheado)
+
+    @GetMapping("/buscar/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<ProductoDTO>> buscarProductosSinTotal(
+            @RequestParam String titulo,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            HttpServletRequest request) {
+        Pageable pageable = PageRequest.of(page, size);
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorTituloSinTotal(titulo, pageable, totalAproximado));
+    }
+
+    @GetMapping("/precio-efectivo/sin-total")
+    public ResponseEntity<PaginaSinTotalDTO<ProductoDTO>> buscarPorPrecioEfectivoSinTotal(
+            @RequestParam Double precioMin,
+            @RequestParam Double precioMax,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean totalAproximado,
+            HttpServletRequest request) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("precioEfectivo", "id"));
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorPrecioEfectivoSinTotal(precioMin, precioMax, pageable,
+                        totalAproximado));
+    }
+
+    // Variantes por cursor: el cliente manda el siguienteCursor de la respuesta
+    // anterior (o nada para la primera pagina). No calculan el total
+
+    @GetMapping("/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProductoDTO>> listarProductosCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.listarDisponiblesCursor(cursor, size));
+    }
+
+    @GetMapping("/categoria/{categoriaId}/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProductoDTO>> productosPorCategoriaCursor(
+            @PathVariable Long categoriaId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorCategoriaCursor(categoriaId, cursor, size));
+    }
+
+    @GetMapping("/precio/cursor")
+    public ResponseEntity<PaginaCursorDTO<ProductoDTO>> buscarPorPrecioCursor(
+            @RequestParam Double precioMin,
+            @RequestParam Double precioMax,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "10") int size,
+            HttpServletRequest request) {
+        return respuestaCondicional.responder(request, versionCatalogoService.versionCatalogo(),
+                () -> productoService.buscarPorPrecioCursor(precioMin, precioMax, cursor, size));
     }
 }
@@ -0,0 +1,142 @@
+package com.example.uade.tpo.ecommerce_grupo10.controllers;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.JsonSerializado;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * GET condicional para los endpoints publicos. El ETag (fuerte) y el Last-Modified
+ * salen de una version que se conoce sin leer nada (ver VersionCatalogoService):
+ * si el cliente ya tiene esa version se responde 304 sin ejecutar la consulta ni
+ * el mapeo.
+ *
+ * Cache-Control public con max-age corto y stale-while-revalidate: el navegador o
+ * una CDN sirven la copia sin preguntar durante max-age, y despues la siguen
+ * sirviendo mientras revalidan en segundo plano.
+ */
+@Component
+public class RespuestaCondicional {
+
+    private final CacheControl cacheControl;
+
+    public RespuestaCondicional(
+            @Value("${application.catalogo.http.max-age-segundos:30}") long maxAge,
+            @Value("${application.catalogo.http.stale-while-revalidate-segundos:60}") long staleWhileRevalidate) {
+        this.cacheControl = CacheControl.maxAge(maxAge, TimeUnit.SECONDS)
+                .cachePublic()
+                .staleWhileRevalidate(staleWhileRevalidate, TimeUnit.SECONDS);
+    }
+
+    // el cuerpo solo se calcula si el cliente no tiene la version actual
+    public <T> ResponseEntity<T> responder(HttpServletRequest request, long version, Supplier<T> cuerpo) {
+        String etag = etag(version);
+        if (noModificado(request, etag, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(version)
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version)
+                .cacheControl(cacheControl)
+                .body(cuerpo.get());
+    }
+
+    // igual pero con el JSON ya serializado: se escriben los bytes tal cual, los
+    // comprimidos si el cliente acepta gzip. Cada codificacion tiene su propio ETag
+    // (fuerte) y se avisa con Vary que la respuesta depende de Accept-Encoding
+    public ResponseEntity<byte[]> responderJson(HttpServletRequest request, long version,
+            Supplier<JsonSerializado> cuerpo) {
+        boolean gzip = aceptaGzip(request);
+        String etag = gzip ? etag(version, "-gz") : etag(version);
+        if (noModificado(request, etag, version)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(etag)
+                    .lastModified(version)
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+        JsonSerializado serializado = cuerpo.get();
+        ResponseEntity.BodyBuilder respuesta = ResponseEntity.ok()
+                .eTag(etag)
+                .lastModified(version)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (gzip) {
+            return respuesta.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(serializado.getGzip());
+        }
+        return respuesta.body(serializado.getJson());
+    }
+
+    private static String etag(long version) {
+        return etag(version, "");
+    }
+
+    private static String etag(long version, String sufijo) {
+        return "\"" + Long.toString(version, 36) + sufijo + "\"";
+    }
+
+    // gzip en Accept-Encoding, salvo que venga con q=0
+    private static boolean aceptaGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String codificacion : acceptEncoding.split(",")) {
+            String[] partes = codificacion.split(";");
+            if (!partes[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < partes.length; i++) {
+                String parametro = partes[i].replace(" ", "");
+                if (parametro.matches("q=0(\\.0*)?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    // If-None-Match manda sobre If-Modified-Since (RFC 9110 13.2.2)
+    private boolean noModificado(HttpServletRequest request, String etag, long version) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String candidato : ifNoneMatch.split(",")) {
+                String c = candidato.trim();
+                // comparacion debil: un W/"x" del cliente coincide con "x"
+                if (c.startsWith("W/")) {
+                    c = c.substring(2);
+                }
+                if (c.equals("*") || c.equals(etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        long ifModifiedSince;
+        try {
+            ifModifiedSince = request.getDateHeader(HttpHeaders.IF_MODIFIED_SINCE);
+        } catch (IllegalArgumentException e) {
+            return false; // fecha mal formada: se ignora
+        }
+        // Last-Modified va en segundos
+        return ifModifiedSince >= 0 && version / 1000 * 1000 <= ifModifiedSince;
+    }
+}
@@ -16,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioCreateDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioUpdateDTO;
@@ -62,6 +63,34 @@ public class UsuarioController {
         return usuarioService.listarPorRol(rol, pageable);
     }
 
+    // Variantes sin COUNT de los tres listados (scroll infinito): hayMas en vez del
+    // total; totalAproximado=true agrega un total cacheado
+    @GetMapping("/sin-total")
+    public PaginaSinTotalDTO<UsuarioDTO> listarUsuariosSinTotal(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean totalAproximado) {
+        return usuarioService.listarSinTotal(PageRequest.of(page, size), totalAproximado);
+    }
+
+    @GetMapping("/buscar/sin-total")
+    public PaginaSinTotalDTO<UsuarioDTO> buscarUsuariosSinTotal(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean totalAproximado) {
+        return usuarioService.buscarSinTotal(q, PageRequest.of(page, size), totalAproximado);
+    }
+
+    @GetMapping("/rol/{rol}/sin-total")
+    public PaginaSinTotalDTO<UsuarioDTO> usuariosPorRolSinTotal(
+            @PathVariable Rol rol,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size,
+            @RequestParam(defaultValue = "false") boolean totalAproximado) {
+        return usuarioService.listarPorRolSinTotal(rol, PageRequest.of(page, size), totalAproximado);
+    }
+
     // Buscar usuario por username
     @GetMapping("/username/{username}")
     public ResponseEntity<UsuarioDTO> buscarPorUsername(@PathVariable String username) {
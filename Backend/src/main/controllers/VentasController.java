@@ -0,0 +1,73 @@
+package com.example.uade.tpo.ecommerce_grupo10.controllers;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaDiariaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.ResumenVentasService;
+
+import lombok.RequiredArgsConstructor;
+
+// Reportes de ventas - ADMIN ve todo, VENDEDOR solo lo suyo. Las fechas son ISO
+// (yyyy-MM-dd) y por defecto cubren los ultimos 30 dias
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/ventas")
+public class VentasController {
+
+    private static final int DIAS_POR_DEFECTO = 30;
+
+    private final ResumenVentasService resumenVentasService;
+    private final SecurityService securityService;
+
+    // Ventas por dia. ADMIN elige dimension e id (por defecto el total); VENDEDOR ve
+    // siempre las suyas
+    @GetMapping("/diarias")
+    public List<VentaDiariaDTO> diarias(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "TOTAL") DimensionVenta dimension,
+            @RequestParam(required = false) Long id) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+
+        if (esAdmin()) {
+            return resumenVentasService.diarias(dimension, id, inicio, fin);
+        }
+        return resumenVentasService.diarias(DimensionVenta.VENDEDOR, securityService.getCurrentUserId(), inicio,
+                fin);
+    }
+
+    // Productos mas vendidos por ingresos. ADMIN ve todos, VENDEDOR solo los suyos
+    @GetMapping("/productos")
+    public List<VentaAcumuladaDTO> rankingProductos(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate hasta,
+            @RequestParam(defaultValue = "20") int limite) {
+        LocalDate fin = hasta != null ? hasta : LocalDate.now();
+        LocalDate inicio = desde != null ? desde : fin.minusDays(DIAS_POR_DEFECTO - 1);
+
+        if (esAdmin()) {
+            return resumenVentasService.ranking(DimensionVenta.PRODUCTO, inicio, fin, limite);
+        }
+        return resumenVentasService.rankingProductosDeVendedor(securityService.getCurrentUserId(), inicio, fin,
+                limite);
+    }
+
+    private boolean esAdmin() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth.getAuthorities().stream()
+                .anyMatch(grantedAuthority -> grantedAuthority.getAuthority().equals("ROLE_ADMIN"));
+    }
+}
@@ -1,8 +1,6 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -11,12 +9,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.WishlistDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
 import com.example.uade.tpo.ecommerce_grupo10.service.wishlist.WishlistService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioAutenticado;
 
-import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -25,24 +22,19 @@ import lombok.RequiredArgsConstructor;
 public class WishlistController {
 
     private final WishlistService wishlistService;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
 
     /**
      * Valida que el usuario autenticado sea el propietario de la wishlist y que sea
      * un COMPRADOR
      */
     private void validarAccesoWishlist(Long usuarioId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
-
-        // Obtener el usuario por email para verificar que coincida con el usuarioId
-        Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-        if (usuarioOpt.isEmpty()) {
+        // El id y el rol vienen en el principal autenticado (sin consultar la base)
+        UsuarioAutenticado usuario = securityService.getCurrentUser();
+        if (usuario == null) {
             throw new RuntimeException("Usuario no encontrado");
         }
 
-        UsuarioDTO usuario = usuarioOpt.get();
-
         // Verificar que el usuario autenticado sea el mismo que el usuarioId del path
         if (!usuario.getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes acceso a la wishlist de otro usuario");
@@ -1,7 +1,6 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers;
 
 import java.util.List;
-import java.util.Optional;
 
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
@@ -16,10 +15,10 @@ import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.RequestMethod;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.WishlistItemDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
 import com.example.uade.tpo.ecommerce_grupo10.service.wishlistItem.WishlistItemService;
-import com.example.uade.tpo.ecommerce_grupo10.service.usuario.UsuarioService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioAutenticado;
 
 import lombok.RequiredArgsConstructor;
 
@@ -31,24 +30,19 @@ import lombok.RequiredArgsConstructor;
 public class WishlistItemController {
 
     private final WishlistItemService wishlistItemService;
-    private final UsuarioService usuarioService;
+    private final SecurityService securityService;
 
     /**
      * Valida que el usuario autenticado sea el propietario de la wishlist y que sea
      * un COMPRADOR
      */
     private void validarAccesoWishlist(Long usuarioId) {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        String emailUsuario = auth.getName();
-
-        // Obtener el usuario por email para verificar que coincida con el usuarioId
-        Optional<UsuarioDTO> usuarioOpt = usuarioService.buscarPorEmail(emailUsuario);
-        if (usuarioOpt.isEmpty()) {
+        // El id y el rol vienen en el principal autenticado (sin consultar la base)
+        UsuarioAutenticado usuario = securityService.getCurrentUser();
+        if (usuario == null) {
             throw new RuntimeException("Usuario no encontrado");
         }
 
-        UsuarioDTO usuario = usuarioOpt.get();
-
         // Verificar que el usuario autenticado sea el mismo que el usuarioId del path
         if (!usuario.getId().equals(usuarioId)) {
             throw new RuntimeException("No tienes acceso a la wishlist de otro usuario");
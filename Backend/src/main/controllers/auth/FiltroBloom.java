@@ -0,0 +1,46 @@
+package com.example.uade.tpo.ecommerce_grupo10.controllers.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom sobre un arreglo de bits. Recibe los dos hashes ya calculados
+ * (doble hashing de Kirsch-Mitzenmacher) para que la consulta no reserve memoria.
+ * Puede dar falsos positivos, nunca falsos negativos. No permite borrar: para
+ * sacar elementos se arma uno nuevo.
+ */
+final class FiltroBloom {
+
+    private static final int BITS_POR_ELEMENTO = 10;
+    private static final int FUNCIONES = 7; // ~1% de falsos positivos con 10 bits por elemento
+
+    private final AtomicLongArray palabras;
+    private final long cantidadBits;
+
+    FiltroBloom(int capacidad) {
+        long bits = Math.max(64L, (long) capacidad * BITS_POR_ELEMENTO);
+        this.palabras = new AtomicLongArray((int) ((bits + 63) / 64));
+        this.cantidadBits = palabras.length() * 64L;
+    }
+
+    void agregar(long h1, long h2) {
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            int palabra = (int) (bit >>> 6);
+            long mascara = 1L << bit;
+            long actual;
+            do {
+                actual = palabras.get(palabra);
+            } while ((actual & mascara) == 0 && !palabras.compareAndSet(palabra, actual, actual | mascara));
+        }
+    }
+
+    boolean puedeContener(long h1, long h2) {
+        for (int i = 0; i < FUNCIONES; i++) {
+            long bit = Math.floorMod(h1 + i * h2, cantidadBits);
+            if ((palabras.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -4,12 +4,14 @@ import java.io.IOException;
 
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.uade.tpo.ecommerce_grupo10.service.security.PrincipalCacheService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioAutenticado;
+
+import io.jsonwebtoken.Claims;
 import io.micrometer.common.lang.NonNull;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -22,7 +24,7 @@ import lombok.RequiredArgsConstructor;
 public class JwtAuthFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
-    private final UserDetailsService userDetailsService;
+    private final PrincipalCacheService principalCacheService;
     private final TokenBlacklistService tokenBlacklistService;
 
     /**
@@ -67,11 +69,15 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 return;
             }
 
-            // Extraemos el usuario y validamos el token.
-            String userEmail = jwtService.extractUsername(jwt);
+            // Verificamos el token una sola vez (los claims quedan cacheados) y
+            // extraemos el usuario.
+            Claims claims = jwtService.extractAllClaims(jwt);
+            String userEmail = claims.getSubject();
             if (userEmail != null) {
-                UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-                if (jwtService.isTokenValid(jwt, userDetails)) {
+                // El principal (id, email y rol) sale de la cache: no se consulta
+                // usuarios en cada request.
+                UsuarioAutenticado userDetails = principalCacheService.cargar(userEmail);
+                if (jwtService.isTokenValid(claims, userDetails)) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                             userDetails,
                             null,
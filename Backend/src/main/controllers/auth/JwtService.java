@@ -1,7 +1,13 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers.auth;
 
 import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 import javax.crypto.SecretKey;
@@ -11,8 +17,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.beans.factory.annotation.Value;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
 @Service
 public class JwtService {
@@ -20,6 +28,32 @@ public class JwtService {
     private String secretKey;
     @Value("${application.security.jwt.expiration}")
     private long jwtExpiration;
+    @Value("${application.security.jwt.cache-max:10000}")
+    private int cacheMax;
+
+    // la clave y el parser se arman una sola vez (el parser es inmutable y thread-safe)
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // claims ya verificados, por huella (SHA-256) del token: cada token se verifica
+    // una vez y se reutiliza hasta que vence
+    private final Map<String, ClaimsVerificados> claimsCache = new ConcurrentHashMap<>();
+
+    private static final class ClaimsVerificados {
+        final Claims claims;
+        final long venceEnMs;
+
+        ClaimsVerificados(Claims claims, long venceEnMs) {
+            this.claims = claims;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parser().verifyWith(signingKey).build();
+    }
 
     public String generateToken(
             UserDetails userDetails) {
@@ -34,17 +68,17 @@ public class JwtService {
                 .subject(userDetails.getUsername())
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSecretKey())
+                .signWith(signingKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractClaim(token, Claims::getSubject);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractClaim(token, Claims::getExpiration).before(new Date());
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername())
+                && !claims.getExpiration().before(new Date());
     }
 
     public String extractUsername(String token) {
@@ -56,17 +90,53 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSecretKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    /**
+     * Claims del token con la firma verificada. La verificacion se hace una sola
+     * vez por token; las siguientes llamadas salen de la cache mientras el token
+     * no haya vencido. Lanza JwtException si el token es invalido o esta vencido.
+     */
+    public Claims extractAllClaims(String token) {
+        String huella = huella(token);
+        long ahora = System.currentTimeMillis();
+
+        ClaimsVerificados cacheado = claimsCache.get(huella);
+        if (cacheado != null) {
+            if (cacheado.venceEnMs > ahora) {
+                return cacheado.claims;
+            }
+            claimsCache.remove(huella);
+        }
+
+        // si la firma no es valida o vencio, lanza la excepcion y no se cachea
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        Date expiracion = claims.getExpiration();
+        if (expiracion != null) {
+            if (claimsCache.size() >= cacheMax) {
+                liberarEspacio(ahora);
+            }
+            claimsCache.put(huella, new ClaimsVerificados(claims, expiracion.getTime()));
+        }
+        return claims;
+    }
+
+    // primero los vencidos; si no alcanza, se descarta la mitad de la cache
+    // (se vuelven a verificar la proxima vez que lleguen)
+    private void liberarEspacio(long ahora) {
+        claimsCache.values().removeIf(c -> c.venceEnMs <= ahora);
+        int aQuitar = claimsCache.size() - cacheMax / 2;
+        Iterator<String> it = claimsCache.keySet().iterator();
+        while (aQuitar-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
     }
 
-    private SecretKey getSecretKey() {
-        SecretKey secretKeySpec = Keys.hmacShaKeyFor(secretKey.getBytes(StandardCharsets.UTF_8));
-        return secretKeySpec;
+    private static String huella(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
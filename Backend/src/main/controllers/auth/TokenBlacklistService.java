@@ -1,24 +1,149 @@
 package com.example.uade.tpo.ecommerce_grupo10.controllers.auth;
 
-import java.util.Set;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.concurrent.ConcurrentHashMap;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import jakarta.annotation.PostConstruct;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Tokens revocados (logout). De cada token se guarda solo una huella de 128 bits
+ * y su vencimiento; cuando el token venceria de todos modos se descarta, asi que
+ * la memoria queda acotada a los tokens revocados dentro de una ventana de
+ * application.security.jwt.expiration.
+ *
+ * Adelante hay un filtro de Bloom: el caso comun (token no revocado) se resuelve
+ * con dos hashes sobre el string y unas lecturas de bits, sin reservar memoria.
+ * Solo si el filtro dice "puede estar" se calcula la huella y se consulta el mapa.
+ */
 @Service
+@RequiredArgsConstructor
 public class TokenBlacklistService {
 
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    private static final long SEMILLA_1 = 0xcbf29ce484222325L;
+    private static final long SEMILLA_2 = 0x9e3779b97f4a7c15L;
+
+    private final JwtService jwtService;
+
+    @Value("${application.security.blacklist.capacidad:100000}")
+    private int capacidad;
+
+    // huella -> vencimiento del token (ms)
+    private final Map<Huella, Long> revocados = new ConcurrentHashMap<>();
+    // mismas entradas ordenadas por vencimiento, para purgar sin recorrer el mapa
+    private final PriorityQueue<Revocado> porVencimiento = new PriorityQueue<>(
+            Comparator.comparingLong(r -> r.venceEnMs));
+
+    private volatile FiltroBloom filtro;
 
-    public void blacklistToken(String token) {
-        blacklistedTokens.add(token);
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Huella {
+        private final long alta;
+        private final long baja;
+    }
+
+    // guarda tambien los hashes del filtro para poder rearmarlo sin el token
+    @AllArgsConstructor
+    private static final class Revocado {
+        private final Huella huella;
+        private final long h1;
+        private final long h2;
+        private final long venceEnMs;
+    }
+
+    @PostConstruct
+    void init() {
+        filtro = new FiltroBloom(capacidad);
+    }
+
+    // las escrituras (logout, purga) son pocas y van sincronizadas para que el
+    // filtro nunca pierda un token que esta en el mapa; la consulta no toma locks
+    public synchronized void blacklistToken(String token) {
+        long venceEn;
+        try {
+            venceEn = jwtService.extractClaim(token, Claims::getExpiration).getTime();
+        } catch (JwtException e) {
+            return; // invalido o vencido: ya no autentica, no hace falta guardarlo
+        }
+
+        Huella huella = huella(token);
+        long h1 = hash(token, SEMILLA_1);
+        long h2 = hash(token, SEMILLA_2) | 1;
+        if (revocados.put(huella, venceEn) == null) {
+            porVencimiento.add(new Revocado(huella, h1, h2, venceEn));
+        }
+        filtro.agregar(h1, h2);
     }
 
     public boolean isTokenBlacklisted(String token) {
-        return blacklistedTokens.contains(token);
+        if (!filtro.puedeContener(hash(token, SEMILLA_1), hash(token, SEMILLA_2) | 1)) {
+            return false;
+        }
+        return revocados.containsKey(huella(token));
+    }
+
+    public synchronized void clearBlacklist() {
+        revocados.clear();
+        porVencimiento.clear();
+        filtro = new FiltroBloom(capacidad);
+    }
+
+    // saca los tokens que ya vencieron y, si hubo cambios, rearma el filtro con los
+    // que quedan (un filtro de Bloom no permite borrar)
+    @Scheduled(fixedDelayString = "${application.security.blacklist.purga-ms:60000}")
+    public synchronized void purgarVencidos() {
+        long ahora = System.currentTimeMillis();
+        int quitados = 0;
+        while (!porVencimiento.isEmpty() && porVencimiento.peek().venceEnMs <= ahora) {
+            Revocado r = porVencimiento.poll();
+            revocados.remove(r.huella, r.venceEnMs);
+            quitados++;
+        }
+        if (quitados == 0) {
+            return;
+        }
+
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidad, revocados.size()));
+        for (Revocado r : porVencimiento) {
+            nuevo.agregar(r.h1, r.h2);
+        }
+        filtro = nuevo;
+    }
+
+    // hash de 64 bits sobre los caracteres del token, sin copiar el string
+    private static long hash(String token, long semilla) {
+        long h = semilla;
+        for (int i = 0; i < token.length(); i++) {
+            h = (h ^ token.charAt(i)) * 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        return h;
     }
 
-    public void clearBlacklist() {
-        blacklistedTokens.clear();
+    private static Huella huella(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            ByteBuffer bytes = ByteBuffer.wrap(digest);
+            return new Huella(bytes.getLong(), bytes.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
     }
 }
@@ -57,6 +57,7 @@ public class SecurityConfig {
                         .requestMatchers("/categorias/**").hasAnyRole("VENDEDOR", "ADMIN")
                         .requestMatchers("/descuentos/**").hasAnyRole("VENDEDOR", "ADMIN")
                         .requestMatchers("/imagenes/**").hasAnyRole("VENDEDOR", "ADMIN")
+                        .requestMatchers("/ventas/**").hasAnyRole("VENDEDOR", "ADMIN")
 
                         // ADMIN - Reglas generales (MENOS ESPECÍFICAS, van al final)
                         .requestMatchers("/usuarios/**").hasRole("ADMIN") // Solo ADMIN para gestión general de usuarios
@@ -10,6 +10,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +25,9 @@ import lombok.Setter;
 public class Categoria {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "categorias_gen")
+    @TableGenerator(name = "categorias_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "categorias", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -0,0 +1,42 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Comparator;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Clave natural de una fila de resumen: que se agrupa, de quien y que dia
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ClaveResumenVenta implements Serializable, Comparable<ClaveResumenVenta> {
+
+    private static final Comparator<ClaveResumenVenta> ORDEN = Comparator
+            .comparing(ClaveResumenVenta::getDimension)
+            .thenComparing(ClaveResumenVenta::getClaveId)
+            .thenComparing(ClaveResumenVenta::getFecha);
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private DimensionVenta dimension;
+
+    @Column(name = "clave_id", nullable = false)
+    private Long claveId;
+
+    @Column(nullable = false)
+    private LocalDate fecha;
+
+    // orden fijo para tomar los locks de fila siempre en la misma secuencia
+    @Override
+    public int compareTo(ClaveResumenVenta otra) {
+        return ORDEN.compare(this, otra);
+    }
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -24,7 +25,9 @@ import lombok.Setter;
 public class DescuentoProducto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "descuentos_productos_gen")
+    @TableGenerator(name = "descuentos_productos_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "descuentos_productos", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false)
@@ -42,4 +45,29 @@ public class DescuentoProducto {
     @OneToOne
     @JoinColumn(name = "producto_id", nullable = false)
     private Producto producto;
+
+    // activo, con porcentaje y dentro de su ventana (extremos incluidos) en ese instante
+    public boolean vigenteEn(Date instante) {
+        if (!activo || porcentajeDescuento <= 0) {
+            return false;
+        }
+        return fechaInicio == null || fechaFin == null
+                || !(instante.before(fechaInicio) || instante.after(fechaFin));
+    }
+
+    // instante en que un descuento con esa ventana empieza o deja de estar vigente: la
+    // apertura si todavia no empezo, el cierre si esta vigente (el fin es inclusive).
+    // Long.MAX_VALUE si esta inactivo, no tiene fechas o ya termino
+    public static long proximoCambio(boolean activo, Date inicio, Date fin, long ahora) {
+        if (!activo || inicio == null || fin == null) {
+            return Long.MAX_VALUE;
+        }
+        if (ahora < inicio.getTime()) {
+            return inicio.getTime();
+        }
+        if (ahora <= fin.getTime()) {
+            return fin.getTime() + 1;
+        }
+        return Long.MAX_VALUE;
+    }
 }
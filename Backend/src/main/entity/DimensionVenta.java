@@ -0,0 +1,9 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity;
+
+// Por que se agrupa cada fila de resumen_ventas; en TOTAL la clave es siempre 0
+public enum DimensionVenta {
+    PRODUCTO,
+    VENDEDOR,
+    CATEGORIA,
+    TOTAL
+}
@@ -7,6 +7,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -21,7 +22,9 @@ import lombok.Setter;
 public class ImagenProducto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "imagenes_productos_gen")
+    @TableGenerator(name = "imagenes_productos_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "imagenes_productos", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false, length = 300)
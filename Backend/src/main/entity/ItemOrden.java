@@ -5,15 +5,20 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name="items_ordenes")
+@Table(name="items_ordenes", indexes = {
+        // unidades vendidas por producto (peso de las sugerencias) sin leer la tabla
+        @Index(name = "idx_items_ordenes_producto", columnList = "id_producto, cantidad")
+})
 @Getter // genera los getters
 @Setter // genera los setters
 @NoArgsConstructor // genera el constructor por defecto
@@ -21,7 +26,9 @@ import lombok.Setter;
 public class ItemOrden {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "items_ordenes_gen")
+    @TableGenerator(name = "items_ordenes_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "items_ordenes", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false)
@@ -39,6 +46,12 @@ public class ItemOrden {
     @Column(nullable = false)
     private double descuentoAplicado;
 
+    // vendedor y categoria del producto al momento de la venta, para el resumen de
+    // ventas (null en items anteriores: se toman los actuales del producto)
+    private Long idVendedor;
+
+    private Long idCategoria;
+
     @ManyToOne
     private Orden orden; // Relacion con la entidad Orden
 }
@@ -9,16 +9,21 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "ordenes")
+@Table(name = "ordenes", indexes = {
+        // historial por usuario con cursor: (usuario, fecha, id)
+        @Index(name = "idx_ordenes_usuario_fecha", columnList = "usuario_id, fecha_creacion, id")
+})
 @Getter // genera los getters
 @Setter // genera los setters
 @NoArgsConstructor // genera el constructor por defecto
@@ -26,7 +31,9 @@ import lombok.Setter;
 public class Orden {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "ordenes_gen")
+    @TableGenerator(name = "ordenes_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "ordenes", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false)
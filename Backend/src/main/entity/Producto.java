@@ -13,18 +13,25 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "productos")
+@Table(name = "productos", indexes = {
+        // listados por precio con cursor: (precio, id)
+        @Index(name = "idx_productos_precio", columnList = "precio, id"),
+        // filtros y orden por precio con descuento
+        @Index(name = "idx_productos_precio_efectivo", columnList = "precio_efectivo, id")
+})
 @Getter // genera los getters
 @Setter // genera los setters
 @NoArgsConstructor // genera el constructor por defecto
@@ -32,7 +39,9 @@ import lombok.Setter;
 public class Producto {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "productos_gen")
+    @TableGenerator(name = "productos_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "productos", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable = false, length = 100)
@@ -47,6 +56,16 @@ public class Producto {
     @Column(nullable = false)
     private int stock;
 
+    // precio con el descuento vigente aplicado y porcentaje de ese descuento (0 = sin
+    // descuento). Los mantiene PrecioEfectivoService con UPDATE directos cuando cambia
+    // el precio o el descuento y cuando se abre o cierra la ventana de vigencia; JPA
+    // solo los lee (null = todavia no calculado)
+    @Column(name = "precio_efectivo", insertable = false, updatable = false)
+    private Double precioEfectivo;
+
+    @Column(name = "descuento_vigente", insertable = false, updatable = false)
+    private Double descuentoVigente;
+
     @ManyToOne
     @JoinColumn(name = "vendedor_id", nullable = true) // Permitir null cuando se elimina el vendedor
     private Usuario vendedor; // Relacion muchos a uno con la entidad Usuario, cada producto tiene un vendedor
@@ -0,0 +1,51 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Reserva temporal de stock que toma un usuario al agregar un producto al
+// carrito. Las reservas vigentes viven en memoria; la tabla sirve para
+// recuperarlas si se reinicia la aplicacion
+@Entity
+@Table(name = "reservas_stock", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_reservas_usuario_producto", columnNames = { "usuario_id", "producto_id" })
+}, indexes = {
+        @Index(name = "idx_reservas_vence_en", columnList = "vence_en")
+})
+@Getter // genera los getters
+@Setter // genera los setters
+@NoArgsConstructor // genera el constructor por defecto
+@AllArgsConstructor // genera el constructor con todos los parametros
+public class ReservaStock {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "reservas_stock_gen")
+    @TableGenerator(name = "reservas_stock_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "reservas_stock", allocationSize = Secuencias.BLOQUE)
+    private Long id;
+
+    @Column(name = "usuario_id", nullable = false)
+    private Long usuarioId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private int cantidad;
+
+    @Column(name = "vence_en", nullable = false)
+    private LocalDateTime venceEn;
+}
@@ -0,0 +1,41 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Ventas ya agregadas por dia y por producto, vendedor, categoria o en total. Se
+// mantiene con sumas incrementales (checkout y cambios de estado de las ordenes) y
+// se puede reconstruir desde ordenes/items_ordenes; los reportes leen solo esta
+// tabla. Solo cuentan las ordenes COMPLETADA
+@Entity
+@Table(name = "resumen_ventas", indexes = {
+        // serie diaria de una clave
+        @Index(name = "idx_resumen_ventas_clave", columnList = "dimension, clave_id, fecha"),
+        // rankings de una dimension en un rango de fechas
+        @Index(name = "idx_resumen_ventas_dimension_fecha", columnList = "dimension, fecha")
+})
+@Getter // genera los getters
+@Setter // genera los setters
+@NoArgsConstructor // genera el constructor por defecto
+@AllArgsConstructor // genera el constructor con todos los parametros
+public class ResumenVenta {
+
+    @EmbeddedId
+    private ClaveResumenVenta clave;
+
+    @Column(nullable = false)
+    private double ingresos; // (precio unitario - descuento) * cantidad
+
+    @Column(nullable = false)
+    private long unidades;
+
+    @Column(nullable = false)
+    private long ordenes; // ordenes distintas de ese dia
+}
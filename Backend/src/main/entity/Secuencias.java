@@ -0,0 +1,28 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity;
+
+import java.util.List;
+
+/**
+ * Tabla de secuencias compartida por todas las entidades (MySQL no tiene SEQUENCE).
+ * Cada entidad tiene su fila (la clave es el nombre de su tabla) y Hibernate reserva
+ * los ids de a BLOQUE con el optimizador pooled: un solo UPDATE cada 50 inserts, y
+ * como el id se conoce antes del INSERT los inserts se pueden agrupar en batches
+ * JDBC (con IDENTITY Hibernate tiene que ejecutar cada INSERT en el momento para
+ * leer el id generado).
+ */
+public final class Secuencias {
+
+    public static final String TABLA = "secuencias";
+    public static final String COLUMNA_ENTIDAD = "entidad";
+    public static final String COLUMNA_VALOR = "proximo_id";
+    public static final int BLOQUE = 50;
+
+    // tablas que toman su id de la tabla de secuencias (ver SecuenciasInitializer)
+    public static final List<String> TABLAS = List.of(
+            "usuarios", "categorias", "productos", "imagenes_productos", "descuentos_productos",
+            "carritos", "items_carrito", "wishlists", "wishlist_items", "ordenes", "items_ordenes",
+            "reservas_stock");
+
+    private Secuencias() {
+    }
+}
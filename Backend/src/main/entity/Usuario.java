@@ -16,6 +16,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -30,7 +31,9 @@ import lombok.Setter;
 public class Usuario {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY) // generacion del ID automaticamente
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "usuarios_gen") // generacion del ID automaticamente
+    @TableGenerator(name = "usuarios_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "usuarios", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable= false, length=100, unique = true) // columna no puede ser nula y es un VARCHAR de 100 caracteres
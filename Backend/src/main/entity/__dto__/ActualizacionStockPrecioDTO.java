@@ -0,0 +1,26 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Un cambio de una actualizacion masiva de inventario. Stock y precio pueden venir
+// como valor absoluto (stock, precio) o como diferencia (stockDelta, precioDelta);
+// el campo que no viene no se toca
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActualizacionStockPrecioDTO {
+
+    private Long id;
+
+    private Integer stock;
+
+    private Integer stockDelta;
+
+    private Double precio;
+
+    private Double precioDelta;
+}
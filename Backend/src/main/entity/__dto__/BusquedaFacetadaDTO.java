@@ -0,0 +1,31 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pagina de productos de una busqueda combinada mas los conteos de cada faceta.
+// Cada faceta se cuenta con todos los filtros aplicados menos el suyo
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BusquedaFacetadaDTO {
+
+    private Page<ProductoDTO> productos;
+
+    @Builder.Default
+    private List<FacetaDTO> categorias = new ArrayList<>();
+
+    @Builder.Default
+    private List<FacetaDTO> rangosPrecio = new ArrayList<>();
+
+    @Builder.Default
+    private List<FacetaDTO> descuento = new ArrayList<>();
+}
@@ -2,6 +2,8 @@ package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
 
 import java.util.Date;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.DescuentoProducto;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,4 +20,9 @@ public class DescuentoProductoDTO {
     private Date fechaFin;
     private Boolean activo;
     private Long productoId; // referenciamos al producto
+
+    // ver DescuentoProducto.proximoCambio
+    public long proximoCambio(long ahora) {
+        return DescuentoProducto.proximoCambio(Boolean.TRUE.equals(activo), fechaInicio, fechaFin, ahora);
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Unidades que se pueden agregar al carrito: stock menos lo reservado en
+// carritos de otros compradores
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DisponibilidadDTO {
+
+    private Long productoId;
+
+    private int disponible;
+}
@@ -0,0 +1,18 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Fila rechazada en una importacion (fila 1 = primera fila de datos)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ErrorImportacionDTO {
+
+    private long fila;
+
+    private String mensaje;
+}
@@ -0,0 +1,22 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Un valor de una faceta de busqueda y cuantos productos lo tienen. valor es lo que
+// se manda como filtro (id de categoria, limite inferior del rango de precio,
+// true/false para descuento)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetaDTO {
+
+    private String valor;
+
+    private String nombre;
+
+    private long cantidad;
+}
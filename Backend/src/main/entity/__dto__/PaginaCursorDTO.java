@@ -0,0 +1,28 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pagina por cursor (keyset): no trae total de elementos, solo si hay mas y el
+// cursor para pedir la siguiente
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaCursorDTO<T> {
+
+    @Builder.Default
+    private List<T> contenido = new ArrayList<>();
+
+    private int tamanio;
+
+    private boolean hayMas;
+
+    // null cuando no hay mas resultados
+    private String siguienteCursor;
+}
@@ -0,0 +1,30 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Pagina por numero sin el COUNT exacto (scroll infinito): solo dice si hay mas.
+// El total aproximado viene solo si se pidio, y puede tener hasta un minuto de atraso
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaginaSinTotalDTO<T> {
+
+    @Builder.Default
+    private List<T> contenido = new ArrayList<>();
+
+    private int pagina;
+
+    private int tamanio;
+
+    private boolean hayMas;
+
+    // null si no se pidio; exacto cuando es la ultima pagina
+    private Long totalAproximado;
+}
@@ -0,0 +1,22 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de un cambio de una actualizacion masiva de inventario. estado:
+// ACTUALIZADO, NO_ENCONTRADO, SIN_PERMISO, INVALIDO o RECHAZADO (el stock quedaria
+// negativo o el precio en 0 o menos)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoActualizacionDTO {
+
+    private Long id;
+
+    private String estado;
+
+    private String mensaje;
+}
@@ -0,0 +1,27 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resumen de una importacion masiva de productos
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoImportacionDTO {
+
+    private long filasProcesadas;
+
+    private long productosCreados;
+
+    private long filasConError;
+
+    // detalle de los primeros errores; el total es filasConError
+    @Builder.Default
+    private List<ErrorImportacionDTO> errores = new ArrayList<>();
+}
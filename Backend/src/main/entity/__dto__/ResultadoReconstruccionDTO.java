@@ -0,0 +1,21 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Resultado de reconstruir resumen_ventas desde las ordenes
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ResultadoReconstruccionDTO {
+    private LocalDate desde; // null si no hay ordenes
+    private LocalDate hasta;
+    private int tramos; // rangos de dias procesados en paralelo
+    private int filas; // filas de resumen escritas
+    private long milisegundos;
+}
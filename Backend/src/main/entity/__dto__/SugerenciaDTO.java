@@ -0,0 +1,22 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Una sugerencia del autocompletado: un producto (id del producto) o una categoria
+// (id de la categoria)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SugerenciaDTO {
+
+    private String texto;
+
+    // PRODUCTO o CATEGORIA
+    private String tipo;
+
+    private Long id;
+}
@@ -0,0 +1,20 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ventas de un producto, vendedor o categoria sumadas en un rango de fechas (una
+// fila de ranking). nombre es null si ya no existe
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaAcumuladaDTO {
+    private Long id;
+    private String nombre;
+    private Double ingresos;
+    private Long unidades;
+    private Long ordenes;
+}
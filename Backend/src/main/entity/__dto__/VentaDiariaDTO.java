@@ -0,0 +1,20 @@
+package com.example.uade.tpo.ecommerce_grupo10.entity.__dto__;
+
+import java.time.LocalDate;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Ventas de un dia (de un producto, vendedor, categoria o del total)
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class VentaDiariaDTO {
+    private LocalDate fecha;
+    private double ingresos;
+    private long unidades;
+    private long ordenes;
+}
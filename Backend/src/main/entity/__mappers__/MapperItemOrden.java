@@ -5,6 +5,7 @@ import org.springframework.stereotype.Component;
 import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemOrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenVista;
 
 @Component
 public class MapperItemOrden {
@@ -15,28 +16,38 @@ public class MapperItemOrden {
             return null;
 
         Long ordenId = (it.getOrden() != null) ? it.getOrden().getId() : null;
+        return toDTO(it.getId(), ordenId, it.getIdProducto(), it.getTitulo(), it.getCantidad(),
+                it.getPrecioUnitario(), it.getDescuentoAplicado());
+    }
+
+    // fila proyectada (historial de ordenes) a DTO
+    public ItemOrdenDTO toDTO(ItemOrdenVista v) {
+        if (v == null)
+            return null;
 
-        double precio = it.getPrecioUnitario();
-        double desc = it.getDescuentoAplicado();
-        int cant = it.getCantidad();
+        return toDTO(v.getId(), v.getOrdenId(), v.getIdProducto(), v.getTitulo(), v.getCantidad(),
+                v.getPrecioUnitario(), v.getDescuentoAplicado());
+    }
 
+    private ItemOrdenDTO toDTO(Long id, Long ordenId, Long idProducto, String titulo, int cant, double precio,
+            double desc) {
         double precioConDescuento = Math.max(0, precio - desc);
         double subtotal = precioConDescuento * cant;
 
         return ItemOrdenDTO.builder()
-                .id(it.getId())
-                .productoId(it.getIdProducto())
-                .productoTitulo(it.getTitulo())
-                .cantidad(it.getCantidad())
-                .precio(it.getPrecioUnitario())
+                .id(id)
+                .productoId(idProducto)
+                .productoTitulo(titulo)
+                .cantidad(cant)
+                .precio(precio)
                 .precioConDescuento(precioConDescuento)
-                .descuentoAplicado(it.getDescuentoAplicado())
+                .descuentoAplicado(desc)
                 .ordenId(ordenId)
                 .subtotal(subtotal)
                 // Campos de compatibilidad hacia atrás
-                .idProducto(it.getIdProducto())
-                .titulo(it.getTitulo())
-                .precioUnitario(it.getPrecioUnitario())
+                .idProducto(idProducto)
+                .titulo(titulo)
+                .precioUnitario(precio)
                 .build();
     }
 
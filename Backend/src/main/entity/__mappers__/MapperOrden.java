@@ -1,6 +1,8 @@
 package com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -10,7 +12,9 @@ import org.springframework.stereotype.Component;
 import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemOrdenDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenVista;
 
 import lombok.RequiredArgsConstructor;
 
@@ -24,13 +28,7 @@ public class MapperOrden {
         if (o == null)
             return null;
 
-        Set<Long> itemIds = (o.getItems() == null)
-                ? Collections.emptySet()
-                : o.getItems().stream()
-                        .map(ItemOrden::getId)
-                        .collect(Collectors.toSet());
-
-        List<com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemOrdenDTO> itemsDTO = (o.getItems() == null)
+        List<ItemOrdenDTO> itemsDTO = (o.getItems() == null)
                 ? Collections.emptyList()
                 : o.getItems().stream()
                         .map(mapperItemOrden::toDTO)
@@ -38,14 +36,34 @@ public class MapperOrden {
 
         Long usuarioId = (o.getUsuario() != null) ? o.getUsuario().getId() : null;
 
+        return armar(o.getId(), o.getFechaCreacion(), o.getEstado(), o.getTotal(), usuarioId, itemsDTO);
+    }
+
+    // fila proyectada + sus items ya leidos (historial): no toca entidades
+    public OrdenDTO toDTO(OrdenVista o, List<ItemOrdenDTO> items) {
+        if (o == null)
+            return null;
+
+        return armar(o.getId(), o.getFechaCreacion(), o.getEstado(), o.getTotal(), o.getUsuarioId(),
+                items != null ? items : Collections.emptyList());
+    }
+
+    // los itemIds salen de los DTOs, los items se recorren una sola vez
+    private OrdenDTO armar(Long id, LocalDateTime fecha, String estado, double total, Long usuarioId,
+            List<ItemOrdenDTO> items) {
+        Set<Long> itemIds = new HashSet<>(items.size() * 2);
+        for (ItemOrdenDTO it : items) {
+            itemIds.add(it.getId());
+        }
+
         return OrdenDTO.builder()
-                .id(o.getId())
-                .fecha(o.getFechaCreacion())
-                .estado(o.getEstado())
-                .total(o.getTotal())
+                .id(id)
+                .fecha(fecha)
+                .estado(estado)
+                .total(total)
                 .usuarioId(usuarioId)
                 .itemIds(itemIds)
-                .items(itemsDTO)
+                .items(items)
                 .build();
     }
 
@@ -1,7 +1,9 @@
 package com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__;
 
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -16,6 +18,7 @@ import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoVista;
 import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
 
 @Component
@@ -39,6 +42,17 @@ public class MapperProducto {
                 .map(mapperImagenProducto::toDTO)
                 .collect(Collectors.toList()) : List.of();
 
+        return toDTO(p, imagenesDTO);
+    }
+
+    // version para el catalogo: solo lleva la imagen principal (ya resuelta)
+    public ProductoDTO toDTOCatalogo(ProductoVista v, ImagenProductoDTO imagenPrincipal) {
+        if (v == null)
+            return null;
+        return toDTO(v, imagenPrincipal != null ? new ArrayList<>(List.of(imagenPrincipal)) : new ArrayList<>());
+    }
+
+    private ProductoDTO toDTO(Producto p, List<ImagenProductoDTO> imagenesDTO) {
         return ProductoDTO.builder()
                 .id(p.getId())
                 .titulo(p.getTitulo())
@@ -55,6 +69,23 @@ public class MapperProducto {
                 .build();
     }
 
+    private ProductoDTO toDTO(ProductoVista v, List<ImagenProductoDTO> imagenesDTO) {
+        return ProductoDTO.builder()
+                .id(v.getId())
+                .titulo(v.getTitulo())
+                .descripcion(v.getDescripcion())
+                .precio(v.getPrecio())
+                .stock(v.getStock())
+                .imagenUrl(v.getImagenUrl())
+                .categoriaId(v.getCategoriaId())
+                .categoriaNombre(v.getCategoriaNombre())
+                .vendedorId(v.getVendedorId())
+                .vendedorNombre(v.getVendedorNombre())
+                .imagenes(imagenesDTO)
+                .tieneDescuento(false)
+                .build();
+    }
+
     // metodo que convierte un Producto a ProductoDTO (con información de
     // descuentos)
     public ProductoDTO toDTOConDescuentos(Producto p) {
@@ -62,6 +93,9 @@ public class MapperProducto {
             return null;
 
         ProductoDTO dto = toDTO(p);
+        if (aplicarDescuentoVigente(dto, p.getDescuentoVigente())) {
+            return dto;
+        }
 
         try {
             logger.debug("Buscando descuento para producto ID: {}", p.getId());
@@ -70,47 +104,7 @@ public class MapperProducto {
             Optional<DescuentoProductoDTO> descuentoOpt = descuentoProductoService
                     .obtenerPorProductoOptional(p.getId());
 
-            if (descuentoOpt.isPresent()) {
-                DescuentoProductoDTO descuento = descuentoOpt.get();
-
-                logger.debug(
-                        "Descuento encontrado para producto ID {}: id={}, activo={}, porcentaje={}, fechaInicio={}, fechaFin={}",
-                        p.getId(), descuento.getId(), descuento.getActivo(), descuento.getPorcentajeDescuento(),
-                        descuento.getFechaInicio(), descuento.getFechaFin());
-
-                // Verificar si está activo
-                if (!Boolean.TRUE.equals(descuento.getActivo())) {
-                    logger.debug("Descuento para producto ID {} no está activo", p.getId());
-                    return dto;
-                }
-
-                // Verificar si está vigente
-                if (!estaVigente(descuento)) {
-                    logger.debug("Descuento para producto ID {} no está vigente", p.getId());
-                    return dto;
-                }
-
-                // Verificar porcentaje válido
-                if (descuento.getPorcentajeDescuento() == null || descuento.getPorcentajeDescuento() <= 0) {
-                    logger.warn("Descuento para producto ID {} tiene porcentaje inválido: {}",
-                            p.getId(), descuento.getPorcentajeDescuento());
-                    return dto;
-                }
-
-                // Calcular y aplicar el descuento
-                double porcentaje = descuento.getPorcentajeDescuento();
-                double montoDescuento = p.getPrecio() * (porcentaje / 100.0);
-                double precioConDescuento = p.getPrecio() - montoDescuento;
-
-                dto.setTieneDescuento(true);
-                dto.setPorcentajeDescuento(porcentaje);
-                dto.setMontoDescuento(montoDescuento);
-                dto.setPrecioConDescuento(precioConDescuento);
-
-                logger.debug("Descuento aplicado al producto ID {}: {}%", p.getId(), porcentaje);
-            } else {
-                logger.debug("No hay descuento para producto ID: {}", p.getId());
-            }
+            aplicarDescuento(dto, descuentoOpt.orElse(null));
         } catch (Exception e) {
             logger.error("Error al procesar descuento para producto ID {}: {}", p.getId(), e.getMessage(), e);
         }
@@ -118,6 +112,113 @@ public class MapperProducto {
         return dto;
     }
 
+    // convierte filas de un listado (ver ProductoRepository.VISTA) con las imagenes de
+    // todos ya leidas; los descuentos que falten se resuelven en una sola consulta
+    public List<ProductoDTO> vistasToDTOsConDescuentos(List<ProductoVista> vistas,
+            Map<Long, List<ImagenProductoDTO>> imagenesPorProducto) {
+        if (vistas == null || vistas.isEmpty())
+            return List.of();
+
+        // solo se consultan los descuentos de los productos que todavia no tienen el
+        // precio efectivo calculado
+        List<Long> ids = vistas.stream()
+                .filter(v -> v.getDescuentoVigente() == null)
+                .map(ProductoVista::getId)
+                .toList();
+
+        Map<Long, DescuentoProductoDTO> descuentos = Map.of();
+        if (!ids.isEmpty()) {
+            try {
+                descuentos = descuentoProductoService.obtenerPorProductos(ids);
+            } catch (Exception e) {
+                logger.error("Error al consultar descuentos para {} productos: {}", ids.size(), e.getMessage(), e);
+            }
+        }
+
+        List<ProductoDTO> resultado = new ArrayList<>(vistas.size());
+        for (ProductoVista v : vistas) {
+            ProductoDTO dto = toDTO(v, new ArrayList<>(imagenesPorProducto.getOrDefault(v.getId(), List.of())));
+            if (!aplicarDescuentoVigente(dto, v.getDescuentoVigente())) {
+                aplicarDescuento(dto, descuentos.get(v.getId()));
+            }
+            resultado.add(dto);
+        }
+        return resultado;
+    }
+
+    // usa el porcentaje vigente materializado en productos.descuento_vigente: no hay
+    // que consultar el descuento ni evaluar fechas. Devuelve false si todavia no se
+    // calculo (producto recien creado)
+    private boolean aplicarDescuentoVigente(ProductoDTO dto, Double porcentaje) {
+        if (porcentaje == null) {
+            return false;
+        }
+
+        dto.setTieneDescuento(false);
+        dto.setPorcentajeDescuento(null);
+        dto.setMontoDescuento(null);
+        dto.setPrecioConDescuento(null);
+        if (porcentaje > 0) {
+            // se calcula sobre el precio actual, por si cambio en esta misma operacion
+            double montoDescuento = dto.getPrecio() * (porcentaje / 100.0);
+            dto.setTieneDescuento(true);
+            dto.setPorcentajeDescuento(porcentaje);
+            dto.setMontoDescuento(montoDescuento);
+            dto.setPrecioConDescuento(dto.getPrecio() - montoDescuento);
+        }
+        return true;
+    }
+
+    // aplica las reglas de activo, vigencia y porcentaje del descuento sobre el DTO
+    // (se usa tambien desde el catalogo en memoria cuando cambia la vigencia)
+    public void aplicarDescuento(ProductoDTO dto, DescuentoProductoDTO descuento) {
+        dto.setTieneDescuento(false);
+        dto.setPorcentajeDescuento(null);
+        dto.setMontoDescuento(null);
+        dto.setPrecioConDescuento(null);
+
+        if (descuento == null) {
+            logger.debug("No hay descuento para producto ID: {}", dto.getId());
+            return;
+        }
+
+        logger.debug(
+                "Descuento encontrado para producto ID {}: id={}, activo={}, porcentaje={}, fechaInicio={}, fechaFin={}",
+                dto.getId(), descuento.getId(), descuento.getActivo(), descuento.getPorcentajeDescuento(),
+                descuento.getFechaInicio(), descuento.getFechaFin());
+
+        // Verificar si está activo
+        if (!Boolean.TRUE.equals(descuento.getActivo())) {
+            logger.debug("Descuento para producto ID {} no está activo", dto.getId());
+            return;
+        }
+
+        // Verificar si está vigente
+        if (!estaVigente(descuento)) {
+            logger.debug("Descuento para producto ID {} no está vigente", dto.getId());
+            return;
+        }
+
+        // Verificar porcentaje válido
+        if (descuento.getPorcentajeDescuento() == null || descuento.getPorcentajeDescuento() <= 0) {
+            logger.warn("Descuento para producto ID {} tiene porcentaje inválido: {}",
+                    dto.getId(), descuento.getPorcentajeDescuento());
+            return;
+        }
+
+        // Calcular y aplicar el descuento
+        double porcentaje = descuento.getPorcentajeDescuento();
+        double montoDescuento = dto.getPrecio() * (porcentaje / 100.0);
+        double precioConDescuento = dto.getPrecio() - montoDescuento;
+
+        dto.setTieneDescuento(true);
+        dto.setPorcentajeDescuento(porcentaje);
+        dto.setMontoDescuento(montoDescuento);
+        dto.setPrecioConDescuento(precioConDescuento);
+
+        logger.debug("Descuento aplicado al producto ID {}: {}%", dto.getId(), porcentaje);
+    }
+
     // Método auxiliar para verificar si un descuento está vigente
     private boolean estaVigente(DescuentoProductoDTO descuento) {
         Date ahora = new Date();
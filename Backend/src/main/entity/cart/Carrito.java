@@ -3,6 +3,7 @@ package com.example.uade.tpo.ecommerce_grupo10.entity.cart;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.Secuencias;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
 
 import jakarta.persistence.Entity;
@@ -12,6 +13,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -26,7 +28,9 @@ import lombok.Setter;
 public class Carrito {
     
     @Id
-    @GeneratedValue(strategy=GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "carritos_gen")
+    @TableGenerator(name = "carritos_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "carritos", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @OneToOne // relacion uno a uno con la entidad Usuario
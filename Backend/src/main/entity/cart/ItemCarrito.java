@@ -1,6 +1,7 @@
 package com.example.uade.tpo.ecommerce_grupo10.entity.cart;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Secuencias;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -9,6 +10,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -23,7 +25,9 @@ import lombok.Setter;
 public class ItemCarrito {
     
     @Id
-    @GeneratedValue(strategy= GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "items_carrito_gen")
+    @TableGenerator(name = "items_carrito_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "items_carrito", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @Column(nullable=false)
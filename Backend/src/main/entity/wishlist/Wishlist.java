@@ -3,6 +3,7 @@ package com.example.uade.tpo.ecommerce_grupo10.entity.wishlist;
 import java.util.HashSet;
 import java.util.Set;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.Secuencias;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
 
 import jakarta.persistence.Entity;
@@ -13,6 +14,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,7 +24,9 @@ import lombok.Setter;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class Wishlist {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.TABLE, generator = "wishlists_gen")
+    @TableGenerator(name = "wishlists_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "wishlists", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @OneToOne(optional = false) // el optional indica que un usuario debe tener una wishlist
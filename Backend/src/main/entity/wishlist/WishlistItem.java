@@ -3,6 +3,7 @@ package com.example.uade.tpo.ecommerce_grupo10.entity.wishlist;
 import java.time.LocalDateTime;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Secuencias;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -13,6 +14,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.TableGenerator;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
@@ -22,7 +24,9 @@ import lombok.Setter;
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor
 public class WishlistItem {
     
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Id @GeneratedValue(strategy = GenerationType.TABLE, generator = "wishlist_items_gen")
+    @TableGenerator(name = "wishlist_items_gen", table = Secuencias.TABLA, pkColumnName = Secuencias.COLUMNA_ENTIDAD,
+            valueColumnName = Secuencias.COLUMNA_VALOR, pkColumnValue = "wishlist_items", allocationSize = Secuencias.BLOQUE)
     private Long id;
 
     @ManyToOne(optional = false, fetch = FetchType.LAZY) // lazy indica que la carga de la wishlist se realiza bajo demanda
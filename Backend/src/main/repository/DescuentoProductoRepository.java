@@ -1,7 +1,12 @@
 package com.example.uade.tpo.ecommerce_grupo10.repository;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -18,4 +23,22 @@ public interface DescuentoProductoRepository extends JpaRepository<DescuentoProd
 
     boolean existsByProductoId(Long productoId);
 
+    // listado sin COUNT (Slice)
+    Slice<DescuentoProducto> findSliceBy(Pageable pageable);
+
+    // Descuentos de varios productos en una sola consulta (para mapear paginas completas)
+    @Query("SELECT d FROM DescuentoProducto d WHERE d.producto.id IN :productosIds")
+    List<DescuentoProducto> findByProductoIdIn(@Param("productosIds") Collection<Long> productosIds);
+
+    // [productoId, fechaInicio, fechaFin] de los descuentos activos que todavia no
+    // terminaron: de ahi salen los proximos cambios de precio efectivo
+    @Query("SELECT d.producto.id, d.fechaInicio, d.fechaFin FROM DescuentoProducto d "
+            + "WHERE d.activo = true AND d.fechaFin >= :ahora")
+    List<Object[]> findVentanasPendientes(@Param("ahora") Date ahora);
+
+    @Query("SELECT d.producto.id, d.fechaInicio, d.fechaFin FROM DescuentoProducto d "
+            + "WHERE d.activo = true AND d.fechaFin >= :ahora AND d.producto.id IN :productosIds")
+    List<Object[]> findVentanasPendientes(@Param("ahora") Date ahora,
+            @Param("productosIds") Collection<Long> productosIds);
+
 }
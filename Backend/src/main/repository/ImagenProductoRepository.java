@@ -1,5 +1,6 @@
 package com.example.uade.tpo.ecommerce_grupo10.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,6 +10,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.ImagenProducto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO;
 
 @Repository
 public interface ImagenProductoRepository extends JpaRepository<ImagenProducto, Long> {
@@ -34,7 +36,19 @@ public interface ImagenProductoRepository extends JpaRepository<ImagenProducto,
     // Eliminar todas las imágenes de un producto
     void deleteByProductoId(Long productoId);
 
-    // Buscar imágenes principales de múltiples productos
-    @Query("SELECT i FROM ImagenProducto i WHERE i.producto.id IN :productosIds AND i.esPrincipal = true")
-    List<ImagenProducto> findImagenesPrincipalesByProductosIds(@Param("productosIds") List<Long> productosIds);
+    // Buscar imágenes principales de múltiples productos, ya como DTO (sin cargar el
+    // producto de cada imagen)
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO(i.id, i.url, "
+            + "i.descripcion, i.esPrincipal, i.ordenVisualizacion, i.producto.id) FROM ImagenProducto i "
+            + "WHERE i.producto.id IN :productosIds AND i.esPrincipal = true "
+            + "ORDER BY i.ordenVisualizacion ASC, i.id ASC")
+    List<ImagenProductoDTO> findImagenesPrincipalesByProductosIds(
+            @Param("productosIds") Collection<Long> productosIds);
+
+    // Todas las imágenes de varios productos, en orden de visualización, ya como DTO
+    // (sin cargar las entidades ni su producto)
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO(i.id, i.url, "
+            + "i.descripcion, i.esPrincipal, i.ordenVisualizacion, i.producto.id) FROM ImagenProducto i "
+            + "WHERE i.producto.id IN :productosIds ORDER BY i.ordenVisualizacion ASC, i.id ASC")
+    List<ImagenProductoDTO> findDTOsByProductoIdIn(@Param("productosIds") Collection<Long> productosIds);
 }
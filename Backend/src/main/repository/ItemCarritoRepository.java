@@ -4,6 +4,9 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.cart.ItemCarrito;
 
@@ -11,4 +14,17 @@ public interface ItemCarritoRepository extends JpaRepository<ItemCarrito, Long>
     List<ItemCarrito> findByCarritoId(Long carritoId);
     Optional<ItemCarrito> findByCarritoIdAndProductoId(Long carritoId, Long productoId);
     void deleteByCarritoId(Long carritoId);
+
+    // Checkout: items del carrito con su producto, vendedor y descuento en una sola
+    // consulta (el descuento es el lado inverso del OneToOne y si no se trae aca
+    // Hibernate lo busca producto por producto)
+    @Query("SELECT i FROM ItemCarrito i JOIN FETCH i.carrito c JOIN FETCH c.usuario "
+            + "JOIN FETCH i.producto p LEFT JOIN FETCH p.vendedor LEFT JOIN FETCH p.descuento "
+            + "WHERE c.usuario.id = :usuarioId")
+    List<ItemCarrito> findParaCheckoutByUsuarioId(@Param("usuarioId") Long usuarioId);
+
+    // Vaciar el carrito con un solo DELETE (deleteByCarritoId borra fila por fila)
+    @Modifying
+    @Query("DELETE FROM ItemCarrito i WHERE i.carrito.id = :carritoId")
+    int eliminarPorCarritoId(@Param("carritoId") Long carritoId);
 }
@@ -1,8 +1,13 @@
 package com.example.uade.tpo.ecommerce_grupo10.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
@@ -10,4 +15,25 @@ import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
 @Repository
 public interface ItemOrdenRepository extends JpaRepository<ItemOrden, Long> {
     Page<ItemOrden> findByOrdenId(Long ordenId, Pageable pageable);
+
+    // items de una pagina de ordenes en una sola consulta, sin cargar las entidades
+    // (ni la Orden de cada una)
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenVista(i.id, i.orden.id, "
+            + "i.idProducto, i.titulo, i.cantidad, i.precioUnitario, i.descuentoAplicado) FROM ItemOrden i "
+            + "WHERE i.orden.id IN :ordenesIds ORDER BY i.id ASC")
+    List<ItemOrdenVista> findVistasByOrdenIdIn(@Param("ordenesIds") Collection<Long> ordenesIds);
+
+    // items de una orden como lineas de venta (resumen_ventas), con el vendedor y la
+    // categoria guardados en el item (los actuales del producto si el item es anterior)
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.repository.LineaVenta(o.id, o.fechaCreacion, "
+            + "i.idProducto, COALESCE(i.idVendedor, v.id), COALESCE(i.idCategoria, c.id), i.cantidad, "
+            + "(i.precioUnitario - i.descuentoAplicado) * i.cantidad) "
+            + "FROM ItemOrden i JOIN i.orden o LEFT JOIN Producto p ON p.id = i.idProducto "
+            + "LEFT JOIN p.vendedor v LEFT JOIN p.categoria c WHERE o.id = :ordenId")
+    List<LineaVenta> findLineasVenta(@Param("ordenId") Long ordenId);
+
+    // [idProducto, unidades vendidas] de las ordenes en ese estado
+    @Query("SELECT i.idProducto, SUM(i.cantidad) FROM ItemOrden i WHERE i.orden.estado = :estado "
+            + "GROUP BY i.idProducto")
+    List<Object[]> sumarVendidasPorProducto(@Param("estado") String estado);
 }
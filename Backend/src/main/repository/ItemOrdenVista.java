@@ -0,0 +1,18 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Fila de item de orden sin la entidad (que trae su Orden de forma eager). El orden
+// de los campos es el del constructor que usa la consulta
+@Getter
+@AllArgsConstructor
+public class ItemOrdenVista {
+    private Long id;
+    private Long ordenId;
+    private Long idProducto;
+    private String titulo;
+    private int cantidad;
+    private double precioUnitario;
+    private double descuentoAplicado;
+}
@@ -0,0 +1,21 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Un item vendido con lo necesario para sumarlo a resumen_ventas: orden, dia,
+// producto, vendedor y categoria (null si el producto ya no existe o no tiene),
+// unidades e ingreso. Sale del checkout o de ItemOrdenRepository.findLineasVenta
+@Getter
+@AllArgsConstructor
+public class LineaVenta {
+    private Long ordenId;
+    private LocalDateTime fecha;
+    private Long productoId;
+    private Long vendedorId;
+    private Long categoriaId;
+    private int unidades;
+    private double ingresos;
+}
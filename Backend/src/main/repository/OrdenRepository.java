@@ -1,16 +1,55 @@
 package com.example.uade.tpo.ecommerce_grupo10.repository;
 
+import java.time.LocalDateTime;
+import java.util.Optional;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface OrdenRepository extends JpaRepository<Orden, Long> {
     
     Page<Orden> findByUsuarioId(Long usuarioId, Pageable pageable);
     Page<Orden> findByEstado(String estado, Pageable pageable);
 
+    // SELECT ... FOR UPDATE: los cambios de estado de una misma orden se hacen de a
+    // uno, y cada uno ve el estado que dejo el anterior
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT o FROM Orden o WHERE o.id = :id")
+    Optional<Orden> findByIdParaActualizar(@Param("id") Long id);
+
+    // Listados e historial: proyeccion a OrdenVista (sin entidades, sin usuario ni
+    // items). Devuelven Slice, sin COUNT; los items de la pagina se leen despues en
+    // una sola consulta. El total, cuando hace falta, sale de count()/countByUsuarioId
+    String VISTA = "SELECT new com.example.uade.tpo.ecommerce_grupo10.repository.OrdenVista(o.id, "
+            + "o.fechaCreacion, o.estado, o.total, o.usuario.id) FROM Orden o ";
+
+    @Query(VISTA)
+    Slice<OrdenVista> findVistas(Pageable pageable);
+
+    @Query(VISTA + "WHERE o.usuario.id = :usuarioId")
+    Slice<OrdenVista> findVistasByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    long countByUsuarioId(Long usuarioId);
+
+    // Historial por cursor (mas recientes primero), usa idx_ordenes_usuario_fecha
+    @Query(VISTA + "WHERE o.usuario.id = :usuarioId ORDER BY o.fechaCreacion DESC, o.id DESC")
+    Slice<OrdenVista> findVistasRecientesByUsuarioId(@Param("usuarioId") Long usuarioId, Pageable pageable);
+
+    @Query(VISTA + "WHERE o.usuario.id = :usuarioId "
+            + "AND (o.fechaCreacion < :fecha OR (o.fechaCreacion = :fecha AND o.id < :id)) "
+            + "ORDER BY o.fechaCreacion DESC, o.id DESC")
+    Slice<OrdenVista> findVistasByUsuarioIdAntesDe(@Param("usuarioId") Long usuarioId,
+            @Param("fecha") LocalDateTime fecha, @Param("id") Long id, Pageable pageable);
+
 }
@@ -0,0 +1,19 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.time.LocalDateTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Fila de orden para el historial, armada con SELECT new (ver OrdenRepository.VISTA):
+// sin entidad, asi no se arrastran el usuario ni los items. Los items se leen aparte,
+// de todas las ordenes de la pagina juntas (ItemOrdenRepository.findVistasByOrdenIdIn)
+@Getter
+@AllArgsConstructor
+public class OrdenVista {
+    private Long id;
+    private LocalDateTime fechaCreacion;
+    private String estado;
+    private double total;
+    private Long usuarioId;
+}
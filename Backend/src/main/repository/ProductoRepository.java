@@ -1,37 +1,129 @@
 package com.example.uade.tpo.ecommerce_grupo10.repository;
 
-import org.springframework.data.domain.Page;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
 
 @Repository
-public interface ProductoRepository extends JpaRepository<Producto, Long> {
+public interface ProductoRepository extends JpaRepository<Producto, Long>, ProductoRepositoryCustom {
 
-    // catalogo disponible, stock > 0
-    Page<Producto> findByStockGreaterThan(int stock, Pageable pageable);
+    // Listados: proyeccion directa a ProductoVista (una fila por producto, con
+    // categoria, vendedor y descuento vigente por join), sin cargar entidades.
+    // Devuelven Slice (una fila de mas para saber si hay otra pagina, sin COUNT); el
+    // total, cuando hace falta, sale del count* de cada filtro. El orden lo da el
+    // Pageable
+    String VISTA = "SELECT new com.example.uade.tpo.ecommerce_grupo10.repository.ProductoVista(p.id, p.titulo, "
+            + "p.descripcion, p.precio, p.stock, p.imagenUrl, c.id, c.nombre, v.id, v.nombre, p.descuentoVigente) "
+            + "FROM Producto p JOIN p.categoria c LEFT JOIN p.vendedor v ";
+
+    String CONTAR = "SELECT COUNT(p) FROM Producto p ";
 
-    // Productos por vendedor
-    Page<Producto> findByVendedorId(Long vendedorId, Pageable pageable);
+    // contiene el titulo, sin distinguir mayusculas; escapa los % y _ del texto
+    String TITULO_CONTIENE = "LOWER(p.titulo) LIKE LOWER(CONCAT('%', :#{escape(#titulo)}, '%')) "
+            + "ESCAPE :#{escapeCharacter()}";
 
-    Page<Producto> findByVendedorIdAndStockGreaterThan(Long vendedorId, int stock, Pageable pageable);
+    // catalogo disponible, stock > 0
+    @Query(VISTA + "WHERE p.stock > 0")
+    Slice<ProductoVista> findVistasDisponibles(Pageable pageable);
 
     // Busquedas
-    Page<Producto> findByTituloContainingIgnoreCaseAndStockGreaterThan(String titulo, int stock, Pageable pageable);
+    @Query(VISTA + "WHERE p.stock > 0 AND " + TITULO_CONTIENE)
+    Slice<ProductoVista> findVistasDisponiblesPorTitulo(@Param("titulo") String titulo, Pageable pageable);
 
-    Page<Producto> findByCategoriaIdAndStockGreaterThan(Long categoriaId, int stock, Pageable pageable);
+    @Query(CONTAR + "WHERE p.stock > 0 AND " + TITULO_CONTIENE)
+    long countDisponiblesPorTitulo(@Param("titulo") String titulo);
 
-    Page<Producto> findByPrecioBetweenAndStockGreaterThan(Double precioMin, Double precioMax, int stock,
-            Pageable pageable);
+    @Query(VISTA + "WHERE p.stock > 0 AND c.id = :categoriaId")
+    Slice<ProductoVista> findVistasDisponiblesPorCategoria(@Param("categoriaId") Long categoriaId, Pageable pageable);
+
+    @Query(VISTA + "WHERE p.stock > 0 AND p.precio BETWEEN :precioMin AND :precioMax")
+    Slice<ProductoVista> findVistasDisponiblesPorPrecio(@Param("precioMin") Double precioMin,
+            @Param("precioMax") Double precioMax, Pageable pageable);
+
+    @Query(CONTAR + "WHERE p.stock > 0 AND p.precio BETWEEN :precioMin AND :precioMax")
+    long countDisponiblesPorPrecio(@Param("precioMin") Double precioMin, @Param("precioMax") Double precioMax);
+
+    // por precio con el descuento vigente aplicado (columna materializada, usa
+    // idx_productos_precio_efectivo)
+    @Query(VISTA + "WHERE p.stock > 0 AND p.precioEfectivo BETWEEN :precioMin AND :precioMax")
+    Slice<ProductoVista> findVistasDisponiblesPorPrecioEfectivo(@Param("precioMin") Double precioMin,
+            @Param("precioMax") Double precioMax, Pageable pageable);
+
+    @Query(CONTAR + "WHERE p.stock > 0 AND p.precioEfectivo BETWEEN :precioMin AND :precioMax")
+    long countDisponiblesPorPrecioEfectivo(@Param("precioMin") Double precioMin,
+            @Param("precioMax") Double precioMax);
+
+    // Productos por vendedor (con y sin stock)
+    @Query(VISTA + "WHERE v.id = :vendedorId")
+    Slice<ProductoVista> findVistasPorVendedor(@Param("vendedorId") Long vendedorId, Pageable pageable);
+
+    @Query(VISTA + "WHERE v.id = :vendedorId AND p.stock > 0")
+    Slice<ProductoVista> findVistasDisponiblesPorVendedor(@Param("vendedorId") Long vendedorId, Pageable pageable);
 
     // Busquedas por vendedor
-    Page<Producto> findByVendedorIdAndTituloContainingIgnoreCase(Long vendedorId, String titulo, Pageable pageable);
+    @Query(VISTA + "WHERE v.id = :vendedorId AND " + TITULO_CONTIENE)
+    Slice<ProductoVista> findVistasPorVendedorYTitulo(@Param("vendedorId") Long vendedorId,
+            @Param("titulo") String titulo, Pageable pageable);
 
-    Page<Producto> findByVendedorIdAndCategoriaId(Long vendedorId, Long categoriaId, Pageable pageable);
+    @Query(VISTA + "WHERE v.id = :vendedorId AND c.id = :categoriaId")
+    Slice<ProductoVista> findVistasPorVendedorYCategoria(@Param("vendedorId") Long vendedorId,
+            @Param("categoriaId") Long categoriaId, Pageable pageable);
 
-    Page<Producto> findByVendedorIdAndPrecioBetween(Long vendedorId, Double precioMin, Double precioMax,
+    @Query(VISTA + "WHERE v.id = :vendedorId AND p.precio BETWEEN :precioMin AND :precioMax")
+    Slice<ProductoVista> findVistasPorVendedorYPrecio(@Param("vendedorId") Long vendedorId,
+            @Param("precioMin") Double precioMin, @Param("precioMax") Double precioMax, Pageable pageable);
+
+    @Query(CONTAR + "WHERE p.vendedor.id = :vendedorId AND p.precio BETWEEN :precioMin AND :precioMax")
+    long countPorVendedorYPrecio(@Param("vendedorId") Long vendedorId, @Param("precioMin") Double precioMin,
+            @Param("precioMax") Double precioMax);
+
+    // Keyset (seek): siguiente bloque despues de la ultima fila vista. Devuelven
+    // Slice para no ejecutar el COUNT
+    @Query(VISTA + "WHERE p.stock > 0 AND p.id > :id ORDER BY p.id ASC")
+    Slice<ProductoVista> findVistasDisponiblesDespuesDe(@Param("id") Long id, Pageable pageable);
+
+    @Query(VISTA + "WHERE p.stock > 0 AND c.id = :categoriaId AND p.id > :id ORDER BY p.id ASC")
+    Slice<ProductoVista> findVistasDisponiblesPorCategoriaDespuesDe(@Param("categoriaId") Long categoriaId,
+            @Param("id") Long id, Pageable pageable);
+
+    @Query(VISTA + "WHERE p.stock > 0 AND p.precio >= :precioMin AND p.precio <= :precioMax "
+            + "AND (p.precio > :precio OR (p.precio = :precio AND p.id > :id)) ORDER BY p.precio ASC, p.id ASC")
+    Slice<ProductoVista> findVistasDisponiblesPorPrecioDespuesDe(@Param("precioMin") double precioMin,
+            @Param("precioMax") double precioMax, @Param("precio") double precio, @Param("id") Long id,
             Pageable pageable);
 
+    // filas de ids ya elegidos (busqueda por relevancia, catalogo en memoria); sin
+    // orden, el que llama las ordena
+    @Query(VISTA + "WHERE p.id IN :ids")
+    List<ProductoVista> findVistasByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Carga del catalogo en memoria
+    @Query(VISTA + "WHERE p.stock > 0")
+    List<ProductoVista> findVistasDisponiblesParaCatalogo();
+
+    // stock actual sin cargar la entidad (ledger de reservas)
+    @Query("SELECT p.stock FROM Producto p WHERE p.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // ids de productos afectados por cambios en su categoria o su vendedor
+    @Query("SELECT p.id FROM Producto p WHERE p.categoria.id = :categoriaId")
+    List<Long> findIdsByCategoriaId(@Param("categoriaId") Long categoriaId);
+
+    @Query("SELECT p.id FROM Producto p WHERE p.vendedor.id = :vendedorId")
+    List<Long> findIdsByVendedorId(@Param("vendedorId") Long vendedorId);
+
+    // [id, vendedorId] de cada producto que existe (vendedorId null si no tiene), para
+    // validar en una sola consulta los permisos de una actualizacion masiva
+    @Query("SELECT p.id, v.id FROM Producto p LEFT JOIN p.vendedor v WHERE p.id IN :ids")
+    List<Object[]> findVendedoresByIdIn(@Param("ids") Collection<Long> ids);
+
 }
@@ -0,0 +1,33 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ActualizacionStockPrecioDTO;
+
+// Operaciones de ProductoRepository que no se pueden expresar como consultas
+// derivadas o @Query
+public interface ProductoRepositoryCustom {
+
+    // Descuenta stock solo donde alcanza (UPDATE ... WHERE stock >= cantidad), todo
+    // en un unico batch JDBC y en orden de id para que dos checkouts concurrentes
+    // tomen los locks de fila siempre en el mismo orden. Devuelve, por producto, si
+    // se pudo descontar. No hay ventana entre leer y escribir el stock
+    Map<Long, Boolean> descontarStockSiAlcanza(Map<Long, Integer> cantidadesPorProducto);
+
+    // Recalcula precio_efectivo y descuento_vigente de esos productos segun su
+    // descuento (activo, porcentaje y vigencia en 'ahora'), en un solo UPDATE por
+    // cada 500 ids. Devuelve las filas actualizadas
+    int recalcularPrecioEfectivo(Collection<Long> productosIds, Date ahora);
+
+    // Igual pero para todos los productos (al iniciar)
+    int recalcularPrecioEfectivoTodos(Date ahora);
+
+    // Aplica cambios de stock y precio (absolutos o diferencias) con un UPDATE por
+    // producto, en batches JDBC de 1000 y en orden de id. El UPDATE solo se aplica si
+    // el stock no queda negativo y el precio queda > 0. Devuelve, por producto, si se
+    // actualizo
+    Map<Long, Boolean> actualizarStockYPrecio(List<ActualizacionStockPrecioDTO> cambios);
+}
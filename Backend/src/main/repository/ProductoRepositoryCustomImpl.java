@@ -0,0 +1,159 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ActualizacionStockPrecioDTO;
+
+import lombok.RequiredArgsConstructor;
+
+// Spring Data la combina con ProductoRepository por el sufijo Impl. Usa la misma
+// conexion (y transaccion) que JPA
+@RequiredArgsConstructor
+public class ProductoRepositoryCustomImpl implements ProductoRepositoryCustom {
+
+    private static final String DESCONTAR_STOCK = "UPDATE productos SET stock = stock - ? WHERE id = ? AND stock >= ?";
+
+    // porcentaje que aplica ahora: 0 si el descuento no esta activo o fuera de fecha
+    private static final String PORCENTAJE_VIGENTE = "CASE WHEN d.activo AND d.porcentaje_descuento > 0 "
+            + "AND d.fecha_inicio <= ? AND d.fecha_fin >= ? THEN d.porcentaje_descuento ELSE 0 END";
+
+    // MySQL no garantiza el orden de las asignaciones en un UPDATE multi-tabla, por
+    // eso el CASE se repite en vez de usar descuento_vigente recien asignado
+    private static final String RECALCULAR_PRECIO_EFECTIVO = "UPDATE productos p "
+            + "LEFT JOIN descuentos_productos d ON d.producto_id = p.id "
+            + "SET p.descuento_vigente = " + PORCENTAJE_VIGENTE + ", "
+            + "p.precio_efectivo = p.precio * (1 - (" + PORCENTAJE_VIGENTE + ") / 100)";
+
+    // COALESCE(absoluto, actual) + diferencia: el valor que no viene queda igual. El
+    // WHERE se evalua antes de asignar, con los valores actuales
+    private static final String ACTUALIZAR_STOCK_Y_PRECIO = "UPDATE productos "
+            + "SET stock = COALESCE(?, stock) + ?, precio = COALESCE(?, precio) + ? "
+            + "WHERE id = ? AND COALESCE(?, stock) + ? >= 0 AND COALESCE(?, precio) + ? > 0";
+
+    private static final int LOTE_IDS = 500;
+    private static final int LOTE_ACTUALIZACIONES = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Map<Long, Boolean> descontarStockSiAlcanza(Map<Long, Integer> cantidadesPorProducto) {
+        Map<Long, Boolean> resultado = new LinkedHashMap<>();
+        if (cantidadesPorProducto == null || cantidadesPorProducto.isEmpty()) {
+            return resultado;
+        }
+
+        List<Map.Entry<Long, Integer>> ordenados = new ArrayList<>(new TreeMap<>(cantidadesPorProducto).entrySet());
+        for (Map.Entry<Long, Integer> e : ordenados) {
+            if (e.getValue() == null || e.getValue() <= 0) {
+                throw new IllegalArgumentException("La cantidad a descontar debe ser > 0");
+            }
+        }
+
+        int[] filas = jdbcTemplate.batchUpdate(DESCONTAR_STOCK, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Integer> e = ordenados.get(i);
+                ps.setInt(1, e.getValue());
+                ps.setLong(2, e.getKey());
+                ps.setInt(3, e.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordenados.size();
+            }
+        });
+
+        for (int i = 0; i < ordenados.size(); i++) {
+            // el driver devuelve la cantidad de filas por sentencia; sin ese dato no se
+            // puede saber si el descuento se aplico
+            if (filas[i] == Statement.SUCCESS_NO_INFO) {
+                throw new IllegalStateException("El driver no informo las filas actualizadas al descontar stock");
+            }
+            resultado.put(ordenados.get(i).getKey(), filas[i] > 0);
+        }
+        return resultado;
+    }
+
+    @Override
+    public int recalcularPrecioEfectivo(Collection<Long> productosIds, Date ahora) {
+        if (productosIds == null || productosIds.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(productosIds);
+        int filas = 0;
+        for (int desde = 0; desde < ids.size(); desde += LOTE_IDS) {
+            List<Long> lote = ids.subList(desde, Math.min(desde + LOTE_IDS, ids.size()));
+            String sql = RECALCULAR_PRECIO_EFECTIVO + " WHERE p.id IN ("
+                    + String.join(", ", Collections.nCopies(lote.size(), "?")) + ")";
+            List<Object> parametros = new ArrayList<>(parametrosFecha(ahora));
+            parametros.addAll(lote);
+            filas += jdbcTemplate.update(sql, parametros.toArray());
+        }
+        return filas;
+    }
+
+    @Override
+    public int recalcularPrecioEfectivoTodos(Date ahora) {
+        return jdbcTemplate.update(RECALCULAR_PRECIO_EFECTIVO, parametrosFecha(ahora).toArray());
+    }
+
+    @Override
+    public Map<Long, Boolean> actualizarStockYPrecio(List<ActualizacionStockPrecioDTO> cambios) {
+        Map<Long, Boolean> resultado = new LinkedHashMap<>();
+        if (cambios == null || cambios.isEmpty()) {
+            return resultado;
+        }
+
+        List<ActualizacionStockPrecioDTO> ordenados = new ArrayList<>(cambios);
+        ordenados.sort(Comparator.comparing(ActualizacionStockPrecioDTO::getId));
+
+        int[][] filas = jdbcTemplate.batchUpdate(ACTUALIZAR_STOCK_Y_PRECIO, ordenados, LOTE_ACTUALIZACIONES,
+                (ps, c) -> {
+                    int stockDelta = c.getStockDelta() != null ? c.getStockDelta() : 0;
+                    double precioDelta = c.getPrecioDelta() != null ? c.getPrecioDelta() : 0;
+                    ps.setObject(1, c.getStock(), Types.INTEGER);
+                    ps.setInt(2, stockDelta);
+                    ps.setObject(3, c.getPrecio(), Types.DOUBLE);
+                    ps.setDouble(4, precioDelta);
+                    ps.setLong(5, c.getId());
+                    ps.setObject(6, c.getStock(), Types.INTEGER);
+                    ps.setInt(7, stockDelta);
+                    ps.setObject(8, c.getPrecio(), Types.DOUBLE);
+                    ps.setDouble(9, precioDelta);
+                });
+
+        int i = 0;
+        for (int[] lote : filas) {
+            for (int f : lote) {
+                if (f == Statement.SUCCESS_NO_INFO) {
+                    throw new IllegalStateException("El driver no informo las filas actualizadas de stock y precio");
+                }
+                resultado.put(ordenados.get(i++).getId(), f > 0);
+            }
+        }
+        return resultado;
+    }
+
+    // el CASE aparece dos veces, con fecha_inicio <= ? y fecha_fin >= ? cada una
+    private static List<Object> parametrosFecha(Date ahora) {
+        Timestamp t = new Timestamp(ahora.getTime());
+        return List.of(t, t, t, t);
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Fila de producto para listados, armada por la consulta con SELECT new (ver
+// ProductoRepository.VISTA): trae categoria, vendedor y descuento vigente en la
+// misma fila, sin cargar entidades en el contexto de persistencia. El orden de los
+// campos es el del constructor que usa la consulta
+@Getter
+@AllArgsConstructor
+public class ProductoVista {
+    private Long id;
+    private String titulo;
+    private String descripcion;
+    private double precio;
+    private int stock;
+    private String imagenUrl;
+    private Long categoriaId;
+    private String categoriaNombre;
+    private Long vendedorId;
+    private String vendedorNombre;
+    private Double descuentoVigente; // null = todavia no calculado
+}
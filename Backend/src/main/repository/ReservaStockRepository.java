@@ -0,0 +1,46 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ReservaStock;
+
+@Repository
+public interface ReservaStockRepository extends JpaRepository<ReservaStock, Long> {
+
+    Optional<ReservaStock> findByUsuarioIdAndProductoId(Long usuarioId, Long productoId);
+
+    // reservas vigentes, para recuperar el estado al iniciar
+    List<ReservaStock> findByVenceEnAfter(LocalDateTime ahora);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.usuarioId = :usuarioId AND r.productoId = :productoId")
+    int eliminar(@Param("usuarioId") Long usuarioId, @Param("productoId") Long productoId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.usuarioId = :usuarioId")
+    int eliminarPorUsuario(@Param("usuarioId") Long usuarioId);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.usuarioId = :usuarioId AND r.productoId IN :productosIds")
+    int eliminarPorUsuarioYProductos(@Param("usuarioId") Long usuarioId,
+            @Param("productosIds") Collection<Long> productosIds);
+
+    // las que se renovaron tienen un vencimiento posterior y no se borran
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM ReservaStock r WHERE r.venceEn <= :ahora")
+    int eliminarVencidas(@Param("ahora") LocalDateTime ahora);
+}
@@ -0,0 +1,64 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ClaveResumenVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.ResumenVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO;
+
+@Repository
+public interface ResumenVentaRepository extends JpaRepository<ResumenVenta, ClaveResumenVenta>,
+        ResumenVentaRepositoryCustom {
+
+    // Reportes: solo leen filas ya agregadas (una por clave y dia), nunca ordenes ni
+    // items, asi que no dependen de cuantas ordenes haya
+
+    // serie diaria de una clave (usa idx_resumen_ventas_clave)
+    @Query("SELECT r FROM ResumenVenta r WHERE r.clave.dimension = :dimension AND r.clave.claveId = :claveId "
+            + "AND r.clave.fecha BETWEEN :desde AND :hasta ORDER BY r.clave.fecha ASC")
+    List<ResumenVenta> findSerie(@Param("dimension") DimensionVenta dimension, @Param("claveId") Long claveId,
+            @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta);
+
+    // Rankings en un rango de fechas, de mayor a menor ingreso; el Pageable da el
+    // limite. El nombre sale de la entidad actual (null si ya no existe)
+    String SUMAS = "SUM(r.ingresos), SUM(r.unidades), SUM(r.ordenes)) FROM ResumenVenta r ";
+    String RANGO = "r.clave.fecha BETWEEN :desde AND :hasta ";
+    String ORDEN = "ORDER BY SUM(r.ingresos) DESC, r.clave.claveId ASC";
+
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO(r.clave.claveId, "
+            + "p.titulo, " + SUMAS + "LEFT JOIN Producto p ON p.id = r.clave.claveId "
+            + "WHERE r.clave.dimension = com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta.PRODUCTO AND "
+            + RANGO + "GROUP BY r.clave.claveId, p.titulo " + ORDEN)
+    List<VentaAcumuladaDTO> findRankingProductos(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+            Pageable limite);
+
+    // solo los productos (actuales) de un vendedor
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO(r.clave.claveId, "
+            + "p.titulo, " + SUMAS + "JOIN Producto p ON p.id = r.clave.claveId AND p.vendedor.id = :vendedorId "
+            + "WHERE r.clave.dimension = com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta.PRODUCTO AND "
+            + RANGO + "GROUP BY r.clave.claveId, p.titulo " + ORDEN)
+    List<VentaAcumuladaDTO> findRankingProductosDeVendedor(@Param("vendedorId") Long vendedorId,
+            @Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta, Pageable limite);
+
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO(r.clave.claveId, "
+            + "CONCAT(u.nombre, ' ', u.apellido), " + SUMAS + "LEFT JOIN Usuario u ON u.id = r.clave.claveId "
+            + "WHERE r.clave.dimension = com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta.VENDEDOR AND "
+            + RANGO + "GROUP BY r.clave.claveId, u.nombre, u.apellido " + ORDEN)
+    List<VentaAcumuladaDTO> findRankingVendedores(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+            Pageable limite);
+
+    @Query("SELECT new com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO(r.clave.claveId, "
+            + "c.nombre, " + SUMAS + "LEFT JOIN Categoria c ON c.id = r.clave.claveId "
+            + "WHERE r.clave.dimension = com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta.CATEGORIA AND "
+            + RANGO + "GROUP BY r.clave.claveId, c.nombre " + ORDEN)
+    List<VentaAcumuladaDTO> findRankingCategorias(@Param("desde") LocalDate desde, @Param("hasta") LocalDate hasta,
+            Pageable limite);
+}
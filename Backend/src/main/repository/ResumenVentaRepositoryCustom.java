@@ -0,0 +1,28 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ResumenVenta;
+
+// Escrituras de ResumenVentaRepository en SQL directo: sumas atomicas y la
+// reconstruccion desde las ordenes
+public interface ResumenVentaRepositoryCustom {
+
+    // Suma cada fila a la existente o la crea (INSERT ... ON DUPLICATE KEY UPDATE
+    // ingresos = ingresos + ...), sin leerla antes. Un solo batch JDBC en orden de
+    // clave, para que dos transacciones tomen los locks de fila en el mismo orden.
+    // Los valores pueden ser negativos (orden que deja de contar)
+    void sumar(Collection<ResumenVenta> deltas);
+
+    // [primer dia, ultimo dia] con ordenes en ese estado, o null si no hay ninguna
+    LocalDate[] rangoDeOrdenes(String estado);
+
+    // borra las filas de antes de desde y de despues de hasta
+    int borrarFueraDe(LocalDate desde, LocalDate hasta);
+
+    // Rearma las filas de los dias [desde, hasta] desde ordenes e items_ordenes: las
+    // borra y las vuelve a insertar con un INSERT ... SELECT ... GROUP BY por
+    // dimension, sin traer filas a la aplicacion. Devuelve las filas insertadas
+    int reconstruir(LocalDate desde, LocalDate hasta, String estado);
+}
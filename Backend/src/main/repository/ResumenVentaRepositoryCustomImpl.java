@@ -0,0 +1,122 @@
+package com.example.uade.tpo.ecommerce_grupo10.repository;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ClaveResumenVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.ResumenVenta;
+
+import lombok.RequiredArgsConstructor;
+
+// Spring Data la combina con ResumenVentaRepository por el sufijo Impl. Usa la
+// misma conexion (y transaccion) que JPA
+@RequiredArgsConstructor
+public class ResumenVentaRepositoryCustomImpl implements ResumenVentaRepositoryCustom {
+
+    private static final String SUMAR = "INSERT INTO resumen_ventas "
+            + "(dimension, clave_id, fecha, ingresos, unidades, ordenes) VALUES (?, ?, ?, ?, ?, ?) "
+            + "ON DUPLICATE KEY UPDATE ingresos = ingresos + VALUES(ingresos), "
+            + "unidades = unidades + VALUES(unidades), ordenes = ordenes + VALUES(ordenes)";
+
+    // Reconstruccion: el mismo calculo que hace el checkout, agrupado en la base. Los
+    // parametros son estado, desde y hasta (exclusivo) de fecha_creacion
+    private static final String INSERTAR = "INSERT INTO resumen_ventas "
+            + "(dimension, clave_id, fecha, ingresos, unidades, ordenes) ";
+    private static final String SUMAS = "DATE(o.fecha_creacion), "
+            + "SUM((i.precio_unitario - i.descuento_aplicado) * i.cantidad), SUM(i.cantidad), COUNT(DISTINCT o.id) "
+            + "FROM items_ordenes i JOIN ordenes o ON o.id = i.orden_id ";
+    private static final String FILTRO = "WHERE o.estado = ? AND o.fecha_creacion >= ? AND o.fecha_creacion < ? ";
+    // vendedor y categoria guardados en el item al vender, como en el checkout; los
+    // items anteriores a esas columnas toman los del producto (si todavia existe)
+    private static final String CON_PRODUCTO = "LEFT JOIN productos p ON p.id = i.id_producto ";
+    private static final String VENDEDOR = "COALESCE(i.id_vendedor, p.vendedor_id)";
+    private static final String CATEGORIA = "COALESCE(i.id_categoria, p.categoria_id)";
+
+    private static final String RECONSTRUIR_PRODUCTO = INSERTAR + "SELECT 'PRODUCTO', i.id_producto, " + SUMAS
+            + FILTRO + "GROUP BY i.id_producto, DATE(o.fecha_creacion)";
+    private static final String RECONSTRUIR_VENDEDOR = INSERTAR + "SELECT 'VENDEDOR', " + VENDEDOR + ", " + SUMAS
+            + CON_PRODUCTO + FILTRO
+            + "AND " + VENDEDOR + " IS NOT NULL GROUP BY " + VENDEDOR + ", DATE(o.fecha_creacion)";
+    private static final String RECONSTRUIR_CATEGORIA = INSERTAR + "SELECT 'CATEGORIA', " + CATEGORIA + ", " + SUMAS
+            + CON_PRODUCTO + FILTRO
+            + "AND " + CATEGORIA + " IS NOT NULL GROUP BY " + CATEGORIA + ", DATE(o.fecha_creacion)";
+    private static final String RECONSTRUIR_TOTAL = INSERTAR + "SELECT 'TOTAL', 0, " + SUMAS
+            + FILTRO + "GROUP BY DATE(o.fecha_creacion)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void sumar(Collection<ResumenVenta> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            return;
+        }
+        List<ResumenVenta> ordenadas = new ArrayList<>(deltas);
+        ordenadas.sort(Comparator.comparing(ResumenVenta::getClave));
+
+        jdbcTemplate.batchUpdate(SUMAR, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ResumenVenta r = ordenadas.get(i);
+                ClaveResumenVenta clave = r.getClave();
+                ps.setString(1, clave.getDimension().name());
+                ps.setLong(2, clave.getClaveId());
+                ps.setDate(3, Date.valueOf(clave.getFecha()));
+                ps.setDouble(4, r.getIngresos());
+                ps.setLong(5, r.getUnidades());
+                ps.setLong(6, r.getOrdenes());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordenadas.size();
+            }
+        });
+    }
+
+    @Override
+    public LocalDate[] rangoDeOrdenes(String estado) {
+        return jdbcTemplate.queryForObject(
+                "SELECT MIN(fecha_creacion), MAX(fecha_creacion) FROM ordenes WHERE estado = ?",
+                (rs, fila) -> {
+                    Timestamp primera = rs.getTimestamp(1);
+                    Timestamp ultima = rs.getTimestamp(2);
+                    if (primera == null || ultima == null) {
+                        return null;
+                    }
+                    return new LocalDate[] { primera.toLocalDateTime().toLocalDate(),
+                            ultima.toLocalDateTime().toLocalDate() };
+                },
+                estado);
+    }
+
+    @Override
+    public int borrarFueraDe(LocalDate desde, LocalDate hasta) {
+        return jdbcTemplate.update("DELETE FROM resumen_ventas WHERE fecha < ? OR fecha > ?",
+                Date.valueOf(desde), Date.valueOf(hasta));
+    }
+
+    @Override
+    public int reconstruir(LocalDate desde, LocalDate hasta, String estado) {
+        jdbcTemplate.update("DELETE FROM resumen_ventas WHERE fecha >= ? AND fecha <= ?",
+                Date.valueOf(desde), Date.valueOf(hasta));
+
+        Timestamp inicio = Timestamp.valueOf(desde.atStartOfDay());
+        Timestamp fin = Timestamp.valueOf(hasta.plusDays(1).atStartOfDay());
+        int filas = 0;
+        for (String sql : List.of(RECONSTRUIR_PRODUCTO, RECONSTRUIR_VENDEDOR, RECONSTRUIR_CATEGORIA,
+                RECONSTRUIR_TOTAL)) {
+            filas += jdbcTemplate.update(sql, estado, inicio, fin);
+        }
+        return filas;
+    }
+}
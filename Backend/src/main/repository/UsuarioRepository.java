@@ -5,6 +5,7 @@ import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -32,20 +33,33 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
 
     Page<Usuario> findByRol(Rol rol, Pageable pageable);
 
+    // variantes sin COUNT (Slice) de los listados paginados
+    Slice<Usuario> findSliceBy(Pageable pageable);
+
+    Slice<Usuario> findSliceByRol(Rol rol, Pageable pageable);
+
     long countByRol(Rol rol);
 
     // buscar por username, email, nombre o apellido
-    @Query("""
-            SELECT u
+    String BUSQUEDA = """
             FROM Usuario u
             WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :parametroBusqueda, '%'))
             OR LOWER(u.email) LIKE LOWER(CONCAT('%', :parametroBusqueda, '%'))
             OR LOWER(u.nombre) LIKE LOWER(CONCAT('%', :parametroBusqueda, '%'))
             OR LOWER(u.apellido) LIKE LOWER(CONCAT('%', :parametroBusqueda, '%'))
             OR LOWER(CONCAT(u.nombre, ' ', u.apellido)) LIKE LOWER(CONCAT('%', :parametroBusqueda, '%'))
-            """)
+            """;
+
+    @Query("SELECT u " + BUSQUEDA)
     Page<Usuario> search(@Param("parametroBusqueda") String parametroBusqueda, Pageable pageable);
 
+    // la misma busqueda sin COUNT, y el COUNT aparte (para el total aproximado)
+    @Query("SELECT u " + BUSQUEDA)
+    Slice<Usuario> searchSlice(@Param("parametroBusqueda") String parametroBusqueda, Pageable pageable);
+
+    @Query("SELECT COUNT(u) " + BUSQUEDA)
+    long countSearch(@Param("parametroBusqueda") String parametroBusqueda);
+
     // Verificar si existe un usuario con un rol específico
     boolean existsByRol(Rol rol);
 
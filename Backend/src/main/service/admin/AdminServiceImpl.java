@@ -1,5 +1,6 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.admin;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -10,6 +11,7 @@ import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperUsuario;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
 import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioModificadoEvent;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,6 +23,7 @@ public class AdminServiceImpl implements AdminService {
     private final UsuarioRepository usuarioRepository;
     private final MapperUsuario mapperUsuario;
     private final SecurityService securityService;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public UsuarioDTO promoverAAdmin(Long usuarioId) {
@@ -44,6 +47,7 @@ public class AdminServiceImpl implements AdminService {
 
         usuario.setRol(Rol.ADMIN);
         Usuario savedUsuario = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioModificadoEvent(usuarioId));
 
         return mapperUsuario.toDTO(savedUsuario);
     }
@@ -64,11 +68,7 @@ public class AdminServiceImpl implements AdminService {
         }
 
         // No permitir que un ADMIN se degrade a sí mismo si es el único ADMIN
-        String currentUserEmail = securityService.getCurrentUserEmail();
-        Usuario currentUser = usuarioRepository.findByEmailIgnoreCase(currentUserEmail)
-                .orElseThrow(() -> new RecursoNoEncontrado("Usuario actual no encontrado"));
-
-        if (currentUser.getId().equals(usuarioId)) {
+        if (usuarioId.equals(securityService.getCurrentUserId())) {
             long adminCount = usuarioRepository.countByRol(Rol.ADMIN);
             if (adminCount <= 1) {
                 throw new IllegalArgumentException("No puede degradarse a sí mismo siendo el único ADMIN");
@@ -77,6 +77,7 @@ public class AdminServiceImpl implements AdminService {
 
         usuario.setRol(Rol.VENDEDOR);
         Usuario savedUsuario = usuarioRepository.save(usuario);
+        eventPublisher.publishEvent(new UsuarioModificadoEvent(usuarioId));
 
         return mapperUsuario.toDTO(savedUsuario);
     }
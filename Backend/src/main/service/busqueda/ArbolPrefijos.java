@@ -0,0 +1,261 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Arbol de prefijos comprimido (radix): cada nodo guarda un tramo de texto en vez
+ * de una sola letra, asi que la profundidad depende de cuantas claves se parecen y
+ * no del largo de las claves.
+ *
+ * Cada nodo guarda ademas las K mejores entradas de todo su subarbol, ya ordenadas:
+ * sugerir un prefijo es bajar hasta el nodo (tantos pasos como tramos tenga el
+ * prefijo) y devolver su lista, sin recorrer el subarbol. Al agregar o quitar una
+ * clave solo se recalculan las listas de los nodos del camino.
+ *
+ * No es thread-safe: el que lo usa sincroniza.
+ */
+final class ArbolPrefijos {
+
+    static final int K = 10;
+
+    private static final Entrada[] VACIO = new Entrada[0];
+
+    // lo que se sugiere; una misma entrada puede estar bajo varias claves
+    static final class Entrada {
+        final String tipo;
+        final Long id;
+        final String texto;
+        final long peso;
+
+        Entrada(String tipo, Long id, String texto, long peso) {
+            this.tipo = tipo;
+            this.id = id;
+            this.texto = texto;
+            this.peso = peso;
+        }
+
+        boolean mismaQue(Entrada otra) {
+            return tipo.equals(otra.tipo) && id.equals(otra.id);
+        }
+    }
+
+    private static final Comparator<Entrada> MEJOR_PRIMERO = Comparator.comparingLong((Entrada e) -> e.peso)
+            .reversed()
+            .thenComparing(e -> e.texto)
+            .thenComparing(e -> e.tipo)
+            .thenComparing(e -> e.id);
+
+    private static final class Nodo {
+        String tramo;
+        final Map<Character, Nodo> hijos = new HashMap<>(4);
+        // entradas cuya clave termina en este nodo
+        List<Entrada> terminales;
+        Entrada[] mejores = VACIO;
+
+        Nodo(String tramo) {
+            this.tramo = tramo;
+        }
+    }
+
+    private final Nodo raiz = new Nodo("");
+
+    // CONSULTA
+
+    // hasta limite (<= K) entradas distintas con alguna clave que empieza con prefijo
+    List<Entrada> sugerir(String prefijo, int limite) {
+        Nodo n = raiz;
+        int i = 0;
+        while (i < prefijo.length()) {
+            Nodo hijo = n.hijos.get(prefijo.charAt(i));
+            if (hijo == null) {
+                return List.of();
+            }
+            int resto = prefijo.length() - i;
+            if (resto <= hijo.tramo.length()) {
+                // el prefijo termina dentro del tramo de este hijo
+                if (!hijo.tramo.regionMatches(0, prefijo, i, resto)) {
+                    return List.of();
+                }
+                n = hijo;
+                break;
+            }
+            if (!prefijo.startsWith(hijo.tramo, i)) {
+                return List.of();
+            }
+            i += hijo.tramo.length();
+            n = hijo;
+        }
+        Entrada[] mejores = n.mejores;
+        List<Entrada> resultado = new ArrayList<>(Math.min(limite, mejores.length));
+        for (int j = 0; j < mejores.length && j < limite; j++) {
+            resultado.add(mejores[j]);
+        }
+        return resultado;
+    }
+
+    // ACTUALIZACION
+
+    void agregar(String clave, Entrada entrada) {
+        List<Nodo> camino = insertar(clave, entrada);
+        if (camino != null) {
+            recalcular(camino);
+        }
+    }
+
+    // para cargas completas: agrega sin recalcular las listas; despues se llama una
+    // sola vez a recalcularTodo()
+    void agregarSinRecalcular(String clave, Entrada entrada) {
+        insertar(clave, entrada);
+    }
+
+    void recalcularTodo() {
+        recalcularSubarbol(raiz);
+    }
+
+    void quitar(String clave, Entrada entrada) {
+        List<Nodo> camino = buscarCamino(clave);
+        if (camino == null) {
+            return;
+        }
+        Nodo n = camino.get(camino.size() - 1);
+        if (n.terminales == null || !n.terminales.removeIf(e -> e.mismaQue(entrada))) {
+            return;
+        }
+        if (n.terminales.isEmpty()) {
+            n.terminales = null;
+        }
+
+        // se sacan los nodos que quedaron vacios y se juntan los que quedaron con un
+        // solo hijo, para que el arbol siga comprimido
+        for (int j = camino.size() - 1; j >= 1; j--) {
+            Nodo nodo = camino.get(j);
+            if (nodo.terminales != null) {
+                continue;
+            }
+            if (nodo.hijos.isEmpty()) {
+                camino.get(j - 1).hijos.remove(nodo.tramo.charAt(0));
+                camino.remove(j);
+            } else if (nodo.hijos.size() == 1) {
+                Nodo unico = nodo.hijos.values().iterator().next();
+                nodo.tramo = nodo.tramo + unico.tramo;
+                nodo.hijos.clear();
+                nodo.hijos.putAll(unico.hijos);
+                nodo.terminales = unico.terminales;
+            }
+        }
+        recalcular(camino);
+    }
+
+    // baja por la clave partiendo los tramos donde haga falta; devuelve el camino
+    // desde la raiz hasta el nodo donde termina la clave
+    private List<Nodo> insertar(String clave, Entrada entrada) {
+        if (clave.isEmpty()) {
+            return null;
+        }
+        List<Nodo> camino = new ArrayList<>();
+        Nodo n = raiz;
+        camino.add(n);
+        int i = 0;
+        while (i < clave.length()) {
+            char c = clave.charAt(i);
+            Nodo hijo = n.hijos.get(c);
+            if (hijo == null) {
+                hijo = new Nodo(clave.substring(i));
+                n.hijos.put(c, hijo);
+                n = hijo;
+                camino.add(n);
+                break;
+            }
+            int comun = prefijoComun(hijo.tramo, clave, i);
+            if (comun < hijo.tramo.length()) {
+                // la clave se separa a mitad del tramo: el hijo se parte en dos
+                Nodo medio = new Nodo(hijo.tramo.substring(0, comun));
+                hijo.tramo = hijo.tramo.substring(comun);
+                medio.hijos.put(hijo.tramo.charAt(0), hijo);
+                medio.mejores = hijo.mejores;
+                n.hijos.put(c, medio);
+                hijo = medio;
+            }
+            n = hijo;
+            camino.add(n);
+            i += comun;
+        }
+        if (n.terminales == null) {
+            n.terminales = new ArrayList<>(1);
+        }
+        n.terminales.removeIf(e -> e.mismaQue(entrada));
+        n.terminales.add(entrada);
+        return camino;
+    }
+
+    private List<Nodo> buscarCamino(String clave) {
+        List<Nodo> camino = new ArrayList<>();
+        Nodo n = raiz;
+        camino.add(n);
+        int i = 0;
+        while (i < clave.length()) {
+            Nodo hijo = n.hijos.get(clave.charAt(i));
+            if (hijo == null || !clave.startsWith(hijo.tramo, i)) {
+                return null;
+            }
+            i += hijo.tramo.length();
+            n = hijo;
+            camino.add(n);
+        }
+        return camino;
+    }
+
+    private static int prefijoComun(String tramo, String clave, int desde) {
+        int max = Math.min(tramo.length(), clave.length() - desde);
+        int i = 0;
+        while (i < max && tramo.charAt(i) == clave.charAt(desde + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    // de abajo hacia arriba: cada nodo usa las listas ya calculadas de sus hijos
+    private void recalcular(List<Nodo> camino) {
+        for (int j = camino.size() - 1; j >= 0; j--) {
+            Nodo n = camino.get(j);
+            n.mejores = mejores(n);
+        }
+    }
+
+    private void recalcularSubarbol(Nodo n) {
+        for (Nodo hijo : n.hijos.values()) {
+            recalcularSubarbol(hijo);
+        }
+        n.mejores = mejores(n);
+    }
+
+    // las K mejores del subarbol salen de las terminales del nodo y de las K mejores
+    // de cada hijo; una entrada que aparece bajo varias claves cuenta una sola vez
+    private static Entrada[] mejores(Nodo n) {
+        List<Entrada> candidatas = new ArrayList<>();
+        if (n.terminales != null) {
+            candidatas.addAll(n.terminales);
+        }
+        for (Nodo hijo : n.hijos.values()) {
+            for (Entrada e : hijo.mejores) {
+                candidatas.add(e);
+            }
+        }
+        candidatas.sort(MEJOR_PRIMERO);
+
+        List<Entrada> elegidas = new ArrayList<>(K);
+        for (Entrada e : candidatas) {
+            if (elegidas.stream().noneMatch(e::mismaQue)) {
+                elegidas.add(e);
+                if (elegidas.size() == K) {
+                    break;
+                }
+            }
+        }
+        return elegidas.toArray(VACIO);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+// Indice invertido en memoria sobre titulo y descripcion de los productos
+// disponibles (stock > 0)
+public interface BusquedaProductosService {
+
+    // ids de los productos que contienen todas las palabras buscadas, ordenados por
+    // relevancia (BM25). La ultima palabra tambien matchea como prefijo
+    Page<Long> buscarIds(String texto, Pageable pageable);
+
+    // todos los ids que matchean, por relevancia (para combinar con otros filtros)
+    List<Long> buscarTodosIds(String texto);
+
+    // false hasta que el catalogo termina su primera carga
+    boolean estaListo();
+}
@@ -0,0 +1,316 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.CatalogoActualizadoEvent;
+
+/**
+ * Busqueda full-text sobre el catalogo publico. Cada palabra apunta a los
+ * productos que la contienen (indice invertido), asi que una busqueda solo
+ * recorre las listas de las palabras pedidas y no la tabla entera como el
+ * LIKE '%titulo%'.
+ *
+ * Ranking BM25 con el titulo pesando mas que la descripcion. Se mantiene al
+ * dia con los {@link CatalogoActualizadoEvent} del catalogo en memoria.
+ */
+@Service
+public class BusquedaProductosServiceImpl implements BusquedaProductosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BusquedaProductosServiceImpl.class);
+
+    // parametros BM25
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // una aparicion en el titulo vale como tres en la descripcion
+    private static final int PESO_TITULO = 3;
+    private static final int PESO_DESCRIPCION = 1;
+
+    // maximo de palabras en las que se expande el prefijo de la ultima palabra (las
+    // que aparecen en mas productos)
+    private static final int MAX_EXPANSIONES = 64;
+
+    private volatile Indice indice = new Indice();
+    private volatile boolean listo = false;
+
+    // palabras de un producto y su largo ponderado, para poder sacarlo del indice
+    private static final class Documento {
+        final String[] terminos;
+        final int largo;
+
+        Documento(String[] terminos, int largo) {
+            this.terminos = terminos;
+            this.largo = largo;
+        }
+    }
+
+    private static final class Indice {
+        // palabra -> (id de producto -> frecuencia ponderada)
+        final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+        final Map<Long, Documento> documentos = new HashMap<>();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        long largoTotal = 0;
+
+        void agregar(ProductoDTO p) {
+            quitar(p.getId());
+
+            Map<String, Integer> frecuencias = new HashMap<>();
+            int largo = contar(frecuencias, p.getTitulo(), PESO_TITULO)
+                    + contar(frecuencias, p.getDescripcion(), PESO_DESCRIPCION);
+            if (frecuencias.isEmpty()) {
+                return;
+            }
+            for (Map.Entry<String, Integer> f : frecuencias.entrySet()) {
+                postings.computeIfAbsent(f.getKey(), k -> new HashMap<>()).put(p.getId(), f.getValue());
+            }
+            documentos.put(p.getId(), new Documento(frecuencias.keySet().toArray(String[]::new), largo));
+            largoTotal += largo;
+        }
+
+        void quitar(Long id) {
+            Documento doc = documentos.remove(id);
+            if (doc == null) {
+                return;
+            }
+            for (String t : doc.terminos) {
+                Map<Long, Integer> lista = postings.get(t);
+                if (lista != null) {
+                    lista.remove(id);
+                    if (lista.isEmpty()) {
+                        postings.remove(t);
+                    }
+                }
+            }
+            largoTotal -= doc.largo;
+        }
+
+        private static int contar(Map<String, Integer> frecuencias, String texto, int peso) {
+            int largo = 0;
+            for (String t : Tokenizador.terminos(texto)) {
+                frecuencias.merge(t, peso, Integer::sum);
+                largo += peso;
+            }
+            return largo;
+        }
+    }
+
+    // ACTUALIZACION
+
+    @EventListener
+    public void onCatalogoActualizado(CatalogoActualizadoEvent event) {
+        if (event.isCompleto()) {
+            // se arma aparte y se reemplaza, las busquedas siguen usando el anterior
+            Indice nuevo = new Indice();
+            event.getProductos().forEach(nuevo::agregar);
+            indice = nuevo;
+            listo = true;
+            logger.info("Indice de busqueda armado: {} productos, {} palabras",
+                    nuevo.documentos.size(), nuevo.postings.size());
+            return;
+        }
+
+        Indice actual = indice;
+        actual.lock.writeLock().lock();
+        try {
+            event.getQuitados().forEach(actual::quitar);
+            event.getProductos().forEach(actual::agregar);
+        } finally {
+            actual.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean estaListo() {
+        return listo;
+    }
+
+    // BUSQUEDA
+
+    @Override
+    public Page<Long> buscarIds(String texto, Pageable pageable) {
+        return ordenar(puntajes(texto), pageable);
+    }
+
+    @Override
+    public List<Long> buscarTodosIds(String texto) {
+        Map<Long, Double> puntajes = puntajes(texto);
+        if (puntajes.isEmpty()) {
+            return List.of();
+        }
+        return ordenar(puntajes, PageRequest.of(0, puntajes.size())).getContent();
+    }
+
+    // productos que contienen todas las palabras, con su puntaje
+    private Map<Long, Double> puntajes(String texto) {
+        List<String> palabras = Tokenizador.tokens(texto);
+        if (palabras.isEmpty()) {
+            return Map.of();
+        }
+        // la ultima palabra se completa como prefijo mientras el usuario sigue tipeando
+        boolean ultimaEsPrefijo = !Character.isWhitespace(texto.charAt(texto.length() - 1));
+
+        Indice actual = indice;
+        actual.lock.readLock().lock();
+        try {
+            List<List<String>> grupos = armarGrupos(actual, palabras, ultimaEsPrefijo);
+            if (grupos == null) {
+                return Map.of();
+            }
+            return puntuar(actual, grupos);
+        } finally {
+            actual.lock.readLock().unlock();
+        }
+    }
+
+    // cada palabra buscada es un grupo de terminos del indice: la palabra exacta, o
+    // todas las que empiezan con ella si es el prefijo. null si algun grupo no tiene
+    // resultados (ningun producto contiene todas las palabras)
+    private List<List<String>> armarGrupos(Indice ind, List<String> palabras, boolean ultimaEsPrefijo) {
+        List<List<String>> grupos = new ArrayList<>();
+        for (int i = 0; i < palabras.size(); i++) {
+            String palabra = palabras.get(i);
+            boolean prefijo = ultimaEsPrefijo && i == palabras.size() - 1;
+            // las palabras vacias completas no filtran nada, salvo que sean lo unico buscado
+            if (!prefijo && Tokenizador.esVacia(palabra) && palabras.size() > 1) {
+                continue;
+            }
+            List<String> grupo = new ArrayList<>();
+            if (prefijo) {
+                grupo.addAll(expandir(ind, palabra));
+            } else if (ind.postings.containsKey(palabra)) {
+                grupo.add(palabra);
+            }
+            if (grupo.isEmpty()) {
+                return null;
+            }
+            grupos.add(grupo);
+        }
+        return grupos.isEmpty() ? null : grupos;
+    }
+
+    // terminos que empiezan con el prefijo. Si son demasiados quedan los que aparecen
+    // en mas productos (y la palabra completa si existe), no los primeros en orden
+    // alfabetico: con un prefijo corto esos pueden dejar afuera a las palabras comunes
+    private List<String> expandir(Indice ind, String prefijo) {
+        Map<String, Map<Long, Integer>> rango = ind.postings.subMap(prefijo, true,
+                prefijo + Character.MAX_VALUE, true);
+        if (rango.size() <= MAX_EXPANSIONES) {
+            return new ArrayList<>(rango.keySet());
+        }
+        List<String> terminos = new ArrayList<>(MAX_EXPANSIONES);
+        if (rango.containsKey(prefijo)) {
+            terminos.add(prefijo);
+        }
+        int lugares = MAX_EXPANSIONES - terminos.size();
+        // los de menor frecuencia arriba, para sacarlos al pasarse del limite
+        PriorityQueue<Map.Entry<String, Map<Long, Integer>>> frecuentes = new PriorityQueue<>(
+                Comparator.comparingInt((Map.Entry<String, Map<Long, Integer>> e) -> e.getValue().size()));
+        for (Map.Entry<String, Map<Long, Integer>> e : rango.entrySet()) {
+            if (e.getKey().equals(prefijo)) {
+                continue;
+            }
+            frecuentes.add(e);
+            if (frecuentes.size() > lugares) {
+                frecuentes.poll();
+            }
+        }
+        frecuentes.forEach(e -> terminos.add(e.getKey()));
+        return terminos;
+    }
+
+    // interseccion de los grupos empezando por el mas chico, sumando BM25 por grupo
+    private Map<Long, Double> puntuar(Indice ind, List<List<String>> grupos) {
+        grupos.sort(Comparator.comparingInt(g -> tamanio(ind, g)));
+
+        int n = ind.documentos.size();
+        double largoPromedio = n == 0 ? 1.0 : Math.max(1.0, (double) ind.largoTotal / n);
+
+        Map<Long, Double> puntajes = new HashMap<>();
+        for (String t : grupos.get(0)) {
+            for (Map.Entry<Long, Integer> e : ind.postings.get(t).entrySet()) {
+                double s = bm25(ind, t, e.getKey(), e.getValue(), n, largoPromedio);
+                puntajes.merge(e.getKey(), s, Math::max);
+            }
+        }
+
+        for (int i = 1; i < grupos.size() && !puntajes.isEmpty(); i++) {
+            List<String> grupo = grupos.get(i);
+            var it = puntajes.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<Long, Double> candidato = it.next();
+                double mejor = 0;
+                for (String t : grupo) {
+                    Integer tf = ind.postings.get(t).get(candidato.getKey());
+                    if (tf != null) {
+                        mejor = Math.max(mejor, bm25(ind, t, candidato.getKey(), tf, n, largoPromedio));
+                    }
+                }
+                if (mejor == 0) {
+                    it.remove();
+                } else {
+                    candidato.setValue(candidato.getValue() + mejor);
+                }
+            }
+        }
+        return puntajes;
+    }
+
+    private int tamanio(Indice ind, List<String> grupo) {
+        int total = 0;
+        for (String t : grupo) {
+            total += ind.postings.get(t).size();
+        }
+        return total;
+    }
+
+    private double bm25(Indice ind, String termino, Long id, int tf, int n, double largoPromedio) {
+        int df = ind.postings.get(termino).size();
+        double idf = Math.log(1 + (n - df + 0.5) / (df + 0.5));
+        double largo = ind.documentos.get(id).largo;
+        return idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * largo / largoPromedio));
+    }
+
+    // se queda solo con los primeros offset + size (no ordena todos los resultados)
+    private Page<Long> ordenar(Map<Long, Double> puntajes, Pageable pageable) {
+        long hasta = pageable.getOffset() + pageable.getPageSize();
+        if (puntajes.isEmpty() || pageable.getOffset() >= puntajes.size()) {
+            return new PageImpl<>(List.of(), pageable, puntajes.size());
+        }
+        Comparator<Map.Entry<Long, Double>> mejorPrimero = Map.Entry.<Long, Double>comparingByValue()
+                .reversed()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey());
+
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(mejorPrimero.reversed());
+        for (Map.Entry<Long, Double> e : puntajes.entrySet()) {
+            top.offer(e);
+            if (top.size() > hasta) {
+                top.poll();
+            }
+        }
+        List<Map.Entry<Long, Double>> ordenados = new ArrayList<>(top);
+        ordenados.sort(mejorPrimero);
+
+        List<Long> ids = ordenados.stream()
+                .skip(pageable.getOffset())
+                .map(Map.Entry::getKey)
+                .toList();
+        return new PageImpl<>(ids, pageable, puntajes.size());
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.util.List;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.SugerenciaDTO;
+
+// Autocompletado del buscador: titulos de productos disponibles y nombres de
+// categorias que completan lo que se lleva escrito, de mas vendido a menos
+public interface SugerenciasService {
+
+    int MAX_SUGERENCIAS = 10;
+
+    // hasta limite (<= MAX_SUGERENCIAS) sugerencias; el texto se normaliza igual que
+    // en la busqueda (sin tildes ni mayusculas) y puede empezar en cualquier palabra
+    List<SugerenciaDTO> sugerir(String texto, int limite);
+}
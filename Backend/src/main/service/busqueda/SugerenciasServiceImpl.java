@@ -0,0 +1,294 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.SugerenciaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.CatalogoActualizadoEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.ResumenVentasService;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.VentasRegistradasEvent;
+
+/**
+ * Sugerencias servidas desde un {@link ArbolPrefijos} en memoria. Cada producto se
+ * indexa con su titulo normalizado empezando en cada una de sus primeras palabras
+ * ("tv samsung 50" tambien se encuentra tipeando "sams"), y cada categoria con su
+ * nombre.
+ *
+ * Peso de un producto: unidades vendidas y, a igual ventas, stock. Peso de una
+ * categoria: la suma de los pesos de sus productos disponibles mas la cantidad de
+ * productos. Se mantiene al dia con los {@link CatalogoActualizadoEvent} del
+ * catalogo, igual que el indice de busqueda.
+ *
+ * Las ventas se leen de la base solo en la carga completa; despues se suman en
+ * memoria con cada {@link VentasRegistradasEvent}, sin volver a agrupar el
+ * historial de items en cada checkout. Las que llegan mientras se arma un indice
+ * completo se aplican al anterior y se guardan para sumarlas tambien al nuevo al
+ * reemplazarlo: una venta de ese intervalo puede contarse dos veces (si ya estaba
+ * en la consulta), pero no se pierde.
+ */
+@Service
+public class SugerenciasServiceImpl implements SugerenciasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SugerenciasServiceImpl.class);
+
+    private static final String PRODUCTO = "PRODUCTO";
+    private static final String CATEGORIA = "CATEGORIA";
+
+    // palabras del titulo desde las que se puede empezar a tipear
+    private static final int MAX_CLAVES_POR_PRODUCTO = 6;
+    // el stock solo desempata entre productos con las mismas ventas
+    private static final long TOPE_STOCK = 1000;
+
+    private final ItemOrdenRepository itemOrdenRepository;
+
+    private volatile Indice indice = new Indice();
+
+    // ventas recibidas durante una carga completa, o null si no hay ninguna en curso.
+    // Se lee y se cambia con el lock de cambioDeIndice, que tambien cubre el
+    // reemplazo del indice
+    private Map<Long, Long> ventasDuranteCarga;
+    private final Object cambioDeIndice = new Object();
+
+    public SugerenciasServiceImpl(ItemOrdenRepository itemOrdenRepository) {
+        this.itemOrdenRepository = itemOrdenRepository;
+    }
+
+    private static final class ProductoIndexado {
+        final ArbolPrefijos.Entrada entrada;
+        final List<String> claves;
+        final Long categoriaId;
+
+        ProductoIndexado(ArbolPrefijos.Entrada entrada, List<String> claves, Long categoriaId) {
+            this.entrada = entrada;
+            this.claves = claves;
+            this.categoriaId = categoriaId;
+        }
+    }
+
+    private static final class CategoriaIndexada {
+        String nombre;
+        long peso;
+        int productos;
+        ArbolPrefijos.Entrada entrada;
+        String clave;
+    }
+
+    private static final class Indice {
+        final ArbolPrefijos arbol = new ArbolPrefijos();
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+        final Map<Long, ProductoIndexado> productos = new HashMap<>();
+        final Map<Long, CategoriaIndexada> categorias = new HashMap<>();
+        // unidades vendidas por producto
+        final Map<Long, Long> vendidas = new HashMap<>();
+
+        // completo = carga inicial: no se recalculan las listas del arbol en cada
+        // insercion, ni las categorias en cada producto
+        void agregar(ProductoDTO p, boolean completo) {
+            quitar(p.getId(), completo);
+            if (p.getTitulo() == null) {
+                return;
+            }
+            long stock = p.getStock() != null ? Math.min(Math.max(p.getStock(), 0), TOPE_STOCK - 1) : 0;
+            long peso = vendidas.getOrDefault(p.getId(), 0L) * TOPE_STOCK + stock;
+            ArbolPrefijos.Entrada entrada = new ArbolPrefijos.Entrada(PRODUCTO, p.getId(), p.getTitulo(), peso);
+            List<String> claves = claves(p.getTitulo());
+            for (String clave : claves) {
+                if (completo) {
+                    arbol.agregarSinRecalcular(clave, entrada);
+                } else {
+                    arbol.agregar(clave, entrada);
+                }
+            }
+            productos.put(p.getId(), new ProductoIndexado(entrada, claves, p.getCategoriaId()));
+            sumarACategoria(p.getCategoriaId(), p.getCategoriaNombre(), peso, 1, !completo);
+        }
+
+        // cambia el peso del producto (y de su categoria) sin volver a indexar el titulo
+        void sumarVendidas(Long id, long unidades) {
+            long total = Math.max(0, vendidas.getOrDefault(id, 0L) + unidades);
+            vendidas.put(id, total);
+            ProductoIndexado anterior = productos.get(id);
+            if (anterior == null) {
+                return;
+            }
+            long peso = total * TOPE_STOCK + anterior.entrada.peso % TOPE_STOCK;
+            ArbolPrefijos.Entrada entrada = new ArbolPrefijos.Entrada(PRODUCTO, id, anterior.entrada.texto, peso);
+            for (String clave : anterior.claves) {
+                arbol.quitar(clave, anterior.entrada);
+                arbol.agregar(clave, entrada);
+            }
+            productos.put(id, new ProductoIndexado(entrada, anterior.claves, anterior.categoriaId));
+            sumarACategoria(anterior.categoriaId, null, peso - anterior.entrada.peso, 0, true);
+        }
+
+        void quitar(Long id, boolean completo) {
+            ProductoIndexado anterior = productos.remove(id);
+            if (anterior == null) {
+                return;
+            }
+            for (String clave : anterior.claves) {
+                arbol.quitar(clave, anterior.entrada);
+            }
+            sumarACategoria(anterior.categoriaId, null, -anterior.entrada.peso, -1, !completo);
+        }
+
+        // con indexar = false solo se acumula (carga completa: las categorias se
+        // indexan una vez al final con indexarCategorias)
+        private void sumarACategoria(Long categoriaId, String nombre, long peso, int productos,
+                boolean indexar) {
+            if (categoriaId == null) {
+                return;
+            }
+            CategoriaIndexada c = categorias.computeIfAbsent(categoriaId, k -> new CategoriaIndexada());
+            if (c.entrada != null) {
+                arbol.quitar(c.clave, c.entrada);
+                c.entrada = null;
+            }
+            if (nombre != null) {
+                c.nombre = nombre;
+            }
+            c.peso += peso;
+            c.productos += productos;
+            if (c.productos <= 0 || c.nombre == null) {
+                if (c.productos <= 0) {
+                    categorias.remove(categoriaId);
+                }
+                return;
+            }
+            if (indexar) {
+                indexarCategoria(categoriaId, c, false);
+            }
+        }
+
+        void indexarCategorias() {
+            categorias.forEach((id, c) -> {
+                if (c.nombre != null) {
+                    indexarCategoria(id, c, true);
+                }
+            });
+        }
+
+        private void indexarCategoria(Long id, CategoriaIndexada c, boolean completo) {
+            c.clave = String.join(" ", Tokenizador.tokens(c.nombre));
+            c.entrada = new ArbolPrefijos.Entrada(CATEGORIA, id, c.nombre, c.peso + c.productos);
+            if (c.clave.isEmpty()) {
+                c.entrada = null;
+            } else if (completo) {
+                arbol.agregarSinRecalcular(c.clave, c.entrada);
+            } else {
+                arbol.agregar(c.clave, c.entrada);
+            }
+        }
+
+        // el titulo normalizado desde cada una de sus primeras palabras (salteando las
+        // palabras vacias salvo la primera)
+        private static List<String> claves(String titulo) {
+            List<String> tokens = Tokenizador.tokens(titulo);
+            List<String> claves = new ArrayList<>();
+            for (int i = 0; i < tokens.size() && claves.size() < MAX_CLAVES_POR_PRODUCTO; i++) {
+                if (i > 0 && Tokenizador.esVacia(tokens.get(i))) {
+                    continue;
+                }
+                claves.add(String.join(" ", tokens.subList(i, tokens.size())));
+            }
+            return claves;
+        }
+    }
+
+    // ACTUALIZACION
+
+    @EventListener
+    public void onCatalogoActualizado(CatalogoActualizadoEvent event) {
+        if (event.isCompleto()) {
+            // se arma aparte y se reemplaza, las consultas siguen usando el anterior
+            synchronized (cambioDeIndice) {
+                ventasDuranteCarga = new HashMap<>();
+            }
+            Indice nuevo = new Indice();
+            cargarVendidas(nuevo.vendidas);
+            event.getProductos().forEach(p -> nuevo.agregar(p, true));
+            nuevo.indexarCategorias();
+            nuevo.arbol.recalcularTodo();
+            synchronized (cambioDeIndice) {
+                // el nuevo todavia no se publico: no hace falta su lock
+                ventasDuranteCarga.forEach(nuevo::sumarVendidas);
+                ventasDuranteCarga = null;
+                indice = nuevo;
+            }
+            logger.info("Indice de sugerencias armado: {} productos, {} categorias",
+                    nuevo.productos.size(), nuevo.categorias.size());
+            return;
+        }
+
+        // las ventas ya estan en memoria (onVentasRegistradas)
+        Indice actual = indice;
+        actual.lock.writeLock().lock();
+        try {
+            event.getQuitados().forEach(id -> actual.quitar(id, false));
+            event.getProductos().forEach(p -> actual.agregar(p, false));
+        } finally {
+            actual.lock.writeLock().unlock();
+        }
+    }
+
+    @EventListener
+    public void onVentasRegistradas(VentasRegistradasEvent event) {
+        synchronized (cambioDeIndice) {
+            if (ventasDuranteCarga != null) {
+                event.getUnidadesPorProducto().forEach((id, u) -> ventasDuranteCarga.merge(id, u, Long::sum));
+            }
+            Indice actual = indice;
+            actual.lock.writeLock().lock();
+            try {
+                event.getUnidadesPorProducto().forEach(actual::sumarVendidas);
+            } finally {
+                actual.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // unidades vendidas de todos los productos (ordenes COMPLETADA, las mismas que
+    // cuenta el resumen de ventas). Si la consulta falla se siguen usando las que ya
+    // se tenian
+    private void cargarVendidas(Map<Long, Long> destino) {
+        try {
+            for (Object[] fila : itemOrdenRepository.sumarVendidasPorProducto(ResumenVentasService.ESTADO_VENTA)) {
+                destino.put((Long) fila[0], ((Number) fila[1]).longValue());
+            }
+        } catch (RuntimeException e) {
+            logger.warn("No se pudieron leer las ventas para las sugerencias: {}", e.getMessage());
+            destino.putAll(indice.vendidas);
+        }
+    }
+
+    // CONSULTA
+
+    @Override
+    public List<SugerenciaDTO> sugerir(String texto, int limite) {
+        String prefijo = String.join(" ", Tokenizador.tokens(texto));
+        if (prefijo.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        Indice actual = indice;
+        List<ArbolPrefijos.Entrada> entradas;
+        actual.lock.readLock().lock();
+        try {
+            entradas = actual.arbol.sugerir(prefijo, Math.min(limite, MAX_SUGERENCIAS));
+        } finally {
+            actual.lock.readLock().unlock();
+        }
+        return entradas.stream()
+                .map(e -> new SugerenciaDTO(e.texto, e.tipo, e.id))
+                .toList();
+    }
+}
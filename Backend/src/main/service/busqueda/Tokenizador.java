@@ -0,0 +1,53 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Normaliza texto para los indices de busqueda: minusculas, sin tildes ni
+// dieresis ("Camión" -> "camion") y separado en palabras alfanumericas
+public final class Tokenizador {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{Alnum}]+");
+
+    // palabras muy comunes en español que no aportan a la busqueda
+    private static final Set<String> VACIAS = Set.of(
+            "a", "al", "con", "de", "del", "el", "en", "la", "las", "lo", "los", "o", "para", "por",
+            "sin", "su", "un", "una", "unos", "unas", "y");
+
+    private Tokenizador() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null)
+            return "";
+        String sinMarcas = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return sinMarcas.toLowerCase(Locale.ROOT);
+    }
+
+    // todas las palabras del texto, en orden y con repeticiones
+    public static List<String> tokens(String texto) {
+        List<String> tokens = new ArrayList<>();
+        for (String t : SEPARADORES.split(normalizar(texto))) {
+            if (!t.isEmpty()) {
+                tokens.add(t);
+            }
+        }
+        return tokens;
+    }
+
+    // igual que tokens() pero sin palabras vacias
+    public static List<String> terminos(String texto) {
+        List<String> tokens = tokens(texto);
+        tokens.removeIf(VACIAS::contains);
+        return tokens;
+    }
+
+    public static boolean esVacia(String termino) {
+        return VACIAS.contains(termino);
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.cache;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache de lectura en memoria donde cada entrada vence en el instante que decide
+ * quien la carga (por ejemplo, la proxima frontera de vigencia de un descuento),
+ * con un maximo de {@code ttlMaxMs} como red de seguridad.
+ *
+ * Para no volver a guardar un valor viejo, cada invalidacion incrementa una
+ * generacion: una carga que empezo antes de la invalidacion se devuelve pero no
+ * se guarda. {@link #invalidarAlConfirmar} invalida de inmediato y otra vez
+ * cuando confirma la transaccion actual, para cubrir lecturas concurrentes que
+ * todavia ven el dato anterior al commit.
+ */
+public class CacheConVencimiento<K, V> {
+
+    private final long ttlMaxMs;
+    private final int max;
+    private final Map<K, Entrada<V>> entradas = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+
+    private static final class Entrada<V> {
+        final V valor;
+        final long venceEnMs;
+
+        Entrada(V valor, long venceEnMs) {
+            this.valor = valor;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    public CacheConVencimiento(long ttlMaxMs, int max) {
+        this.ttlMaxMs = ttlMaxMs;
+        this.max = max;
+    }
+
+    // venceEn devuelve el instante (ms) en que el valor deja de servir, o
+    // Long.MAX_VALUE si no tiene vencimiento propio
+    public V obtener(K clave, Function<K, V> cargar, ToLongFunction<V> venceEn) {
+        long ahora = System.currentTimeMillis();
+        Entrada<V> entrada = entradas.get(clave);
+        if (entrada != null && entrada.venceEnMs > ahora) {
+            return entrada.valor;
+        }
+
+        long generacionInicial = generacion.get();
+        V valor = cargar.apply(clave);
+        guardarSiNoCambio(clave, valor, Math.min(venceEn.applyAsLong(valor), ahora + ttlMaxMs), generacionInicial);
+        return valor;
+    }
+
+    public Optional<V> buscar(K clave) {
+        Entrada<V> entrada = entradas.get(clave);
+        return entrada != null && entrada.venceEnMs > System.currentTimeMillis()
+                ? Optional.of(entrada.valor)
+                : Optional.empty();
+    }
+
+    // para cargas en lote: generacionInicial se lee con generacion() antes de consultar
+    public void guardarSiNoCambio(K clave, V valor, long venceEnMs, long generacionInicial) {
+        if (venceEnMs <= System.currentTimeMillis() || generacion.get() != generacionInicial) {
+            return;
+        }
+        if (entradas.size() >= max) {
+            liberarEspacio();
+        }
+        entradas.put(clave, new Entrada<>(valor, Math.min(venceEnMs, System.currentTimeMillis() + ttlMaxMs)));
+    }
+
+    public long generacion() {
+        return generacion.get();
+    }
+
+    public void invalidar(K clave) {
+        generacion.incrementAndGet();
+        entradas.remove(clave);
+    }
+
+    public void invalidarTodo() {
+        generacion.incrementAndGet();
+        entradas.clear();
+    }
+
+    public void invalidarAlConfirmar(K clave) {
+        invalidar(clave);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidar(clave);
+                }
+            });
+        }
+    }
+
+    private void liberarEspacio() {
+        long ahora = System.currentTimeMillis();
+        entradas.values().removeIf(e -> e.venceEnMs <= ahora);
+        int aQuitar = entradas.size() - max / 2;
+        Iterator<K> it = entradas.keySet().iterator();
+        while (aQuitar-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
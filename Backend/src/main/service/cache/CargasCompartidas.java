@@ -0,0 +1,105 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.cache;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Carga unica por clave (single-flight): si llegan varios pedidos iguales mientras
+ * una carga esta en curso, el primero la ejecuta y el resto espera y recibe el
+ * mismo resultado (o la misma excepcion), en vez de ir cada uno a la base.
+ *
+ * No guarda nada: apenas la carga termina, el proximo pedido ejecuta una nueva. Se
+ * usa delante de las caches, en el camino de los fallos. Lo compartido tiene que
+ * ser inmutable o no modificarse despues (DTOs, bytes), nunca entidades: no pueden
+ * pasar de un hilo (y su sesion) a otro.
+ *
+ * Se llama fuera de cualquier transaccion y la carga abre la suya: si no, cada
+ * pedido que espera retiene una conexion del pool mientras tanto. La clave incluye
+ * la generacion de la cache (o la version del catalogo) para que quien llega
+ * despues de un cambio no reciba el resultado de una carga que empezo antes.
+ *
+ * Metricas: catalogo.cargas{carga, resultado=ejecutada|compartida} y
+ * catalogo.cargas.en_curso.
+ */
+@Service
+public class CargasCompartidas {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<List<Object>, CompletableFuture<Object>> enCurso = new ConcurrentHashMap<>();
+    private final Map<String, Contadores> contadores = new ConcurrentHashMap<>();
+
+    private static final class Contadores {
+        final Counter ejecutadas;
+        final Counter compartidas;
+
+        Contadores(Counter ejecutadas, Counter compartidas) {
+            this.ejecutadas = ejecutadas;
+            this.compartidas = compartidas;
+        }
+    }
+
+    public CargasCompartidas(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("catalogo.cargas.en_curso", Tags.empty(), enCurso);
+    }
+
+    // carga identifica al tipo de lectura (y a sus metricas); clave, los parametros
+    @SuppressWarnings("unchecked")
+    public <V> V obtener(String carga, Object clave, Supplier<V> cargar) {
+        List<Object> id = Arrays.asList(carga, clave);
+        CompletableFuture<Object> propia = new CompletableFuture<>();
+        CompletableFuture<Object> existente = enCurso.putIfAbsent(id, propia);
+        Contadores c = contadores(carga);
+        if (existente != null) {
+            c.compartidas.increment();
+            return (V) esperar(existente);
+        }
+
+        c.ejecutadas.increment();
+        try {
+            V valor = cargar.get();
+            propia.complete(valor);
+            return valor;
+        } catch (RuntimeException | Error e) {
+            propia.completeExceptionally(e);
+            throw e;
+        } finally {
+            enCurso.remove(id, propia);
+        }
+    }
+
+    private Object esperar(CompletableFuture<Object> carga) {
+        try {
+            return carga.join();
+        } catch (CompletionException e) {
+            // la misma excepcion que recibio el que ejecuto la carga (ej: 404)
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            if (e.getCause() instanceof Error err) {
+                throw err;
+            }
+            throw e;
+        }
+    }
+
+    private Contadores contadores(String carga) {
+        return contadores.computeIfAbsent(carga, k -> new Contadores(
+                Counter.builder("catalogo.cargas").tag("carga", k).tag("resultado", "ejecutada")
+                        .description("Cargas ejecutadas contra la base").register(meterRegistry),
+                Counter.builder("catalogo.cargas").tag("carga", k).tag("resultado", "compartida")
+                        .description("Pedidos que esperaron una carga en curso en vez de ejecutar otra")
+                        .register(meterRegistry)));
+    }
+}
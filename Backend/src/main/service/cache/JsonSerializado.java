@@ -0,0 +1,33 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.zip.GZIPOutputStream;
+
+import lombok.Getter;
+
+// Respuesta JSON ya serializada (UTF-8) y su version comprimida con gzip, para
+// escribirla tal cual sin pasar por Jackson en cada pedido
+@Getter
+public final class JsonSerializado {
+
+    private final byte[] json;
+    private final byte[] gzip;
+
+    private JsonSerializado(byte[] json, byte[] gzip) {
+        this.json = json;
+        this.gzip = gzip;
+    }
+
+    public static JsonSerializado de(byte[] json) {
+        ByteArrayOutputStream salida = new ByteArrayOutputStream(Math.max(64, json.length / 3));
+        try (GZIPOutputStream gz = new GZIPOutputStream(salida)) {
+            gz.write(json);
+        } catch (IOException e) {
+            // en memoria no deberia pasar
+            throw new UncheckedIOException(e);
+        }
+        return new JsonSerializado(json, salida.toByteArray());
+    }
+}
@@ -16,6 +16,7 @@ import com.example.uade.tpo.ecommerce_grupo10.repository.CarritoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ItemCarritoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.reserva.ReservaStockService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -29,6 +30,7 @@ public class CarritoServiceImpl implements CarritoService {
     private final UsuarioRepository usuarioRepository;
     private final ProductoRepository productoRepository;
     private final MapperCarrito mapperCarrito;
+    private final ReservaStockService reservaStockService;
 
     @Override
     @Transactional(readOnly = true)
@@ -56,34 +58,17 @@ public class CarritoServiceImpl implements CarritoService {
         Producto producto = productoRepository.findById(productoId)
                 .orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado"));
 
-        // 🛡️ VALIDACIÓN DE STOCK
-        if (producto.getStock() <= 0) {
-            throw new IllegalArgumentException("El producto no tiene stock disponible");
-        }
-
-        // Si ya existe el item, verificar que no exceda el stock
         var itemExistente = itemCarritoRepository.findByCarritoIdAndProductoId(carrito.getId(), productoId);
-        if (itemExistente.isPresent()) {
-            ItemCarrito it = itemExistente.get();
-            int cantidadTotal = it.getCantidad() + cantidad;
+        int cantidadTotal = itemExistente.map(ItemCarrito::getCantidad).orElse(0) + cantidad;
 
-            // Verificar que la cantidad total no exceda el stock
-            if (cantidadTotal > producto.getStock()) {
-                throw new IllegalArgumentException(
-                        String.format("Stock insuficiente. Disponible: %d, Solicitado: %d (ya tienes %d en el carrito)",
-                                producto.getStock(), cantidadTotal, it.getCantidad()));
-            }
+        // 🛡️ RESERVA DE STOCK: falla si no alcanza lo que queda sin reservar
+        reservaStockService.reservar(usuarioId, productoId, cantidadTotal);
 
+        if (itemExistente.isPresent()) {
+            ItemCarrito it = itemExistente.get();
             it.setCantidad(cantidadTotal);
             itemCarritoRepository.save(it);
         } else {
-            // Verificar stock para nuevo item
-            if (cantidad > producto.getStock()) {
-                throw new IllegalArgumentException(
-                        String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
-                                producto.getStock(), cantidad));
-            }
-
             ItemCarrito it = new ItemCarrito();
             it.setCarrito(carrito);
             it.setProducto(producto);
@@ -106,20 +91,11 @@ public class CarritoServiceImpl implements CarritoService {
                 .orElseThrow(() -> new RecursoNoEncontrado("El item no existe en el carrito"));
 
         if (cantidad == 0) { // si la cantidad es 0, eliminamos el item del carrito
+            reservaStockService.liberar(usuarioId, productoId);
             carrito.getItems().remove(it);
             itemCarritoRepository.delete(it);
-        } else { // y si no, actualizamos la cantidad
-            // Validar stock antes de actualizar
-            Producto producto = productoRepository.findById(productoId)
-                    .orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado"));
-
-            // Verificar si el producto tiene stock suficiente
-            if (producto.getStock() < cantidad) {
-                throw new IllegalArgumentException(
-                        String.format("Stock insuficiente. Stock disponible: %d, cantidad solicitada: %d",
-                                producto.getStock(), cantidad));
-            }
-
+        } else { // y si no, actualizamos la cantidad (la reserva valida el stock)
+            reservaStockService.reservar(usuarioId, productoId, cantidad);
             it.setCantidad(cantidad);
             itemCarritoRepository.save(it);
         }
@@ -134,6 +110,7 @@ public class CarritoServiceImpl implements CarritoService {
         ItemCarrito it = itemCarritoRepository.findByCarritoIdAndProductoId(carrito.getId(), productoId)
                 .orElseThrow(() -> new RecursoNoEncontrado("El item no existe en el carrito"));
 
+        reservaStockService.liberar(usuarioId, productoId);
         carrito.getItems().remove(it);
         itemCarritoRepository.delete(it);
 
@@ -145,6 +122,7 @@ public class CarritoServiceImpl implements CarritoService {
         Carrito carrito = carritoRepository.findByUsuarioId(usuarioId)
                 .orElseThrow(() -> new RecursoNoEncontrado("Carrito inexistente para el usuario"));
 
+        reservaStockService.liberarTodas(usuarioId);
         itemCarritoRepository.deleteByCarritoId(carrito.getId());
         carrito.setItems(new ArrayList<>()); // vacio
         return mapperCarrito.toDTO(carrito);
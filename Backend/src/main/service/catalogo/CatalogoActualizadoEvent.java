@@ -0,0 +1,39 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+
+import lombok.Getter;
+
+// Lo publica el catalogo en memoria despues de aplicar cambios, para que los
+// indices derivados (busqueda, etc.) se mantengan en sincronia sin volver a
+// consultar la base
+@Getter
+public class CatalogoActualizadoEvent {
+
+    // true si es una carga completa: los productos reemplazan todo lo anterior
+    private final boolean completo;
+
+    // productos disponibles que se agregaron o cambiaron
+    private final List<ProductoDTO> productos;
+
+    // ids que dejaron de estar en el catalogo (borrados o sin stock)
+    private final Set<Long> quitados;
+
+    private CatalogoActualizadoEvent(boolean completo, Collection<ProductoDTO> productos, Collection<Long> quitados) {
+        this.completo = completo;
+        this.productos = List.copyOf(productos);
+        this.quitados = Set.copyOf(quitados);
+    }
+
+    public static CatalogoActualizadoEvent completo(Collection<ProductoDTO> productos) {
+        return new CatalogoActualizadoEvent(true, productos, Set.of());
+    }
+
+    public static CatalogoActualizadoEvent parcial(Collection<ProductoDTO> productos, Collection<Long> quitados) {
+        return new CatalogoActualizadoEvent(false, productos, quitados);
+    }
+}
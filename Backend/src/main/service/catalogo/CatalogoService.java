@@ -0,0 +1,35 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.Collection;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.BusquedaFacetadaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+
+// Catalogo publico en memoria: productos con stock > 0, ya mapeados a DTO
+public interface CatalogoService {
+
+    // LECTURAS (no consultan la base de datos)
+
+    Page<ProductoDTO> listarDisponibles(Pageable pageable);
+
+    Page<ProductoDTO> buscarPorCategoria(Long categoriaId, Pageable pageable);
+
+    Page<ProductoDTO> buscarPorPrecio(Double precioMin, Double precioMax, Pageable pageable);
+
+    // cualquier combinacion de filtros (null = sin filtro) mas los conteos por
+    // categoria, rango de precio y descuento. Con texto se ordena por relevancia
+    BusquedaFacetadaDTO buscarConFacetas(String texto, Long categoriaId, Double precioMin, Double precioMax,
+            Long vendedorId, Boolean conDescuento, Pageable pageable);
+
+    // ACTUALIZACION
+
+    // vuelve a cargar el catalogo completo desde la base
+    void recargar();
+
+    // vuelve a leer solo los productos indicados (los que ya no existen o no tienen
+    // stock se quitan del catalogo)
+    void actualizarProductos(Collection<Long> productosIds);
+}
@@ -0,0 +1,508 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.BusquedaFacetadaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.FacetaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperProducto;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ImagenProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoVista;
+import com.example.uade.tpo.ecommerce_grupo10.service.busqueda.BusquedaProductosService;
+import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Modelo de lectura del catalogo publico. Se carga completo al iniciar la
+ * aplicacion y despues se actualiza producto por producto cada vez que se
+ * publica un {@link ProductosModificadosEvent} (una vez confirmada la
+ * transaccion que hizo el cambio).
+ *
+ * Las lecturas no toman locks ni consultan la base; las escrituras se hacen de
+ * a una para que la carga completa y las actualizaciones no se pisen.
+ *
+ * Los productos modificados no se leen en el hilo que confirmo la transaccion
+ * (en AFTER_COMMIT todavia tiene su conexion, y leer pediria otra mientras espera
+ * el lock de escritura): se anotan y los aplica un hilo propio, juntando en una
+ * sola lectura lo que se acumulo mientras tanto. Si la lectura falla esos ids se
+ * reintentan a los {@value #REINTENTO_MS} ms.
+ */
+@Service
+public class CatalogoServiceImpl implements CatalogoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogoServiceImpl.class);
+
+    // cantidad maxima de ids por consulta IN
+    private static final int TAMANIO_LOTE = 500;
+
+    // espera antes de volver a leer productos cuya actualizacion fallo
+    private static final long REINTENTO_MS = 5 * 1000;
+
+    private final ProductoRepository productoRepository;
+    private final ImagenProductoRepository imagenProductoRepository;
+    private final DescuentoProductoService descuentoProductoService;
+    private final MapperProducto mapperProducto;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusquedaProductosService busquedaProductosService;
+    private final TransactionTemplate lectura;
+
+    private final Object escritura = new Object();
+    private volatile Indices indices = new Indices();
+    private volatile boolean cargado = false;
+
+    // ids modificados que esperan al hilo escritor; programado evita encolar una
+    // pasada por cada evento
+    private final Set<Long> pendientes = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean programado = new AtomicBoolean();
+    private final ScheduledExecutorService escritor = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread hilo = new Thread(r, "catalogo");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public CatalogoServiceImpl(ProductoRepository productoRepository,
+            ImagenProductoRepository imagenProductoRepository,
+            DescuentoProductoService descuentoProductoService,
+            MapperProducto mapperProducto,
+            ApplicationEventPublisher eventPublisher,
+            BusquedaProductosService busquedaProductosService,
+            PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.imagenProductoRepository = imagenProductoRepository;
+        this.descuentoProductoService = descuentoProductoService;
+        this.mapperProducto = mapperProducto;
+        this.eventPublisher = eventPublisher;
+        this.busquedaProductosService = busquedaProductosService;
+        // transaccion propia: los eventos llegan despues del commit de la transaccion
+        // que hizo el cambio, y ahi ya no se puede reutilizar
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+        this.lectura.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // productos disponibles ordenados por id, mas los indices por categoria y por
+    // precio y las facetas de la busqueda combinada
+    private static class Indices {
+        final ConcurrentSkipListMap<Long, EntradaCatalogo> productos = new ConcurrentSkipListMap<>();
+        final ConcurrentHashMap<Long, ConcurrentSkipListSet<Long>> porCategoria = new ConcurrentHashMap<>();
+        // precio base -> ids: un rango de precios es un subMap. Solo lo cambia el que
+        // tiene el lock de escritura (renovar no toca el precio base)
+        final ConcurrentSkipListMap<Double, ConcurrentSkipListSet<Long>> porPrecio = new ConcurrentSkipListMap<>();
+        final FacetasCatalogo facetas = new FacetasCatalogo();
+        // el proximo momento en que algun descuento entra o sale de vigencia
+        final AtomicLong proximoVencimiento = new AtomicLong(Long.MAX_VALUE);
+
+        void agregar(EntradaCatalogo entrada) {
+            Long id = entrada.dto.getId();
+            EntradaCatalogo anterior = productos.put(id, entrada);
+            if (anterior != null && !Objects.equals(anterior.dto.getCategoriaId(), entrada.dto.getCategoriaId())) {
+                quitarDeCategoria(anterior.dto.getCategoriaId(), id);
+            }
+            if (entrada.dto.getCategoriaId() != null) {
+                porCategoria.computeIfAbsent(entrada.dto.getCategoriaId(), k -> new ConcurrentSkipListSet<>()).add(id);
+            }
+            if (anterior != null && !Objects.equals(anterior.dto.getPrecio(), entrada.dto.getPrecio())) {
+                quitarDePrecio(anterior.dto.getPrecio(), id);
+            }
+            if (entrada.dto.getPrecio() != null) {
+                porPrecio.computeIfAbsent(entrada.dto.getPrecio(), k -> new ConcurrentSkipListSet<>()).add(id);
+            }
+            sincronizarFacetas(id);
+            anotarVencimiento(entrada.recalcularEn);
+        }
+
+        // Si el vencimiento publicado ya paso puede haber un recorrido de
+        // refrescarVencidos en curso, que al terminar publica el suyo solo si nadie lo
+        // cambio: se lo corre igual (un ms antes) para que ese recorrido no pise este
+        // vencimiento, y la proxima lectura vuelve a recorrer
+        void anotarVencimiento(long instante) {
+            long ahora = System.currentTimeMillis();
+            proximoVencimiento.accumulateAndGet(instante,
+                    (actual, nuevo) -> actual <= ahora ? Math.min(actual - 1, nuevo) : Math.min(actual, nuevo));
+        }
+
+        void quitar(Long id) {
+            EntradaCatalogo anterior = productos.remove(id);
+            if (anterior != null) {
+                quitarDeCategoria(anterior.dto.getCategoriaId(), id);
+                quitarDePrecio(anterior.dto.getPrecio(), id);
+            }
+            sincronizarFacetas(id);
+        }
+
+        void sincronizarFacetas(Long id) {
+            facetas.sincronizar(id, () -> {
+                EntradaCatalogo actual = productos.get(id);
+                return actual != null ? actual.dto : null;
+            });
+        }
+
+        private void quitarDeCategoria(Long categoriaId, Long productoId) {
+            if (categoriaId == null)
+                return;
+            ConcurrentSkipListSet<Long> ids = porCategoria.get(categoriaId);
+            if (ids != null) {
+                ids.remove(productoId);
+            }
+        }
+
+        // a diferencia de las categorias los precios cambian seguido: el precio que
+        // queda sin productos se saca del mapa
+        private void quitarDePrecio(Double precio, Long productoId) {
+            if (precio == null)
+                return;
+            ConcurrentSkipListSet<Long> ids = porPrecio.get(precio);
+            if (ids != null && ids.remove(productoId) && ids.isEmpty()) {
+                porPrecio.remove(precio, ids);
+            }
+        }
+    }
+
+    // DTO ya calculado + el descuento crudo para poder recalcularlo cuando el
+    // descuento entra o sale de vigencia
+    private static class EntradaCatalogo {
+        final ProductoDTO dto;
+        final DescuentoProductoDTO descuento;
+        final long recalcularEn;
+
+        EntradaCatalogo(ProductoDTO dto, DescuentoProductoDTO descuento, long recalcularEn) {
+            this.dto = dto;
+            this.descuento = descuento;
+            this.recalcularEn = recalcularEn;
+        }
+    }
+
+    // LECTURAS
+
+    @Override
+    public Page<ProductoDTO> listarDisponibles(Pageable pageable) {
+        Indices ind = indicesCargados();
+        return paginar(ind, ind.productos.values(), ind.productos.size(), pageable);
+    }
+
+    @Override
+    public Page<ProductoDTO> buscarPorCategoria(Long categoriaId, Pageable pageable) {
+        Indices ind = indicesCargados();
+        ConcurrentSkipListSet<Long> ids = categoriaId != null ? ind.porCategoria.get(categoriaId) : null;
+        if (ids == null || ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        Iterable<EntradaCatalogo> entradas = () -> ids.stream()
+                .map(ind.productos::get)
+                .filter(Objects::nonNull)
+                .iterator();
+        return paginar(ind, entradas, ids.size(), pageable);
+    }
+
+    // ordenados por precio y, a igual precio, por id. Solo se recorre el rango pedido
+    @Override
+    public Page<ProductoDTO> buscarPorPrecio(Double precioMin, Double precioMax, Pageable pageable) {
+        Indices ind = indicesCargados();
+        if (precioMin != null && precioMax != null && precioMin > precioMax) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        NavigableMap<Double, ConcurrentSkipListSet<Long>> rango = ind.porPrecio;
+        if (precioMin != null) {
+            rango = rango.tailMap(precioMin, true);
+        }
+        if (precioMax != null) {
+            rango = rango.headMap(precioMax, true);
+        }
+        Collection<ConcurrentSkipListSet<Long>> grupos = rango.values();
+        long total = grupos.stream().mapToLong(Set::size).sum();
+        Iterable<EntradaCatalogo> entradas = () -> grupos.stream()
+                .flatMap(Set::stream)
+                .map(ind.productos::get)
+                .filter(Objects::nonNull)
+                .iterator();
+        return paginar(ind, entradas, total, pageable);
+    }
+
+    @Override
+    public BusquedaFacetadaDTO buscarConFacetas(String texto, Long categoriaId, Double precioMin, Double precioMax,
+            Long vendedorId, Boolean conDescuento, Pageable pageable) {
+        Indices ind = indicesCargados();
+        refrescarVencidos(ind);
+
+        boolean conTexto = texto != null && !texto.isBlank();
+        List<Long> relevantes = conTexto ? busquedaProductosService.buscarTodosIds(texto) : null;
+        // con texto por relevancia; sin texto por id, como el resto del catalogo
+        FacetasCatalogo.Resultado r = ind.facetas.filtrar(relevantes, categoriaId, precioMin, precioMax,
+                vendedorId, conDescuento, pageable.getOffset(), pageable.getPageSize());
+        List<ProductoDTO> contenido = r.pagina.stream()
+                .map(ind.productos::get)
+                .filter(Objects::nonNull)
+                .map(e -> vigente(ind, e))
+                .toList();
+
+        List<FacetaDTO> categorias = r.porCategoria.entrySet().stream()
+                .sorted(Map.Entry.<Long, Long>comparingByValue().reversed())
+                .map(e -> new FacetaDTO(e.getKey().toString(), ind.facetas.nombreCategoria(e.getKey()), e.getValue()))
+                .toList();
+        List<FacetaDTO> rangos = new ArrayList<>(FacetasCatalogo.LIMITES_PRECIO.length);
+        for (int i = 0; i < FacetasCatalogo.LIMITES_PRECIO.length; i++) {
+            rangos.add(new FacetaDTO(String.valueOf((long) FacetasCatalogo.LIMITES_PRECIO[i]),
+                    FacetasCatalogo.nombreRango(i), r.porRango[i]));
+        }
+        List<FacetaDTO> descuento = List.of(
+                new FacetaDTO("true", "Con descuento", r.conDescuento),
+                new FacetaDTO("false", "Sin descuento", r.sinDescuento));
+
+        return BusquedaFacetadaDTO.builder()
+                .productos(new PageImpl<>(contenido, pageable, r.total))
+                .categorias(categorias)
+                .rangosPrecio(rangos)
+                .descuento(descuento)
+                .build();
+    }
+
+    // el bitset de descuentos tiene que reflejar la vigencia de ahora: si algun
+    // descuento cruzo su fecha de inicio o fin, se recalculan esas entradas
+    // El nuevo vencimiento se publica recien al terminar el recorrido: mientras
+    // tanto las demas lecturas siguen viendo el vencido y tambien recorren, en vez de
+    // saltearse un refresco que necesitan
+    private void refrescarVencidos(Indices ind) {
+        long ahora = System.currentTimeMillis();
+        long vencimiento = ind.proximoVencimiento.get();
+        if (ahora < vencimiento) {
+            return;
+        }
+        long proximo = Long.MAX_VALUE;
+        for (EntradaCatalogo e : ind.productos.values()) {
+            EntradaCatalogo actual = ahora >= e.recalcularEn ? renovar(ind, e) : e;
+            proximo = Math.min(proximo, actual.recalcularEn);
+        }
+        ind.proximoVencimiento.compareAndSet(vencimiento, proximo);
+    }
+
+    private Page<ProductoDTO> paginar(Indices ind, Iterable<EntradaCatalogo> entradas, long total,
+            Pageable pageable) {
+        List<ProductoDTO> contenido = new ArrayList<>(pageable.getPageSize());
+        long saltear = pageable.getOffset();
+        for (EntradaCatalogo e : entradas) {
+            if (saltear > 0) {
+                saltear--;
+                continue;
+            }
+            if (contenido.size() == pageable.getPageSize()) {
+                break;
+            }
+            contenido.add(vigente(ind, e));
+        }
+        return new PageImpl<>(contenido, pageable, total);
+    }
+
+    // devuelve el DTO, recalculando el descuento si cruzo su fecha de inicio o fin
+    private ProductoDTO vigente(Indices ind, EntradaCatalogo entrada) {
+        if (System.currentTimeMillis() < entrada.recalcularEn) {
+            return entrada.dto;
+        }
+        EntradaCatalogo nueva = renovar(ind, entrada);
+        ind.anotarVencimiento(nueva.recalcularEn);
+        return nueva.dto;
+    }
+
+    // recalcula la entrada y la reemplaza en los indices (sin anotar su vencimiento)
+    private EntradaCatalogo renovar(Indices ind, EntradaCatalogo entrada) {
+        EntradaCatalogo nueva = crearEntrada(entrada.dto, entrada.descuento);
+        if (ind.productos.replace(nueva.dto.getId(), entrada, nueva)) {
+            ind.sincronizarFacetas(nueva.dto.getId());
+        }
+        return nueva;
+    }
+
+    // si llegan muchas lecturas con el catalogo sin cargar, solo la primera lo carga:
+    // las demas esperan el lock y lo encuentran listo
+    private Indices indicesCargados() {
+        if (!cargado) {
+            synchronized (escritura) {
+                if (!cargado) {
+                    recargar();
+                }
+            }
+        }
+        return indices;
+    }
+
+    // ACTUALIZACION
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void cargarAlIniciar() {
+        try {
+            recargar();
+        } catch (RuntimeException e) {
+            // se reintenta en la primera lectura
+            logger.error("No se pudo cargar el catalogo al iniciar: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void recargar() {
+        synchronized (escritura) {
+            Indices nuevos = lectura.execute(status -> {
+                Indices ind = new Indices();
+                List<ProductoVista> disponibles = productoRepository.findVistasDisponiblesParaCatalogo();
+                for (int i = 0; i < disponibles.size(); i += TAMANIO_LOTE) {
+                    mapear(disponibles.subList(i, Math.min(i + TAMANIO_LOTE, disponibles.size())))
+                            .forEach(ind::agregar);
+                }
+                return ind;
+            });
+            indices = nuevos;
+            cargado = true;
+            logger.info("Catalogo cargado en memoria: {} productos disponibles", nuevos.productos.size());
+            eventPublisher.publishEvent(CatalogoActualizadoEvent.completo(
+                    nuevos.productos.values().stream().map(e -> e.dto).toList()));
+        }
+    }
+
+    @Override
+    public void actualizarProductos(Collection<Long> productosIds) {
+        if (productosIds == null || productosIds.isEmpty()) {
+            return;
+        }
+        synchronized (escritura) {
+            if (!cargado) {
+                // la proxima carga completa ya va a leer estos cambios
+                return;
+            }
+            List<Long> ids = new ArrayList<>(productosIds);
+            Map<Long, EntradaCatalogo> leidos = lectura.execute(status -> {
+                Map<Long, EntradaCatalogo> resultado = new HashMap<>();
+                for (int i = 0; i < ids.size(); i += TAMANIO_LOTE) {
+                    List<ProductoVista> productos = productoRepository
+                            .findVistasByIdIn(ids.subList(i, Math.min(i + TAMANIO_LOTE, ids.size())));
+                    for (EntradaCatalogo e : mapear(productos)) {
+                        resultado.put(e.dto.getId(), e);
+                    }
+                }
+                return resultado;
+            });
+
+            Indices ind = indices;
+            List<ProductoDTO> agregados = new ArrayList<>();
+            List<Long> quitados = new ArrayList<>();
+            for (Long id : ids) {
+                EntradaCatalogo entrada = leidos.get(id);
+                if (entrada != null && entrada.dto.getStock() != null && entrada.dto.getStock() > 0) {
+                    ind.agregar(entrada);
+                    agregados.add(entrada.dto);
+                } else {
+                    ind.quitar(id);
+                    quitados.add(id);
+                }
+            }
+            logger.debug("Catalogo actualizado para productos {}", ids);
+            eventPublisher.publishEvent(CatalogoActualizadoEvent.parcial(agregados, quitados));
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        event.getProductosIds().stream().filter(Objects::nonNull).forEach(pendientes::add);
+        programar(0);
+    }
+
+    @PreDestroy
+    void detener() {
+        escritor.shutdownNow();
+    }
+
+    private void programar(long demoraMs) {
+        if (programado.compareAndSet(false, true)) {
+            escritor.schedule(this::aplicarPendientes, demoraMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    // en el hilo escritor. Lo que llega mientras se aplica queda para la pasada
+    // siguiente (programado ya se libero)
+    private void aplicarPendientes() {
+        programado.set(false);
+        List<Long> ids = new ArrayList<>();
+        for (Iterator<Long> it = pendientes.iterator(); it.hasNext();) {
+            ids.add(it.next());
+            it.remove();
+        }
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            actualizarProductos(ids);
+        } catch (RuntimeException e) {
+            // el cambio ya esta confirmado en la base: se vuelve a leer mas tarde
+            logger.error("Error actualizando el catalogo para {} productos, se reintenta en {} ms: {}", ids.size(),
+                    REINTENTO_MS, e.getMessage(), e);
+            pendientes.addAll(ids);
+            programar(REINTENTO_MS);
+        }
+    }
+
+    // mapea un lote de filas proyectadas resolviendo descuentos e imagenes
+    // principales con una consulta por lote
+    private List<EntradaCatalogo> mapear(List<ProductoVista> productos) {
+        if (productos.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = productos.stream().map(ProductoVista::getId).toList();
+        Map<Long, DescuentoProductoDTO> descuentos = descuentoProductoService.obtenerPorProductos(ids);
+
+        // la principal si esta marcada, si no la primera en orden de visualizacion
+        Map<Long, ImagenProductoDTO> principales = new HashMap<>();
+        for (ImagenProductoDTO img : imagenProductoRepository.findDTOsByProductoIdIn(ids)) {
+            if (Boolean.TRUE.equals(img.getEsPrincipal())) {
+                principales.put(img.getProductoId(), img);
+            } else {
+                principales.putIfAbsent(img.getProductoId(), img);
+            }
+        }
+
+        List<EntradaCatalogo> entradas = new ArrayList<>(productos.size());
+        for (ProductoVista v : productos) {
+            ProductoDTO dto = mapperProducto.toDTOCatalogo(v, principales.get(v.getId()));
+            entradas.add(crearEntrada(dto, descuentos.get(v.getId())));
+        }
+        return entradas;
+    }
+
+    private EntradaCatalogo crearEntrada(ProductoDTO base, DescuentoProductoDTO descuento) {
+        ProductoDTO dto = base.toBuilder().build();
+        mapperProducto.aplicarDescuento(dto, descuento);
+        long proximoCambio = descuento != null ? descuento.proximoCambio(System.currentTimeMillis()) : Long.MAX_VALUE;
+        return new EntradaCatalogo(dto, descuento, proximoCambio);
+    }
+}
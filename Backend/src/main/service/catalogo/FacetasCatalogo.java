@@ -0,0 +1,370 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+
+/**
+ * Filtros y conteos del catalogo con bitsets. Cada producto tiene un ordinal (su
+ * posicion en los bitsets) y cada valor filtrable un bitset con los ordinales que lo
+ * tienen: por categoria, por vendedor, por rango de precio y con descuento vigente.
+ * Combinar filtros es un AND entre bitsets y contar una faceta es la cardinalidad
+ * de un AND, 64 productos por operacion.
+ *
+ * Los ordinales siguen el orden de los ids, asi que recorrer un bitset ya da los
+ * productos ordenados por id. Un producto quitado (por ejemplo, sin stock) conserva
+ * su ordinal para volver al mismo lugar; si llega un id menor que el ultimo, o los
+ * ordinales reservados pasan a ser mayoria, se renumera todo en orden de id.
+ *
+ * Cada consulta resuelve los ids de su pagina con el mismo read lock con el que
+ * filtra: un ordinal no puede pasar a otro producto en el medio.
+ */
+class FacetasCatalogo {
+
+    // limites inferiores de los rangos de precio; el ultimo no tiene tope
+    static final double[] LIMITES_PRECIO = { 0, 1_000, 5_000, 10_000, 50_000, 100_000 };
+
+    // con menos ordinales reservados que esto no se renumera
+    private static final int MIN_RESERVADOS_PARA_RENUMERAR = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final Map<Long, Integer> ordinales = new HashMap<>();
+    private final List<Fila> filas = new ArrayList<>();
+    // ordinales de productos quitados, guardados para su id
+    private int reservados;
+
+    private final BitSet vivos = new BitSet();
+    private final BitSet conDescuento = new BitSet();
+    private final Map<Long, BitSet> porCategoria = new HashMap<>();
+    private final Map<Long, BitSet> porVendedor = new HashMap<>();
+    private final BitSet[] porRango = new BitSet[LIMITES_PRECIO.length];
+    private final Map<Long, String> nombresCategoria = new HashMap<>();
+
+    // lo indexado de cada ordinal, para poder sacarlo de sus bitsets (o volver a
+    // ponerlo al renumerar)
+    private static final class Fila {
+        final Long id;
+        final Long categoriaId;
+        final Long vendedorId;
+        final double precio;
+        final int rango;
+        final boolean descuento;
+
+        Fila(ProductoDTO dto) {
+            this.id = dto.getId();
+            this.categoriaId = dto.getCategoriaId();
+            this.vendedorId = dto.getVendedorId();
+            this.precio = dto.getPrecio() != null ? dto.getPrecio() : 0;
+            this.rango = rango(precio);
+            this.descuento = Boolean.TRUE.equals(dto.getTieneDescuento());
+        }
+    }
+
+    // total que pasa los filtros, ids de la pagina pedida y conteos de cada faceta.
+    // Cada faceta se cuenta con todos los filtros menos el suyo, para mostrar cuantos
+    // habria al cambiarlo
+    static final class Resultado {
+        final long total;
+        final List<Long> pagina;
+        final Map<Long, Long> porCategoria = new LinkedHashMap<>();
+        final long[] porRango = new long[LIMITES_PRECIO.length];
+        long conDescuento;
+        long sinDescuento;
+
+        Resultado(long total, List<Long> pagina) {
+            this.total = total;
+            this.pagina = pagina;
+        }
+    }
+
+    FacetasCatalogo() {
+        for (int i = 0; i < porRango.length; i++) {
+            porRango[i] = new BitSet();
+        }
+    }
+
+    // ACTUALIZACION
+
+    // deja el producto como esta ahora en el catalogo (null = ya no esta). El valor
+    // se lee con el lock tomado: si dos hilos actualizan el mismo producto, el ultimo
+    // en entrar ve la version mas nueva
+    void sincronizar(Long id, Supplier<ProductoDTO> actual) {
+        lock.writeLock().lock();
+        try {
+            ProductoDTO dto = actual.get();
+            if (dto != null) {
+                agregar(dto);
+            } else {
+                quitar(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // agrega el producto o, si ya estaba (o tiene su ordinal reservado), actualiza
+    // sus bitsets
+    private void agregar(ProductoDTO dto) {
+        Fila fila = new Fila(dto);
+        if (fila.categoriaId != null && dto.getCategoriaNombre() != null) {
+            nombresCategoria.put(fila.categoriaId, dto.getCategoriaNombre());
+        }
+
+        Integer ordinal = ordinales.get(fila.id);
+        if (ordinal != null) {
+            if (vivos.get(ordinal)) {
+                sacarDeBitsets(ordinal);
+            } else {
+                reservados--;
+            }
+            colocar(ordinal, fila);
+            return;
+        }
+
+        boolean enOrden = filas.isEmpty() || fila.id > filas.get(filas.size() - 1).id;
+        ordinal = filas.size();
+        filas.add(fila);
+        ordinales.put(fila.id, ordinal);
+        colocar(ordinal, fila);
+        if (!enOrden) {
+            renumerar();
+        }
+    }
+
+    // el ordinal queda reservado para el mismo id
+    private void quitar(Long id) {
+        Integer ordinal = ordinales.get(id);
+        if (ordinal == null || !vivos.get(ordinal)) {
+            return;
+        }
+        sacarDeBitsets(ordinal);
+        reservados++;
+        if (reservados > MIN_RESERVADOS_PARA_RENUMERAR && reservados * 2 > filas.size()) {
+            renumerar();
+        }
+    }
+
+    private void colocar(int ordinal, Fila fila) {
+        filas.set(ordinal, fila);
+        vivos.set(ordinal);
+        conDescuento.set(ordinal, fila.descuento);
+        porRango[fila.rango].set(ordinal);
+        if (fila.categoriaId != null) {
+            porCategoria.computeIfAbsent(fila.categoriaId, k -> new BitSet()).set(ordinal);
+        }
+        if (fila.vendedorId != null) {
+            porVendedor.computeIfAbsent(fila.vendedorId, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    // vuelve a asignar los ordinales de los productos presentes en orden de id y
+    // libera los reservados
+    private void renumerar() {
+        List<Fila> presentes = new ArrayList<>(filas.size() - reservados);
+        for (int i = vivos.nextSetBit(0); i >= 0; i = vivos.nextSetBit(i + 1)) {
+            presentes.add(filas.get(i));
+        }
+        presentes.sort(Comparator.comparing((Fila f) -> f.id));
+
+        ordinales.clear();
+        filas.clear();
+        reservados = 0;
+        vivos.clear();
+        conDescuento.clear();
+        porCategoria.clear();
+        porVendedor.clear();
+        for (BitSet b : porRango) {
+            b.clear();
+        }
+        for (Fila f : presentes) {
+            int ordinal = filas.size();
+            filas.add(f);
+            ordinales.put(f.id, ordinal);
+            colocar(ordinal, f);
+        }
+    }
+
+    private void sacarDeBitsets(int ordinal) {
+        Fila fila = filas.get(ordinal);
+        vivos.clear(ordinal);
+        conDescuento.clear(ordinal);
+        porRango[fila.rango].clear(ordinal);
+        quitarDe(porCategoria, fila.categoriaId, ordinal);
+        quitarDe(porVendedor, fila.vendedorId, ordinal);
+    }
+
+    private void quitarDe(Map<Long, BitSet> bitsets, Long clave, int ordinal) {
+        if (clave == null) {
+            return;
+        }
+        BitSet b = bitsets.get(clave);
+        if (b != null) {
+            b.clear(ordinal);
+            if (b.isEmpty()) {
+                bitsets.remove(clave);
+            }
+        }
+    }
+
+    // CONSULTA
+
+    // ids (null = sin filtro de texto) y el resto de los filtros (null = sin filtro).
+    // La pagina sale en el orden de ids si hay texto (relevancia), si no por id
+    Resultado filtrar(List<Long> ids, Long categoriaId, Double precioMin, Double precioMax, Long vendedorId,
+            Boolean descuento, long desde, int cantidad) {
+        lock.readLock().lock();
+        try {
+            BitSet base = (BitSet) vivos.clone();
+            if (ids != null) {
+                base.and(ordinalesDe(ids));
+            }
+
+            BitSet fCategoria = categoriaId != null ? porCategoria.getOrDefault(categoriaId, new BitSet()) : null;
+            BitSet fVendedor = vendedorId != null ? porVendedor.getOrDefault(vendedorId, new BitSet()) : null;
+            BitSet fDescuento = null;
+            if (descuento != null) {
+                fDescuento = (BitSet) conDescuento.clone();
+                if (!descuento) {
+                    BitSet sin = (BitSet) vivos.clone();
+                    sin.andNot(conDescuento);
+                    fDescuento = sin;
+                }
+            }
+            // el precio es continuo: se revisa producto por producto, solo sobre los
+            // que ya pasaron el texto
+            BitSet fPrecio = null;
+            if (precioMin != null || precioMax != null) {
+                fPrecio = new BitSet();
+                for (int i = base.nextSetBit(0); i >= 0; i = base.nextSetBit(i + 1)) {
+                    double precio = filas.get(i).precio;
+                    if ((precioMin == null || precio >= precioMin) && (precioMax == null || precio <= precioMax)) {
+                        fPrecio.set(i);
+                    }
+                }
+            }
+
+            BitSet seleccion = interseccion(base, fCategoria, fVendedor, fDescuento, fPrecio);
+            Resultado r = new Resultado(seleccion.cardinality(), ids != null
+                    ? paginaEnOrden(ids, seleccion, desde, cantidad)
+                    : pagina(seleccion, desde, cantidad));
+
+            BitSet sinCategoria = interseccion(base, fVendedor, fDescuento, fPrecio);
+            for (Map.Entry<Long, BitSet> c : porCategoria.entrySet()) {
+                long cantidad = contar(sinCategoria, c.getValue());
+                if (cantidad > 0) {
+                    r.porCategoria.put(c.getKey(), cantidad);
+                }
+            }
+
+            BitSet sinPrecio = interseccion(base, fCategoria, fVendedor, fDescuento);
+            for (int i = 0; i < porRango.length; i++) {
+                r.porRango[i] = contar(sinPrecio, porRango[i]);
+            }
+
+            BitSet sinDescuento = interseccion(base, fCategoria, fVendedor, fPrecio);
+            r.conDescuento = contar(sinDescuento, conDescuento);
+            r.sinDescuento = sinDescuento.cardinality() - r.conDescuento;
+            return r;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    String nombreCategoria(Long categoriaId) {
+        lock.readLock().lock();
+        try {
+            return nombresCategoria.get(categoriaId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // los ordinales ya estan en orden de id
+    private List<Long> pagina(BitSet seleccion, long desde, int cantidad) {
+        List<Long> pagina = new ArrayList<>(cantidad);
+        long saltear = desde;
+        for (int i = seleccion.nextSetBit(0); i >= 0 && pagina.size() < cantidad; i = seleccion.nextSetBit(i + 1)) {
+            if (saltear > 0) {
+                saltear--;
+            } else {
+                pagina.add(filas.get(i).id);
+            }
+        }
+        return pagina;
+    }
+
+    // en el orden en que vienen los ids
+    private List<Long> paginaEnOrden(List<Long> ids, BitSet seleccion, long desde, int cantidad) {
+        List<Long> pagina = new ArrayList<>(cantidad);
+        long saltear = desde;
+        for (Long id : ids) {
+            if (pagina.size() == cantidad) {
+                break;
+            }
+            Integer ordinal = ordinales.get(id);
+            if (ordinal == null || !seleccion.get(ordinal)) {
+                continue;
+            }
+            if (saltear > 0) {
+                saltear--;
+            } else {
+                pagina.add(id);
+            }
+        }
+        return pagina;
+    }
+
+    private BitSet ordinalesDe(List<Long> ids) {
+        BitSet b = new BitSet();
+        for (Long id : ids) {
+            Integer ordinal = ordinales.get(id);
+            if (ordinal != null) {
+                b.set(ordinal);
+            }
+        }
+        return b;
+    }
+
+    private static BitSet interseccion(BitSet base, BitSet... filtros) {
+        BitSet r = (BitSet) base.clone();
+        for (BitSet f : filtros) {
+            if (f != null) {
+                r.and(f);
+            }
+        }
+        return r;
+    }
+
+    private static long contar(BitSet a, BitSet b) {
+        BitSet r = (BitSet) a.clone();
+        r.and(b);
+        return r.cardinality();
+    }
+
+    static int rango(double precio) {
+        int r = 0;
+        while (r + 1 < LIMITES_PRECIO.length && precio >= LIMITES_PRECIO[r + 1]) {
+            r++;
+        }
+        return r;
+    }
+
+    static String nombreRango(int rango) {
+        return rango + 1 < LIMITES_PRECIO.length
+                ? formatear(LIMITES_PRECIO[rango]) + "-" + formatear(LIMITES_PRECIO[rango + 1])
+                : formatear(LIMITES_PRECIO[rango]) + "+";
+    }
+
+    private static String formatear(double limite) {
+        return String.valueOf((long) limite);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.Getter;
+
+// Evento que se publica cuando cambia algo que se ve en el catalogo publico de
+// uno o mas productos (datos, stock, descuento, imagenes, categoria o vendedor)
+@Getter
+public class ProductosModificadosEvent {
+
+    private final Set<Long> productosIds;
+
+    public ProductosModificadosEvent(Collection<Long> productosIds) {
+        this.productosIds = productosIds == null ? Set.of()
+                : productosIds.stream().filter(Objects::nonNull).collect(Collectors.toUnmodifiableSet());
+    }
+
+    public static ProductosModificadosEvent de(Long... productosIds) {
+        return new ProductosModificadosEvent(Arrays.asList(productosIds));
+    }
+}
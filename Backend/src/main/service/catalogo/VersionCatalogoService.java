@@ -0,0 +1,18 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+// Version de lo que se muestra en el catalogo publico, para responder GET
+// condicionales (ETag / Last-Modified). Las versiones son instantes en ms que solo
+// crecen, asi que sirven tambien como fecha de ultima modificacion
+public interface VersionCatalogoService {
+
+    // @Order del avance de version en AFTER_COMPLETION: los listeners que invalidan
+    // caches en esa misma fase tienen que ir antes (un valor menor)
+    int ORDEN_AVANCE = 100;
+
+    // cambia con cualquier escritura que afecte algun listado (productos, stock,
+    // descuentos, imagenes, categorias, vendedores)
+    long versionCatalogo();
+
+    // cambia solo con las escrituras que afectan a ese producto
+    long versionProducto(Long productoId);
+}
@@ -0,0 +1,66 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Versiones en memoria. Arrancan en el instante de inicio de la aplicacion, asi
+ * que un ETag emitido antes de un reinicio nunca coincide con uno nuevo.
+ *
+ * La version se avanza en AFTER_COMPLETION: despues de que todos los listeners
+ * AFTER_COMMIT (cache de productos) ya aplicaron el cambio. Si se avanzara antes,
+ * una lectura en el medio podria guardar datos viejos bajo la version nueva. Por
+ * lo mismo, dentro de AFTER_COMPLETION va despues de las invalidaciones de esa
+ * fase (ORDEN_AVANCE). Tambien se avanza si la transaccion se revierte: solo
+ * cuesta una revalidacion de mas.
+ *
+ * El catalogo en memoria y el precio efectivo se actualizan en sus propios hilos,
+ * despues de ese avance: la version del catalogo vuelve a avanzar cuando el
+ * catalogo publica lo que aplico, asi lo que se leyo en el medio no queda con la
+ * version vigente.
+ */
+@Service
+public class VersionCatalogoServiceImpl implements VersionCatalogoService {
+
+    private final long inicio = System.currentTimeMillis();
+    private final AtomicLong catalogo = new AtomicLong(inicio);
+    // solo los productos modificados desde el inicio; el resto tiene version 'inicio'
+    private final ConcurrentHashMap<Long, Long> productos = new ConcurrentHashMap<>();
+
+    @Override
+    public long versionCatalogo() {
+        return catalogo.get();
+    }
+
+    @Override
+    public long versionProducto(Long productoId) {
+        return productos.getOrDefault(productoId, inicio);
+    }
+
+    @Order(ORDEN_AVANCE)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        long version = avanzar();
+        for (Long id : event.getProductosIds()) {
+            productos.merge(id, version, Math::max);
+        }
+    }
+
+    // el catalogo en memoria aplico una carga completa o productos modificados
+    @EventListener
+    public void onCatalogoActualizado(CatalogoActualizadoEvent event) {
+        avanzar();
+    }
+
+    // el instante actual, o uno mas que la anterior si el reloj no avanzo
+    private long avanzar() {
+        return catalogo.accumulateAndGet(System.currentTimeMillis(),
+                (anterior, ahora) -> Math.max(anterior + 1, ahora));
+    }
+}
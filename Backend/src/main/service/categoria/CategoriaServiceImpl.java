@@ -3,6 +3,7 @@ package com.example.uade.tpo.ecommerce_grupo10.service.categoria;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -10,18 +11,35 @@ import org.springframework.stereotype.Service;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
 
 @Service
 public class CategoriaServiceImpl implements CategoriaService {
 
     @Autowired
     CategoriaRepository categoriaRepository;
+
+    @Autowired
+    ProductoRepository productoRepository;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    private static final long CACHE_TTL_MS = 10 * 60 * 1000;
+    private static final String TODAS = "todas";
+
+    // las categorias son pocas y cambian muy poco: se cachea la lista completa y se
+    // invalida en cada escritura. Se guardan y devuelven copias (sin productos) para
+    // que nadie modifique lo cacheado
+    private final CacheConVencimiento<String, List<Categoria>> cache = new CacheConVencimiento<>(CACHE_TTL_MS, 2);
     
     // METODOS DE LECTURA
 
     @Override
     public List<Categoria> listarTodas() {
-        return categoriaRepository.findAll();
+        return todas().stream().map(CategoriaServiceImpl::copia).toList();
     }
 
     @Override
@@ -31,9 +49,29 @@ public class CategoriaServiceImpl implements CategoriaService {
 
     @Override
     public Categoria obtenerPorId(Long id) {
+        return todas().stream()
+                .filter(c -> c.getId().equals(id))
+                .findFirst()
+                .map(CategoriaServiceImpl::copia)
+                .orElseGet(() -> buscar(id)); // recien creada por otra instancia, o inexistente
+    }
+
+    private List<Categoria> todas() {
+        return cache.obtener(TODAS, k -> categoriaRepository.findAll().stream().map(CategoriaServiceImpl::copia).toList(),
+                l -> Long.MAX_VALUE);
+    }
+
+    private Categoria buscar(Long id) {
         return categoriaRepository.findById(id).orElseThrow(() -> new RecursoNoEncontrado("Categoria " + id + " no encontrada"));
     }
 
+    private static Categoria copia(Categoria c) {
+        Categoria copia = new Categoria();
+        copia.setId(c.getId());
+        copia.setNombre(c.getNombre());
+        return copia;
+    }
+
 
     // METODOS DE ESCRITURA
 
@@ -44,26 +82,34 @@ public class CategoriaServiceImpl implements CategoriaService {
             throw new IllegalArgumentException("El nombre de la categoria no puede ser nulo o vacio");
         if (categoriaRepository.existsByNombre(categoria.getNombre()))
             throw new IllegalArgumentException("Ya existe una categoria con el nombre " + categoria.getNombre());
-        return categoriaRepository.save(categoria);
+        Categoria creada = categoriaRepository.save(categoria);
+        cache.invalidarAlConfirmar(TODAS);
+        return creada;
     }
 
     @Override
     public Categoria actualizar(Long id, Categoria categoria) {
-        Categoria existente = obtenerPorId(id);
+        Categoria existente = buscar(id);
 
         // validamos
         if (categoria.getNombre() != null && !categoria.getNombre().isBlank() && !categoria.getNombre().equals(existente.getNombre())) {
             if (categoriaRepository.existsByNombre(categoria.getNombre()))
                 throw new IllegalArgumentException("Ya existe una categoria con el nombre " + categoria.getNombre());
             existente.setNombre(categoria.getNombre());
+            Categoria guardada = categoriaRepository.save(existente);
+            cache.invalidarAlConfirmar(TODAS);
+            // el nombre de la categoria se muestra en el catalogo publico
+            eventPublisher.publishEvent(new ProductosModificadosEvent(productoRepository.findIdsByCategoriaId(id)));
+            return guardada;
         }
         return categoriaRepository.save(existente);
     }
 
     @Override
     public void eliminar(Long id) {
-        Categoria existente = obtenerPorId(id);
+        Categoria existente = buscar(id);
         categoriaRepository.delete(existente);
+        cache.invalidarAlConfirmar(TODAS);
     }
 
     // METODO UTIL
@@ -3,65 +3,90 @@ package com.example.uade.tpo.ecommerce_grupo10.service.checkout;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.DescuentoProducto;
 import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
-import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.CarritoDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemCarritoDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
-import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperOrden;
+import com.example.uade.tpo.ecommerce_grupo10.entity.cart.Carrito;
+import com.example.uade.tpo.ecommerce_grupo10.entity.cart.ItemCarrito;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemCarritoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.LineaVenta;
 import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
-import com.example.uade.tpo.ecommerce_grupo10.service.carrito.CarritoService;
-import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.reserva.ReservaStockService;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.ResumenVentasService;
 
 import lombok.RequiredArgsConstructor;
 
+/**
+ * Checkout armado alrededor de una sola lectura: los items del carrito vienen
+ * con su producto, vendedor y descuento en la misma consulta, y esas mismas
+ * entidades se usan para validar stock, calcular descuentos y crear la orden.
+ * La respuesta se arma con lo que ya esta en memoria.
+ *
+ * Lo que el comprador tiene en el carrito ya esta reservado (ver
+ * {@link ReservaStockService}); al confirmar solo se toma lo que falte y las
+ * reservas pasan a ser venta cuando confirma la transaccion.
+ *
+ * El stock se descuenta al final con un UPDATE condicionado (stock >= cantidad)
+ * en vez de leer-restar-guardar: dos checkouts concurrentes del mismo producto
+ * no pueden vender de mas, y el lock de la fila se toma recien en ese momento.
+ */
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class CheckoutServiceImpl implements CheckoutService {
 
-    private final CarritoService carritoService;
+    private final ItemCarritoRepository itemCarritoRepository;
     private final OrdenRepository ordenRepository;
+    private final ProductoRepository productoRepository;
     private final ItemOrdenRepository itemOrdenRepository;
     private final UsuarioRepository usuarioRepository;
-    private final ProductoRepository productoRepository;
     private final MapperOrden mapperOrden;
-    private final DescuentoProductoService descuentoProductoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ReservaStockService reservaStockService;
+    private final ResumenVentasService resumenVentasService;
 
     @Override
     public OrdenDTO realizarCheckout(Long usuarioId) {
-        // Validar que se pueda realizar checkout
-        if (!validarCheckout(usuarioId)) {
-            throw new IllegalStateException("No se puede realizar el checkout");
-        }
+        // Carrito, productos y descuentos en una sola consulta
+        List<ItemCarrito> items = cargarCarrito(usuarioId);
 
-        // Obtener carrito del usuario
-        CarritoDTO carritoDTO = carritoService.obtenerPorUsuario(usuarioId);
-        if (carritoDTO.getItems().isEmpty()) {
-            throw new IllegalArgumentException("El carrito está vacío");
-        }
-
-        // Validar stock de productos
-        validarStock(carritoDTO);
+        // Confirmar las reservas (chequeo previo, la garantia la da descontarStock)
+        Map<Long, Integer> cantidades = cantidadesPorProducto(items);
+        confirmarReservas(usuarioId, items, cantidades);
 
         // Crear la orden
-        Orden orden = crearOrdenDesdeCarrito(usuarioId, carritoDTO);
+        Orden orden = crearOrdenDesdeCarrito(items);
 
         // Vaciar el carrito
-        carritoService.vaciar(usuarioId);
+        Carrito carrito = items.get(0).getCarrito();
+        itemCarritoRepository.eliminarPorCarritoId(carrito.getId());
+        carrito.setItems(new ArrayList<>());
+
+        // Descontar stock: ultimo paso antes del commit para tener los locks lo menos posible
+        descontarStock(items, cantidades);
+
+        // El stock cambio: el catalogo publico se actualiza cuando confirma la transaccion
+        eventPublisher.publishEvent(new ProductosModificadosEvent(cantidades.keySet()));
+
+        // La venta se suma al resumen de ventas cuando confirma la transaccion
+        resumenVentasService.registrar(lineasVenta(orden), 1);
 
         // Retornar la orden creada
         return mapperOrden.toDTO(orden);
@@ -71,74 +96,70 @@ public class CheckoutServiceImpl implements CheckoutService {
     @Transactional(readOnly = true)
     public boolean validarCheckout(Long usuarioId) {
         try {
-            // Verificar que el usuario existe
-            if (!usuarioRepository.existsById(usuarioId)) {
-                return false;
-            }
-
-            // Verificar que tiene carrito y items
-            CarritoDTO carrito = carritoService.obtenerPorUsuario(usuarioId);
-            if (carrito.getItems().isEmpty()) {
-                return false;
-            }
-
-            // Verificar stock disponible
-            for (ItemCarritoDTO item : carrito.getItems()) {
-                Producto producto = productoRepository.findById(item.getProductoId())
-                        .orElse(null);
-                if (producto == null || producto.getStock() < item.getCantidad()) {
-                    return false;
-                }
-            }
-
-            return true;
-        } catch (Exception e) {
+            List<ItemCarrito> items = cargarCarrito(usuarioId);
+            // alcanza con lo reservado por el usuario mas lo que nadie reservo
+            return cantidadesPorProducto(items).entrySet().stream()
+                    .allMatch(e -> reservaStockService.reservado(usuarioId, e.getKey())
+                            + reservaStockService.disponible(e.getKey()) >= e.getValue());
+        } catch (RuntimeException e) {
             return false;
         }
     }
 
-    private void validarStock(CarritoDTO carrito) {
-        List<String> errores = new ArrayList<>();
-
-        for (ItemCarritoDTO item : carrito.getItems()) {
-            Producto producto = productoRepository.findById(item.getProductoId())
-                    .orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado: " + item.getProductoId()));
-
-            if (producto.getStock() < item.getCantidad()) {
-                errores.add(String.format("Stock insuficiente para %s. Disponible: %d, Solicitado: %d",
-                        producto.getTitulo(), producto.getStock(), item.getCantidad()));
+    // items del carrito (con producto y descuento); error si el usuario no existe o
+    // el carrito esta vacio
+    private List<ItemCarrito> cargarCarrito(Long usuarioId) {
+        List<ItemCarrito> items = itemCarritoRepository.findParaCheckoutByUsuarioId(usuarioId);
+        if (items.isEmpty()) {
+            // solo se consulta el usuario para distinguir el mensaje de error
+            if (!usuarioRepository.existsById(usuarioId)) {
+                throw new RecursoNoEncontrado("Usuario no encontrado");
             }
+            throw new IllegalArgumentException("El carrito está vacío");
         }
+        return items;
+    }
 
-        if (!errores.isEmpty()) {
-            throw new IllegalArgumentException("Errores de stock: " + String.join(", ", errores));
+    private Map<Long, Integer> cantidadesPorProducto(List<ItemCarrito> items) {
+        Map<Long, Integer> cantidades = new LinkedHashMap<>();
+        for (ItemCarrito item : items) {
+            cantidades.merge(item.getProducto().getId(), item.getCantidad(), Integer::sum);
         }
+        return cantidades;
     }
 
-    private Orden crearOrdenDesdeCarrito(Long usuarioId, CarritoDTO carrito) {
-        // Buscar usuario
-        Usuario usuario = usuarioRepository.findById(usuarioId)
-                .orElseThrow(() -> new RecursoNoEncontrado("Usuario no encontrado"));
+    private void confirmarReservas(Long usuarioId, List<ItemCarrito> items, Map<Long, Integer> cantidades) {
+        List<Long> sinStock = reservaStockService.confirmar(usuarioId, cantidades);
+        if (!sinStock.isEmpty()) {
+            throw new IllegalArgumentException("Stock insuficiente para " + String.join(", ", titulos(items, sinStock)));
+        }
+    }
+
+    private List<String> titulos(List<ItemCarrito> items, List<Long> productosIds) {
+        Map<Long, String> titulos = new LinkedHashMap<>();
+        for (ItemCarrito item : items) {
+            titulos.put(item.getProducto().getId(), item.getProducto().getTitulo());
+        }
+        return productosIds.stream().map(titulos::get).toList();
+    }
 
+    private Orden crearOrdenDesdeCarrito(List<ItemCarrito> items) {
         // Crear orden
         Orden orden = new Orden();
-        orden.setUsuario(usuario);
+        orden.setUsuario(items.get(0).getCarrito().getUsuario());
         orden.setFechaCreacion(LocalDateTime.now());
-        orden.setEstado("PENDIENTE");
-
-        // Guardar orden primero para obtener ID (sin total aún)
-        orden = ordenRepository.save(orden);
+        orden.setEstado("COMPLETADA");
 
         // Variable para calcular el total real con descuentos
         double totalConDescuentos = 0.0;
+        List<ItemOrden> itemsOrden = new ArrayList<>(items.size());
 
         // Crear items de orden
-        for (ItemCarritoDTO itemCarrito : carrito.getItems()) {
-            Producto producto = productoRepository.findById(itemCarrito.getProductoId())
-                    .orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado"));
+        for (ItemCarrito itemCarrito : items) {
+            Producto producto = itemCarrito.getProducto();
 
             // Calcular descuento aplicable
-            double descuentoAplicado = calcularDescuentoAplicable(producto.getId(), itemCarrito.getPrecioUnitario());
+            double descuentoAplicado = calcularDescuentoAplicable(producto, itemCarrito.getPrecioUnitario());
 
             ItemOrden itemOrden = new ItemOrden();
             itemOrden.setOrden(orden);
@@ -147,93 +168,73 @@ public class CheckoutServiceImpl implements CheckoutService {
             itemOrden.setCantidad(itemCarrito.getCantidad());
             itemOrden.setPrecioUnitario(itemCarrito.getPrecioUnitario());
             itemOrden.setDescuentoAplicado(descuentoAplicado);
-
-            itemOrdenRepository.save(itemOrden);
+            itemOrden.setIdVendedor(producto.getVendedor() != null ? producto.getVendedor().getId() : null);
+            itemOrden.setIdCategoria(producto.getCategoria() != null ? producto.getCategoria().getId() : null);
+            itemsOrden.add(itemOrden);
 
             // Calcular subtotal con descuento: (precio - descuento) * cantidad
             double subtotalConDescuento = (itemCarrito.getPrecioUnitario() - descuentoAplicado)
                     * itemCarrito.getCantidad();
             totalConDescuentos += subtotalConDescuento;
-
-            // Actualizar stock del producto
-            producto.setStock(producto.getStock() - itemCarrito.getCantidad());
-            productoRepository.save(producto);
         }
 
-        // Actualizar el total de la orden con descuentos aplicados y cambiar estado a
-        // COMPLETADA
+        // La orden se guarda una sola vez, ya con el total calculado
         orden.setTotal(totalConDescuentos);
-        orden.setEstado("COMPLETADA");
         orden = ordenRepository.save(orden);
+        itemOrdenRepository.saveAll(itemsOrden);
+
+        // la respuesta se arma sin volver a leer la orden
+        orden.setItems(new HashSet<>(itemsOrden));
+        return orden;
+    }
 
-        // Recargar orden con items
-        return ordenRepository.findById(orden.getId())
-                .orElseThrow(() -> new RecursoNoEncontrado("Error al crear orden"));
+    // con el vendedor y la categoria que quedaron guardados en cada item
+    private List<LineaVenta> lineasVenta(Orden orden) {
+        List<LineaVenta> lineas = new ArrayList<>(orden.getItems().size());
+        for (ItemOrden item : orden.getItems()) {
+            lineas.add(new LineaVenta(orden.getId(), orden.getFechaCreacion(), item.getIdProducto(),
+                    item.getIdVendedor(), item.getIdCategoria(), item.getCantidad(),
+                    (item.getPrecioUnitario() - item.getDescuentoAplicado()) * item.getCantidad()));
+        }
+        return lineas;
+    }
+
+    // si algun producto ya no tiene stock suficiente se lanza la excepcion y la
+    // transaccion se revierte completa (orden, items y los descuentos que si se
+    // aplicaron)
+    private void descontarStock(List<ItemCarrito> items, Map<Long, Integer> cantidades) {
+        List<Long> sinStock = new ArrayList<>();
+        productoRepository.descontarStockSiAlcanza(cantidades).forEach((productoId, ok) -> {
+            if (!ok) {
+                sinStock.add(productoId);
+            }
+        });
+
+        if (!sinStock.isEmpty()) {
+            throw new IllegalArgumentException("Stock insuficiente para " + String.join(", ", titulos(items, sinStock)));
+        }
     }
 
     /**
-     * Calcula el descuento aplicable para un producto en una fecha específica
+     * Calcula el descuento aplicable para un producto en la fecha actual
+     *
+     * Se evalua el descuento cargado con el carrito y no la columna descuento_vigente:
+     * esa se recalcula despues del commit (o cuando el hilo de PrecioEfectivoService
+     * llega a la frontera) y puede estar atrasada; solo se usa para listar y ordenar.
      * 
-     * @param productoId     ID del producto
+     * @param producto       Producto (con su descuento ya cargado)
      * @param precioUnitario Precio unitario del producto
      * @return Monto del descuento aplicable
      */
-    private double calcularDescuentoAplicable(Long productoId, double precioUnitario) {
-        try {
-            // Intentar obtener el descuento activo para el producto usando el método que no
-            // lanza excepción
-            Optional<DescuentoProductoDTO> descuentoOpt = descuentoProductoService
-                    .obtenerPorProductoOptional(productoId);
-
-            // Si no hay descuento, retornar 0
-            if (descuentoOpt.isEmpty()) {
-                System.out.println("DEBUG: No hay descuento para producto ID " + productoId);
-                return 0.0;
-            }
-
-            DescuentoProductoDTO descuento = descuentoOpt.get();
-
-            // Verificar si el descuento existe y no es null
-            if (descuento == null) {
-                return 0.0;
-            }
+    private double calcularDescuentoAplicable(Producto producto, double precioUnitario) {
+        DescuentoProducto descuento = producto.getDescuento();
 
-            // Verificar si el descuento está activo
-            if (descuento.getActivo() == null || !descuento.getActivo()) {
-                System.out.println("DEBUG: Descuento inactivo para producto ID " + productoId);
-                return 0.0;
-            }
-
-            // Verificar que el porcentaje de descuento no sea null y sea válido
-            if (descuento.getPorcentajeDescuento() == null || descuento.getPorcentajeDescuento() <= 0) {
-                System.out.println("DEBUG: Porcentaje de descuento inválido para producto ID " + productoId + ": "
-                        + descuento.getPorcentajeDescuento());
-                return 0.0;
-            }
-
-            // Verificar si el descuento está dentro del rango de fechas
-            Date ahora = new Date();
-            if (descuento.getFechaInicio() != null && descuento.getFechaFin() != null) {
-                if (ahora.before(descuento.getFechaInicio()) || ahora.after(descuento.getFechaFin())) {
-                    System.out.println("DEBUG: Descuento fuera del rango de fechas para producto ID " + productoId);
-                    return 0.0;
-                }
-            }
-
-            // Calcular el monto del descuento
-            double porcentaje = descuento.getPorcentajeDescuento();
-            double montoDescuento = precioUnitario * (porcentaje / 100.0);
-
-            System.out.println("DEBUG: Descuento aplicado a producto ID " + productoId + ": " + montoDescuento + " ("
-                    + porcentaje + "%)");
-            return montoDescuento;
-
-        } catch (Exception e) {
-            // Log de cualquier otro error para debugging
-            System.out.println(
-                    "DEBUG: Error inesperado calculando descuento para producto " + productoId + ": " + e.getMessage());
-            e.printStackTrace();
+        // Sin descuento, inactivo, sin porcentaje o fuera de su rango de fechas
+        if (descuento == null || !descuento.vigenteEn(new Date())) {
             return 0.0;
         }
+
+        // Calcular el monto del descuento
+        return precioUnitario * (descuento.getPorcentajeDescuento() / 100.0);
     }
 }
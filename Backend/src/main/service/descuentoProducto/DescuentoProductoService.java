@@ -1,11 +1,14 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 
 public interface DescuentoProductoService {
 
@@ -18,8 +21,14 @@ public interface DescuentoProductoService {
     // Nuevo método que no lanza excepción
     Optional<DescuentoProductoDTO> obtenerPorProductoOptional(Long productoId);
 
+    // Descuentos de varios productos en una sola consulta, indexados por id de producto
+    Map<Long, DescuentoProductoDTO> obtenerPorProductos(Collection<Long> productosIds);
+
     Page<DescuentoProductoDTO> listar(Pageable pageable);
 
+    // sin COUNT: hayMas y, si se pide, un total aproximado cacheado
+    PaginaSinTotalDTO<DescuentoProductoDTO> listarSinTotal(Pageable pageable, boolean totalAproximado);
+
     DescuentoProductoDTO actualizar(Long id, DescuentoProductoDTO dto);
 
     DescuentoProductoDTO activar(Long id);
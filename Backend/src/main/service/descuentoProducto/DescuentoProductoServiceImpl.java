@@ -1,22 +1,35 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.DescuentoProducto;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperDescuentoProducto;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.DescuentoProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.ConteosAproximados;
+import com.example.uade.tpo.ecommerce_grupo10.service.precio.PrecioEfectivoService;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
@@ -29,13 +42,25 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
 
     private static final Logger logger = LoggerFactory.getLogger(DescuentoProductoServiceImpl.class);
 
+    private static final long CACHE_TTL_MAX_MS = 10 * 60 * 1000;
+    private static final int CACHE_MAX = 20_000;
+
     private final DescuentoProductoRepository descuentoProductoRepository;
     private final ProductoRepository productoRepository;
     private final MapperDescuentoProducto mapperDescuentoProducto;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PrecioEfectivoService precioEfectivoService;
+    private final ConteosAproximados conteosAproximados;
 
     @PersistenceContext
     private EntityManager entityManager;
 
+    // descuento de cada producto (vacio = sin descuento). Cada entrada vence en la
+    // proxima frontera de vigencia (fechaInicio o fechaFin) y se invalida en todas
+    // las escrituras, asi nunca se sirve un descuento que ya cambio
+    private final CacheConVencimiento<Long, Optional<DescuentoProductoDTO>> descuentosPorProducto = new CacheConVencimiento<>(
+            CACHE_TTL_MAX_MS, CACHE_MAX);
+
     // crear descuento
     @Override
     public DescuentoProductoDTO crear(Long productoId, DescuentoProductoDTO dto) {
@@ -76,6 +101,8 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         entityManager.clear();
 
         logger.info("Descuento guardado exitosamente con ID: {} para producto ID: {}", guardado.getId(), productoId);
+        invalidarCache(productoId);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
 
         return mapperDescuentoProducto.toDTO(guardado);
     }
@@ -93,8 +120,7 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
     @Override
     @Transactional(readOnly = true)
     public DescuentoProductoDTO obtenerPorProducto(Long productoId) {
-        return descuentoProductoRepository.findByProductoId(productoId)
-                .map(mapperDescuentoProducto::toDTO)
+        return obtenerPorProductoOptional(productoId)
                 .orElseThrow(
                         () -> new RecursoNoEncontrado("El producto id=" + productoId + " no tiene descuento"));
     }
@@ -103,9 +129,51 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
     @Override
     @Transactional(readOnly = true)
     public Optional<DescuentoProductoDTO> obtenerPorProductoOptional(Long productoId) {
-        logger.debug("Consultando descuento para producto ID: {}", productoId);
-        return descuentoProductoRepository.findByProductoId(productoId)
-                .map(mapperDescuentoProducto::toDTO);
+        return descuentosPorProducto.obtener(productoId, id -> {
+            logger.debug("Consultando descuento para producto ID: {}", id);
+            return descuentoProductoRepository.findByProductoId(id).map(mapperDescuentoProducto::toDTO);
+        }, DescuentoProductoServiceImpl::proximaFrontera);
+    }
+
+    // obtener los descuentos de varios productos de una sola vez (clave: id del producto)
+    @Override
+    @Transactional(readOnly = true)
+    public Map<Long, DescuentoProductoDTO> obtenerPorProductos(Collection<Long> productosIds) {
+        Map<Long, DescuentoProductoDTO> descuentos = new HashMap<>();
+        if (productosIds == null || productosIds.isEmpty()) {
+            return descuentos;
+        }
+
+        // primero lo que esta en cache; el resto en una sola consulta
+        List<Long> faltantes = new ArrayList<>();
+        for (Long productoId : productosIds) {
+            Optional<Optional<DescuentoProductoDTO>> cacheado = descuentosPorProducto.buscar(productoId);
+            if (cacheado.isPresent()) {
+                cacheado.get().ifPresent(d -> descuentos.put(productoId, d));
+            } else {
+                faltantes.add(productoId);
+            }
+        }
+        if (faltantes.isEmpty()) {
+            return descuentos;
+        }
+
+        logger.debug("Consultando descuentos para {} productos", faltantes.size());
+        long generacion = descuentosPorProducto.generacion();
+        Map<Long, DescuentoProductoDTO> leidos = new HashMap<>();
+        for (DescuentoProducto d : descuentoProductoRepository.findByProductoIdIn(faltantes)) {
+            DescuentoProductoDTO dto = mapperDescuentoProducto.toDTO(d);
+            if (dto.getProductoId() != null) {
+                leidos.put(dto.getProductoId(), dto);
+            }
+        }
+        for (Long productoId : faltantes) {
+            // los que no tienen descuento tambien se cachean, como vacio
+            Optional<DescuentoProductoDTO> descuento = Optional.ofNullable(leidos.get(productoId));
+            descuentosPorProducto.guardarSiNoCambio(productoId, descuento, proximaFrontera(descuento), generacion);
+        }
+        descuentos.putAll(leidos);
+        return descuentos;
     }
 
     // listar con paginacion
@@ -115,6 +183,16 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         return descuentoProductoRepository.findAll(pageable).map(mapperDescuentoProducto::toDTO);
     }
 
+    // fuera de la transaccion de la clase: la pagina se lee en su propia transaccion
+    // y el COUNT corre despues (ver ConteosAproximados.pagina)
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public PaginaSinTotalDTO<DescuentoProductoDTO> listarSinTotal(Pageable pageable, boolean totalAproximado) {
+        return conteosAproximados.pagina(
+                () -> descuentoProductoRepository.findSliceBy(pageable).map(mapperDescuentoProducto::toDTO),
+                totalAproximado, "descuentos", "todos", descuentoProductoRepository::count);
+    }
+
     // actualizar un descuento
     @Override
     public DescuentoProductoDTO actualizar(Long id, DescuentoProductoDTO dto) {
@@ -126,6 +204,7 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
                 .orElseThrow(() -> new RecursoNoEncontrado("Descuento no encontrado id=" + id));
 
         Producto producto = entity.getProducto();
+        Long productoAnteriorId = producto.getId();
         if (dto.getProductoId() != null && !dto.getProductoId().equals(producto.getId())) {
             producto = productoRepository.findById(dto.getProductoId())
                     .orElseThrow(
@@ -137,6 +216,8 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         DescuentoProducto actualizado = descuentoProductoRepository.save(entity);
         entityManager.flush();
         entityManager.clear();
+        invalidarCache(productoAnteriorId, producto.getId());
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoAnteriorId, producto.getId()));
 
         return mapperDescuentoProducto.toDTO(actualizado);
     }
@@ -146,7 +227,10 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         DescuentoProducto entity = descuentoProductoRepository.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontrado("Descuento no encontrado id=" + id));
         entity.setActivo(true);
-        return mapperDescuentoProducto.toDTO(descuentoProductoRepository.save(entity));
+        DescuentoProductoDTO activado = mapperDescuentoProducto.toDTO(descuentoProductoRepository.save(entity));
+        invalidarCache(activado.getProductoId());
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(activado.getProductoId()));
+        return activado;
     }
 
     @Override
@@ -154,7 +238,10 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         DescuentoProducto entity = descuentoProductoRepository.findById(id)
                 .orElseThrow(() -> new RecursoNoEncontrado("Descuento no encontrado id=" + id));
         entity.setActivo(false);
-        return mapperDescuentoProducto.toDTO(descuentoProductoRepository.save(entity));
+        DescuentoProductoDTO desactivado = mapperDescuentoProducto.toDTO(descuentoProductoRepository.save(entity));
+        invalidarCache(desactivado.getProductoId());
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(desactivado.getProductoId()));
+        return desactivado;
     }
 
     @Override
@@ -173,6 +260,8 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
                 descuento.getPorcentajeDescuento(),
                 descuento.isActivo());
 
+        Long productoId = descuento.getProducto() != null ? descuento.getProducto().getId() : null;
+
         // Romper la relación bidireccional antes de eliminar
         if (descuento.getProducto() != null) {
             Producto producto = descuento.getProducto();
@@ -186,6 +275,8 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         // Eliminar el descuento
         descuentoProductoRepository.delete(descuento);
         entityManager.flush();
+        invalidarCache(productoId);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
 
         logger.info("Descuento con ID {} eliminado exitosamente", id);
     }
@@ -238,6 +329,23 @@ public class DescuentoProductoServiceImpl implements DescuentoProductoService {
         }
     }
 
+    // la cache se invalida ya y otra vez al confirmar la transaccion; el precio
+    // efectivo se recalcula (y se reagenda su proximo cambio) al confirmar
+    private void invalidarCache(Long... productosIds) {
+        for (Long productoId : productosIds) {
+            if (productoId != null) {
+                descuentosPorProducto.invalidarAlConfirmar(productoId);
+            }
+        }
+        precioEfectivoService.recalcular(Arrays.asList(productosIds));
+    }
+
+    // instante en que el descuento cacheado pasa a estar (o deja de estar) vigente
+    private static long proximaFrontera(Optional<DescuentoProductoDTO> descuento) {
+        long ahora = System.currentTimeMillis();
+        return descuento.map(d -> d.proximoCambio(ahora)).orElse(Long.MAX_VALUE);
+    }
+
     // metodo para validar si el descuento es valido en terminos de valores y fechas
     private void validarDTO(DescuentoProductoDTO dto) {
         if (dto.getPorcentajeDescuento() == null || dto.getPorcentajeDescuento() < 0
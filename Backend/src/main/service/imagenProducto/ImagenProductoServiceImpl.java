@@ -3,8 +3,11 @@ package com.example.uade.tpo.ecommerce_grupo10.service.imagenProducto;
 import java.util.List;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.ImagenProducto;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
@@ -13,6 +16,8 @@ import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperImagenPro
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ImagenProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,6 +28,15 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
     private final ImagenProductoRepository imagenRepository;
     private final ProductoRepository productoRepository;
     private final MapperImagenProducto mapperImagenProducto;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private static final long CACHE_TTL_MAX_MS = 5 * 60 * 1000;
+    private static final int CACHE_MAX = 10_000;
+
+    // imagenes de cada producto, en el orden de findByProductoId. Se guardan y
+    // devuelven copias; toda escritura de imagenes publica ProductosModificadosEvent
+    private final CacheConVencimiento<Long, List<ImagenProductoDTO>> imagenesPorProducto = new CacheConVencimiento<>(
+            CACHE_TTL_MAX_MS, CACHE_MAX);
 
     @Override
     @Transactional
@@ -46,16 +60,30 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
         img.setProducto(producto);
 
         ImagenProducto guardada = imagenRepository.save(img);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
         return mapperImagenProducto.toDTO(guardada);
     }
 
     @Override // listar las imagenes por cada producto por su id
     @Transactional(readOnly = true)
     public List<ImagenProductoDTO> listarPorProducto(Long productoId) {
-        return imagenRepository.findByProductoId(productoId)
+        return imagenes(productoId).stream().map(ImagenProductoServiceImpl::copia).toList();
+    }
+
+    private List<ImagenProductoDTO> imagenes(Long productoId) {
+        return imagenesPorProducto.obtener(productoId, k -> imagenRepository.findByProductoId(k)
                 .stream()
                 .map(mapperImagenProducto::toDTO)
-                .toList();
+                .toList(), l -> Long.MAX_VALUE);
+    }
+
+    private static ImagenProductoDTO copia(ImagenProductoDTO img) {
+        return img.toBuilder().build();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        event.getProductosIds().forEach(imagenesPorProducto::invalidar);
     }
 
     @Override // obtener una imagen por su id y el id del producto
@@ -83,6 +111,7 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
         }
 
         img.setUrl(nuevaUrl);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
         return mapperImagenProducto.toDTO(img);
     }
 
@@ -105,6 +134,7 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
                 imagenRepository.save(nuevaPrincipal);
             }
         }
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
     }
 
     // Nuevos métodos implementados
@@ -123,6 +153,7 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
         }
 
         ImagenProducto imagenGuardada = imagenRepository.save(imagen);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
         return mapperImagenProducto.toDTO(imagenGuardada);
     }
 
@@ -137,13 +168,18 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
         imagen.setOrdenVisualizacion(imagenDTO.getOrdenVisualizacion());
 
         ImagenProducto imagenActualizada = imagenRepository.save(imagen);
+        if (imagenActualizada.getProducto() != null) {
+            eventPublisher.publishEvent(ProductosModificadosEvent.de(imagenActualizada.getProducto().getId()));
+        }
         return mapperImagenProducto.toDTO(imagenActualizada);
     }
 
     @Override
     public Optional<ImagenProductoDTO> obtenerImagenPrincipal(Long productoId) {
-        return imagenRepository.findByProductoIdAndEsPrincipalTrue(productoId)
-                .map(mapperImagenProducto::toDTO);
+        return imagenes(productoId).stream()
+                .filter(i -> Boolean.TRUE.equals(i.getEsPrincipal()))
+                .findFirst()
+                .map(ImagenProductoServiceImpl::copia);
     }
 
     @Override
@@ -162,6 +198,7 @@ public class ImagenProductoServiceImpl implements ImagenProductoService {
                 .orElseThrow(() -> new RecursoNoEncontrado("Imagen no encontrada"));
         imagenPrincipal.setEsPrincipal(true);
         imagenRepository.save(imagenPrincipal);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(productoId));
     }
 
     @Override
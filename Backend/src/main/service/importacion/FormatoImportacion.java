@@ -0,0 +1,21 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.importacion;
+
+public enum FormatoImportacion {
+    CSV,
+    NDJSON;
+
+    // el parametro formato tiene prioridad sobre el Content-Type
+    public static FormatoImportacion desde(String formato, String contentType) {
+        String valor = formato != null && !formato.isBlank() ? formato : contentType;
+        if (valor != null) {
+            valor = valor.toLowerCase();
+            if (valor.contains("csv")) {
+                return CSV;
+            }
+            if (valor.contains("ndjson") || valor.contains("x-json-stream") || valor.contains("jsonl")) {
+                return NDJSON;
+            }
+        }
+        throw new IllegalArgumentException("Formato no soportado: se acepta CSV (text/csv) o NDJSON (application/x-ndjson)");
+    }
+}
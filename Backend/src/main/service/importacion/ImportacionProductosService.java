@@ -0,0 +1,21 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.importacion;
+
+import java.io.InputStream;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoImportacionDTO;
+
+/**
+ * Alta masiva de productos desde un CSV o NDJSON. El archivo se lee a medida que
+ * llega y se inserta en transacciones de a lote filas, asi que la memoria no depende
+ * del tamaño del archivo. Las filas invalidas no cortan la importacion: quedan en el
+ * reporte de errores.
+ *
+ * CSV: primera fila con los nombres de columna (titulo, descripcion, precio, stock,
+ * categoriaId o categoria, imagenUrl). NDJSON: un ProductoDTO por linea (categoriaId o
+ * categoriaNombre).
+ */
+public interface ImportacionProductosService {
+
+    // lote null = el configurado en application.importacion.lote
+    ResultadoImportacionDTO importar(InputStream entrada, FormatoImportacion formato, Long vendedorId, Integer lote);
+}
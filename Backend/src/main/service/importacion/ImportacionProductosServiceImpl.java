@@ -0,0 +1,370 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.importacion;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ErrorImportacionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoImportacionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperProducto;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.precio.PrecioEfectivoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.persistence.EntityManager;
+
+@Service
+public class ImportacionProductosServiceImpl implements ImportacionProductosService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportacionProductosServiceImpl.class);
+
+    private static final int LOTE_MAXIMO = 10_000;
+    // el reporte guarda el detalle de hasta MAX_ERRORES filas (el resto solo se cuenta)
+    private static final int MAX_ERRORES = 1000;
+    // una linea de NDJSON mas larga se reporta como error sin acumularla
+    private static final int MAX_LINEA = LectorCsv.MAX_REGISTRO;
+
+    private final ProductoRepository productoRepository;
+    private final CategoriaRepository categoriaRepository;
+    private final UsuarioRepository usuarioRepository;
+    private final MapperProducto mapperProducto;
+    private final PrecioEfectivoService precioEfectivoService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final int loteDefault;
+
+    public ImportacionProductosServiceImpl(ProductoRepository productoRepository,
+            CategoriaRepository categoriaRepository,
+            UsuarioRepository usuarioRepository,
+            MapperProducto mapperProducto,
+            PrecioEfectivoService precioEfectivoService,
+            ApplicationEventPublisher eventPublisher,
+            ObjectMapper objectMapper,
+            EntityManager entityManager,
+            PlatformTransactionManager transactionManager,
+            @Value("${application.importacion.lote:1000}") int loteDefault) {
+        this.productoRepository = productoRepository;
+        this.categoriaRepository = categoriaRepository;
+        this.usuarioRepository = usuarioRepository;
+        this.mapperProducto = mapperProducto;
+        this.precioEfectivoService = precioEfectivoService;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.loteDefault = loteDefault;
+    }
+
+    // fila ya validada, esperando su lote
+    private static final class FilaValida {
+        final long fila;
+        final ProductoDTO dto;
+        final Long categoriaId;
+
+        FilaValida(long fila, ProductoDTO dto, Long categoriaId) {
+            this.fila = fila;
+            this.dto = dto;
+            this.categoriaId = categoriaId;
+        }
+    }
+
+    // estado de una importacion en curso
+    private final class Importacion {
+        final Long vendedorId;
+        final int lote;
+        // categorias validas: por id y por nombre (en minusculas)
+        final Map<Long, Long> categoriasPorId = new HashMap<>();
+        final Map<String, Long> categoriasPorNombre = new HashMap<>();
+        final List<FilaValida> pendientes = new ArrayList<>();
+        final ResultadoImportacionDTO resultado = new ResultadoImportacionDTO();
+
+        Importacion(Long vendedorId, int lote) {
+            this.vendedorId = vendedorId;
+            this.lote = lote;
+            for (Categoria c : categoriaRepository.findAll()) {
+                categoriasPorId.put(c.getId(), c.getId());
+                categoriasPorNombre.put(c.getNombre().trim().toLowerCase(Locale.ROOT), c.getId());
+            }
+        }
+
+        void procesar(long fila, ProductoDTO dto) {
+            resultado.setFilasProcesadas(resultado.getFilasProcesadas() + 1);
+            Long categoriaId = dto.getCategoriaId() != null
+                    ? categoriasPorId.get(dto.getCategoriaId())
+                    : dto.getCategoriaNombre() != null
+                            ? categoriasPorNombre.get(dto.getCategoriaNombre().trim().toLowerCase(Locale.ROOT))
+                            : null;
+            String error = validar(dto, categoriaId);
+            if (error != null) {
+                error(fila, error);
+                return;
+            }
+            pendientes.add(new FilaValida(fila, dto, categoriaId));
+            if (pendientes.size() >= lote) {
+                guardarPendientes();
+            }
+        }
+
+        void error(long fila, String mensaje) {
+            resultado.setFilasConError(resultado.getFilasConError() + 1);
+            if (resultado.getErrores().size() < MAX_ERRORES) {
+                resultado.getErrores().add(new ErrorImportacionDTO(fila, mensaje));
+            }
+        }
+
+        // un lote por transaccion: si falla, se rechazan solo esas filas
+        void guardarPendientes() {
+            if (pendientes.isEmpty()) {
+                return;
+            }
+            try {
+                Integer creados = transactionTemplate.execute(status -> {
+                    var vendedor = usuarioRepository.getReferenceById(vendedorId);
+                    List<Producto> productos = new ArrayList<>(pendientes.size());
+                    for (FilaValida f : pendientes) {
+                        var categoria = categoriaRepository.getReferenceById(f.categoriaId);
+                        productos.add(mapperProducto.toEntity(f.dto, categoria, vendedor));
+                    }
+                    productoRepository.saveAll(productos);
+                    entityManager.flush();
+
+                    List<Long> ids = productos.stream().map(Producto::getId).toList();
+                    precioEfectivoService.recalcular(ids);
+                    eventPublisher.publishEvent(new ProductosModificadosEvent(ids));
+                    return productos.size();
+                });
+                resultado.setProductosCreados(resultado.getProductosCreados() + creados);
+            } catch (RuntimeException e) {
+                logger.warn("Fallo un lote de {} productos importados: {}", pendientes.size(), e.getMessage());
+                for (FilaValida f : pendientes) {
+                    error(f.fila, "No se pudo guardar el lote: " + e.getMessage());
+                }
+            } finally {
+                pendientes.clear();
+                // con open-in-view el EntityManager vive toda la request: se sueltan los
+                // productos ya guardados para que la memoria no crezca con el archivo
+                entityManager.clear();
+            }
+        }
+    }
+
+    @Override
+    public ResultadoImportacionDTO importar(InputStream entrada, FormatoImportacion formato, Long vendedorId,
+            Integer lote) {
+        if (vendedorId == null) {
+            throw new IllegalArgumentException("Usuario no autenticado");
+        }
+        int porLote = lote != null ? lote : loteDefault;
+        if (porLote < 1 || porLote > LOTE_MAXIMO) {
+            throw new IllegalArgumentException("El lote debe estar entre 1 y " + LOTE_MAXIMO);
+        }
+
+        Importacion importacion = new Importacion(vendedorId, porLote);
+        try (BufferedReader lector = new BufferedReader(new InputStreamReader(entrada, StandardCharsets.UTF_8))) {
+            saltearBom(lector);
+            if (formato == FormatoImportacion.CSV) {
+                leerCsv(lector, importacion);
+            } else {
+                leerNdjson(lector, importacion);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error leyendo el archivo a importar", e);
+        }
+        importacion.guardarPendientes();
+
+        ResultadoImportacionDTO resultado = importacion.resultado;
+        logger.info("Importacion del vendedor {}: {} filas, {} productos creados, {} con error", vendedorId,
+                resultado.getFilasProcesadas(), resultado.getProductosCreados(), resultado.getFilasConError());
+        return resultado;
+    }
+
+    private void leerCsv(BufferedReader lector, Importacion importacion) throws IOException {
+        LectorCsv csv = new LectorCsv(lector);
+        List<String> encabezado = csv.siguiente();
+        if (encabezado == null) {
+            return;
+        }
+        Map<String, Integer> columnas = new HashMap<>();
+        for (int i = 0; i < encabezado.size(); i++) {
+            columnas.put(encabezado.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columnas.containsKey("titulo")) {
+            throw new IllegalArgumentException("El CSV debe tener una primera fila con los nombres de columna");
+        }
+
+        long fila = 0;
+        while (true) {
+            List<String> campos;
+            try {
+                campos = csv.siguiente();
+            } catch (IllegalArgumentException e) {
+                // registro demasiado largo: el lector ya lo salteo
+                fila++;
+                importacion.resultado.setFilasProcesadas(importacion.resultado.getFilasProcesadas() + 1);
+                importacion.error(fila, e.getMessage());
+                continue;
+            }
+            if (campos == null) {
+                break;
+            }
+            fila++;
+            ProductoDTO dto;
+            try {
+                dto = ProductoDTO.builder()
+                        .titulo(campo(campos, columnas, "titulo"))
+                        .descripcion(campo(campos, columnas, "descripcion"))
+                        .precio(numero(campo(campos, columnas, "precio"), "precio", Double::valueOf))
+                        .stock(numero(campo(campos, columnas, "stock"), "stock", Integer::valueOf))
+                        .categoriaId(numero(campo(campos, columnas, "categoriaid"), "categoriaId", Long::valueOf))
+                        .categoriaNombre(campo(campos, columnas, "categoria"))
+                        .imagenUrl(campo(campos, columnas, "imagenurl"))
+                        .build();
+            } catch (IllegalArgumentException e) {
+                importacion.resultado.setFilasProcesadas(importacion.resultado.getFilasProcesadas() + 1);
+                importacion.error(fila, e.getMessage());
+                continue;
+            }
+            importacion.procesar(fila, dto);
+        }
+    }
+
+    private void leerNdjson(BufferedReader lector, Importacion importacion) throws IOException {
+        long fila = 0;
+        while (true) {
+            String linea;
+            try {
+                linea = leerLinea(lector);
+            } catch (IllegalArgumentException e) {
+                // linea demasiado larga, ya salteada
+                fila++;
+                importacion.resultado.setFilasProcesadas(importacion.resultado.getFilasProcesadas() + 1);
+                importacion.error(fila, e.getMessage());
+                continue;
+            }
+            if (linea == null) {
+                break;
+            }
+            if (linea.isBlank()) {
+                continue;
+            }
+            fila++;
+            ProductoDTO dto;
+            try {
+                dto = objectMapper.readValue(linea, ProductoDTO.class);
+            } catch (IOException e) {
+                importacion.resultado.setFilasProcesadas(importacion.resultado.getFilasProcesadas() + 1);
+                importacion.error(fila, "JSON invalido: " + e.getOriginalMessage());
+                continue;
+            }
+            importacion.procesar(fila, dto);
+        }
+    }
+
+    // como readLine (fin de linea \n o \r\n, null al final) pero sin acumular mas de
+    // MAX_LINEA caracteres: el resto de una linea mas larga se descarta y se lanza
+    // IllegalArgumentException
+    private static String leerLinea(BufferedReader lector) throws IOException {
+        StringBuilder linea = new StringBuilder();
+        int c = lector.read();
+        if (c == -1) {
+            return null;
+        }
+        while (c != -1 && c != '\n') {
+            if (linea.length() == MAX_LINEA) {
+                while (c != -1 && c != '\n') {
+                    c = lector.read();
+                }
+                throw new IllegalArgumentException("La linea supera los " + MAX_LINEA + " caracteres");
+            }
+            linea.append((char) c);
+            c = lector.read();
+        }
+        int largo = linea.length();
+        if (largo > 0 && linea.charAt(largo - 1) == '\r') {
+            linea.setLength(largo - 1);
+        }
+        return linea.toString();
+    }
+
+    // las mismas restricciones que las columnas de Producto; null = fila valida
+    private String validar(ProductoDTO dto, Long categoriaId) {
+        if (dto.getTitulo() == null || dto.getTitulo().isBlank()) {
+            return "El titulo es obligatorio";
+        }
+        if (dto.getTitulo().length() > 100) {
+            return "El titulo no puede superar los 100 caracteres";
+        }
+        if (dto.getDescripcion() == null || dto.getDescripcion().isBlank()) {
+            return "La descripcion es obligatoria";
+        }
+        if (dto.getDescripcion().length() > 500) {
+            return "La descripcion no puede superar los 500 caracteres";
+        }
+        if (dto.getPrecio() == null || dto.getPrecio() <= 0) {
+            return "El precio debe ser mayor a 0";
+        }
+        if (dto.getStock() == null || dto.getStock() < 0) {
+            return "El stock no puede ser negativo";
+        }
+        if (dto.getImagenUrl() != null && dto.getImagenUrl().length() > 500) {
+            return "La URL de la imagen no puede superar los 500 caracteres";
+        }
+        if (categoriaId == null) {
+            return "Categoria no encontrada";
+        }
+        return null;
+    }
+
+    private String campo(List<String> campos, Map<String, Integer> columnas, String nombre) {
+        Integer i = columnas.get(nombre);
+        if (i == null || i >= campos.size()) {
+            return null;
+        }
+        String valor = campos.get(i).trim();
+        return valor.isEmpty() ? null : valor;
+    }
+
+    private <T> T numero(String valor, String nombre, Function<String, T> conversion) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return conversion.apply(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor invalido para " + nombre + ": " + valor);
+        }
+    }
+
+    // algunos editores guardan el CSV con BOM al principio
+    private void saltearBom(BufferedReader lector) throws IOException {
+        lector.mark(1);
+        if (lector.read() != '\uFEFF') {
+            lector.reset();
+        }
+    }
+}
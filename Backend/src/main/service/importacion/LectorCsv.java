@@ -0,0 +1,115 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.importacion;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lee un CSV registro por registro sin cargar el archivo en memoria. Soporta campos
+ * entre comillas con comas, saltos de linea y comillas dobles ("") adentro, y fin de
+ * linea \n o \r\n.
+ *
+ * Un campo o un registro que pasa de su maximo (por ejemplo, una comilla que no se
+ * cierra nunca) no se sigue acumulando: se saltea hasta el proximo fin de linea y
+ * siguiente() lanza IllegalArgumentException para que se reporte como fila con
+ * error. La lectura sigue con la linea siguiente.
+ */
+class LectorCsv {
+
+    // muy por encima de las columnas de Producto (la validacion reporta los largos)
+    static final int MAX_CAMPO = 10_000;
+    static final int MAX_REGISTRO = 100_000;
+
+    private final Reader entrada;
+    private int siguienteCaracter = -2; // -2 = no leido todavia
+
+    LectorCsv(Reader entrada) {
+        this.entrada = entrada;
+    }
+
+    // proximo registro, o null al final del archivo. Las lineas vacias se saltean
+    List<String> siguiente() throws IOException {
+        while (true) {
+            int c = leer();
+            if (c == -1) {
+                return null;
+            }
+            if (c == '\n') {
+                continue;
+            }
+            if (c == '\r' && mirar() == '\n') {
+                continue;
+            }
+            return leerRegistro(c);
+        }
+    }
+
+    private List<String> leerRegistro(int c) throws IOException {
+        List<String> campos = new ArrayList<>();
+        StringBuilder campo = new StringBuilder();
+        boolean entreComillas = false;
+        int leidos = 0;
+
+        while (c != -1) {
+            if (++leidos > MAX_REGISTRO) {
+                throw demasiadoLargo(c, "La fila supera los " + MAX_REGISTRO + " caracteres");
+            }
+            if (campo.length() > MAX_CAMPO) {
+                throw demasiadoLargo(c, "Un campo supera los " + MAX_CAMPO + " caracteres");
+            }
+            if (entreComillas) {
+                if (c == '"') {
+                    if (mirar() == '"') {
+                        leer();
+                        campo.append('"');
+                    } else {
+                        entreComillas = false;
+                    }
+                } else {
+                    campo.append((char) c);
+                }
+            } else if (c == '"' && campo.length() == 0) {
+                entreComillas = true;
+            } else if (c == ',') {
+                campos.add(campo.toString());
+                campo.setLength(0);
+            } else if (c == '\n') {
+                break;
+            } else if (c == '\r' && mirar() == '\n') {
+                leer();
+                break;
+            } else {
+                campo.append((char) c);
+            }
+            c = leer();
+        }
+        campos.add(campo.toString());
+        return campos;
+    }
+
+    // descarta desde c hasta el proximo fin de linea (sin tener en cuenta comillas) o
+    // el final del archivo
+    private IllegalArgumentException demasiadoLargo(int c, String mensaje) throws IOException {
+        while (c != -1 && c != '\n') {
+            c = leer();
+        }
+        return new IllegalArgumentException(mensaje);
+    }
+
+    private int leer() throws IOException {
+        if (siguienteCaracter != -2) {
+            int c = siguienteCaracter;
+            siguienteCaracter = -2;
+            return c;
+        }
+        return entrada.read();
+    }
+
+    private int mirar() throws IOException {
+        if (siguienteCaracter == -2) {
+            siguienteCaracter = entrada.read();
+        }
+        return siguienteCaracter;
+    }
+}
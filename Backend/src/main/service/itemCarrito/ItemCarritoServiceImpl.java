@@ -7,6 +7,7 @@ import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemCarritoDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperItemCarrito;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ItemCarritoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.reserva.ReservaStockService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -16,6 +17,7 @@ public class ItemCarritoServiceImpl implements ItemCarritoService {
     
     private final ItemCarritoRepository itemCarritoRepository;
     private final MapperItemCarrito mapperItemCarrito;
+    private final ReservaStockService reservaStockService;
 
     @Override
     @Transactional(readOnly = true)
@@ -27,8 +29,9 @@ public class ItemCarritoServiceImpl implements ItemCarritoService {
 
     @Override
     public void eliminar(Long itemId) {
-        if (!itemCarritoRepository.existsById(itemId))
-            throw new RecursoNoEncontrado("ItemCarrito no encontrado");
-        itemCarritoRepository.deleteById(itemId);
+        var it = itemCarritoRepository.findById(itemId)
+            .orElseThrow(() -> new RecursoNoEncontrado("ItemCarrito no encontrado"));
+        reservaStockService.liberar(it.getCarrito().getUsuario().getId(), it.getProducto().getId());
+        itemCarritoRepository.delete(it);
     }
 }
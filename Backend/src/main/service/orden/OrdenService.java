@@ -4,6 +4,8 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 
 public interface OrdenService {
 
@@ -11,6 +13,10 @@ public interface OrdenService {
     OrdenDTO obtenerPorId(Long id);
     Page<OrdenDTO> listar(Pageable pageable);
     Page<OrdenDTO> listarPorUsuario(Long usuarioId, Pageable pageable);
+    PaginaCursorDTO<OrdenDTO> listarPorUsuarioCursor(Long usuarioId, String cursor, int size); // mas recientes primero
+    // sin COUNT: hayMas y, si se pide, un total aproximado cacheado
+    PaginaSinTotalDTO<OrdenDTO> listarSinTotal(Pageable pageable, boolean totalAproximado);
+    PaginaSinTotalDTO<OrdenDTO> listarPorUsuarioSinTotal(Long usuarioId, Pageable pageable, boolean totalAproximado);
     OrdenDTO actualizarEstado(Long id, String nuevoEstado);
     void eliminar(Long id);
     
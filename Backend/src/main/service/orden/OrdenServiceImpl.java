@@ -1,24 +1,43 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.orden;
 
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ItemOrdenDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperItemOrden;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperOrden;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenVista;
+import com.example.uade.tpo.ecommerce_grupo10.repository.LineaVenta;
 import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenVista;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.ConteosAproximados;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.CursorPaginacion;
+import com.example.uade.tpo.ecommerce_grupo10.service.ventas.ResumenVentasService;
 
 import lombok.RequiredArgsConstructor;
 
@@ -30,6 +49,9 @@ public class OrdenServiceImpl implements OrdenService {
     private final UsuarioRepository usuarioRepository;
     private final ItemOrdenRepository itemOrdenRepository;
     private final MapperOrden mapperOrden;
+    private final MapperItemOrden mapperItemOrden;
+    private final ConteosAproximados conteosAproximados;
+    private final ResumenVentasService resumenVentasService;
 
     // Implementación de los métodos del servicio
 
@@ -91,39 +113,132 @@ public class OrdenServiceImpl implements OrdenService {
         return mapperOrden.toDTO(o);
     }
 
+    // LISTADOS E HISTORIAL
+    // Una pagina son dos consultas sin importar su tamanio: las ordenes proyectadas
+    // (OrdenVista) y los items de todas ellas juntos. Las versiones Page suman el
+    // COUNT solo cuando el total no se deduce de la pagina
+
     @Override
     @Transactional(readOnly = true)
     public Page<OrdenDTO> listar(Pageable pageable) {
-        return ordenRepository.findAll(pageable).map(mapperOrden::toDTO);
+        Slice<OrdenVista> slice = ordenRepository.findVistas(pageable);
+        return PageableExecutionUtils.getPage(aDTOs(slice.getContent()), pageable, ordenRepository::count);
     }
 
     @Override
     @Transactional(readOnly = true)
     public Page<OrdenDTO> listarPorUsuario(Long usuarioId, Pageable pageable) {
-        return ordenRepository.findByUsuarioId(usuarioId, pageable).map(mapperOrden::toDTO);
+        Slice<OrdenVista> slice = ordenRepository.findVistasByUsuarioId(usuarioId, pageable);
+        return PageableExecutionUtils.getPage(aDTOs(slice.getContent()), pageable,
+                () -> ordenRepository.countByUsuarioId(usuarioId));
+    }
+
+    // sin @Transactional: la pagina se lee en su propia transaccion y el COUNT corre
+    // despues, fuera de ella (ver ConteosAproximados.pagina)
+    @Override
+    public PaginaSinTotalDTO<OrdenDTO> listarSinTotal(Pageable pageable, boolean totalAproximado) {
+        return conteosAproximados.pagina(() -> aDTOs(ordenRepository.findVistas(pageable)),
+                totalAproximado, "ordenes", "todas", ordenRepository::count);
+    }
+
+    @Override
+    public PaginaSinTotalDTO<OrdenDTO> listarPorUsuarioSinTotal(Long usuarioId, Pageable pageable,
+            boolean totalAproximado) {
+        return conteosAproximados.pagina(() -> aDTOs(ordenRepository.findVistasByUsuarioId(usuarioId, pageable)),
+                totalAproximado, "ordenes-por-usuario", usuarioId, () -> ordenRepository.countByUsuarioId(usuarioId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<OrdenDTO> listarPorUsuarioCursor(Long usuarioId, String cursor, int size) {
+        Pageable limite = PageRequest.of(0, CursorPaginacion.validarTamanio(size));
+        String[] pos = CursorPaginacion.decodificar(cursor, 2);
+
+        Slice<OrdenVista> slice;
+        if (pos == null) {
+            slice = ordenRepository.findVistasRecientesByUsuarioId(usuarioId, limite);
+        } else {
+            try {
+                slice = ordenRepository.findVistasByUsuarioIdAntesDe(usuarioId, LocalDateTime.parse(pos[0]),
+                        Long.parseLong(pos[1]), limite);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor invalido");
+            }
+        }
+
+        String siguiente = null;
+        if (slice.hasNext()) {
+            OrdenVista ultima = slice.getContent().get(slice.getNumberOfElements() - 1);
+            siguiente = CursorPaginacion.codificar(ultima.getFechaCreacion(), ultima.getId());
+        }
+        return PaginaCursorDTO.<OrdenDTO>builder()
+                .contenido(aDTOs(slice.getContent()))
+                .tamanio(slice.getSize())
+                .hayMas(slice.hasNext())
+                .siguienteCursor(siguiente)
+                .build();
+    }
+
+    private Slice<OrdenDTO> aDTOs(Slice<OrdenVista> slice) {
+        return new SliceImpl<>(aDTOs(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
+
+    // los items de todas las ordenes salen de una sola consulta y se reparten en una
+    // pasada; cada orden queda con sus items en orden de id
+    private List<OrdenDTO> aDTOs(List<OrdenVista> ordenes) {
+        if (ordenes.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = ordenes.stream().map(OrdenVista::getId).toList();
+        Map<Long, List<ItemOrdenDTO>> itemsPorOrden = new HashMap<>(ids.size() * 2);
+        for (ItemOrdenVista item : itemOrdenRepository.findVistasByOrdenIdIn(ids)) {
+            itemsPorOrden.computeIfAbsent(item.getOrdenId(), k -> new ArrayList<>())
+                    .add(mapperItemOrden.toDTO(item));
+        }
+        return ordenes.stream()
+                .map(o -> mapperOrden.toDTO(o, itemsPorOrden.get(o.getId())))
+                .toList();
     }
 
     @Override
     @Transactional
     public OrdenDTO actualizarEstado(Long id, String nuevoEstado) {
-        Orden o = ordenRepository.findById(id)
+        // con la fila bloqueada: dos cambios simultaneos no pueden ver el mismo estado
+        // anterior y sumar (o restar) dos veces la orden en el resumen de ventas
+        Orden o = ordenRepository.findByIdParaActualizar(id)
                 .orElseThrow(() -> new RecursoNoEncontrado("Orden no encontrada: " + id));
 
         if (nuevoEstado == null || nuevoEstado.isBlank())
             throw new IllegalArgumentException("El estado no puede ser vacío");
 
+        String anterior = o.getEstado();
         o.setEstado(nuevoEstado.trim().toUpperCase()); // tipo enum
-        return mapperOrden.toDTO(ordenRepository.save(o));
+        OrdenDTO actualizada = mapperOrden.toDTO(ordenRepository.save(o));
+
+        // entra o sale de COMPLETADA: se suma o se resta del resumen de ventas
+        int signo = (ResumenVentasService.ESTADO_VENTA.equals(o.getEstado()) ? 1 : 0)
+                - (ResumenVentasService.ESTADO_VENTA.equals(anterior) ? 1 : 0);
+        if (signo != 0) {
+            resumenVentasService.registrar(resumenVentasService.lineasDeOrden(id), signo);
+        }
+        return actualizada;
     }
 
     @Override
     @Transactional
     public void eliminar(Long id) {
-        try {
-            ordenRepository.deleteById(id);
-        } catch (EmptyResultDataAccessException e) {
+        // con la fila bloqueada, como en actualizarEstado: si era una venta se resta del
+        // resumen de ventas (las lineas se leen antes de borrar la orden)
+        Optional<Orden> orden = ordenRepository.findByIdParaActualizar(id);
+        if (orden.isEmpty()) {
             // id inexistente
             // lo que hace es devolver 204 aunque el recurso no exista
+            return;
         }
+        List<LineaVenta> lineas = ResumenVentasService.ESTADO_VENTA.equals(orden.get().getEstado())
+                ? resumenVentasService.lineasDeOrden(id)
+                : List.of();
+        ordenRepository.delete(orden.get());
+        resumenVentasService.registrar(lineas, -1);
     }
 }
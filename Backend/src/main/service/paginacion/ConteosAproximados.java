@@ -0,0 +1,76 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.paginacion;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CargasCompartidas;
+
+/**
+ * Totales aproximados para los listados sin COUNT: el COUNT de cada filtro (con
+ * sus parametros) se ejecuta una vez y se reusa hasta que vence, en vez de correr
+ * con cada pagina. No se invalida con las escrituras; el atraso maximo es el TTL
+ * (application.paginacion.conteo-aproximado-ttl-segundos).
+ *
+ * Cuando la pagina pedida es la ultima el total se conoce sin consultar nada
+ * (offset + filas) y se devuelve ese, que es exacto.
+ *
+ * El COUNT pasa por una carga compartida: quien espera la de otro no tiene que
+ * tener una conexion tomada. Por eso {@link #pagina} lee las filas en su propia
+ * transaccion de solo lectura y cuenta despues, ya fuera de ella; quien la llama
+ * no tiene que abrir una transaccion.
+ */
+@Service
+public class ConteosAproximados {
+
+    private static final int MAX_CONTEOS = 10_000;
+
+    private final CacheConVencimiento<List<Object>, Long> conteos;
+    private final CargasCompartidas cargasCompartidas;
+    private final TransactionTemplate lectura;
+
+    public ConteosAproximados(
+            @Value("${application.paginacion.conteo-aproximado-ttl-segundos:60}") long ttlSegundos,
+            CargasCompartidas cargasCompartidas, PlatformTransactionManager transactionManager) {
+        this.conteos = new CacheConVencimiento<>(ttlSegundos * 1000, MAX_CONTEOS);
+        this.cargasCompartidas = cargasCompartidas;
+        this.lectura = new TransactionTemplate(transactionManager);
+        this.lectura.setReadOnly(true);
+    }
+
+    // filtro identifica la consulta; clave, sus parametros (sin el Pageable)
+    public long contar(String filtro, Object clave, LongSupplier contar) {
+        return conteos.obtener(Arrays.asList(filtro, clave),
+                k -> cargasCompartidas.obtener("conteo-" + filtro, clave, contar::getAsLong),
+                total -> Long.MAX_VALUE);
+    }
+
+    // arma la respuesta del Slice que devuelve leer (en una transaccion de solo
+    // lectura); contar solo se usa si se pidio el total y la pagina no es la ultima
+    public <T> PaginaSinTotalDTO<T> pagina(Supplier<Slice<T>> leer, boolean conTotal, String filtro, Object clave,
+            LongSupplier contar) {
+        Slice<T> slice = lectura.execute(status -> leer.get());
+        Long total = null;
+        if (conTotal) {
+            long hastaAca = (long) slice.getNumber() * slice.getSize() + slice.getNumberOfElements();
+            // un conteo viejo nunca puede decir menos de lo que ya se ve
+            total = slice.hasNext() ? Math.max(contar(filtro, clave, contar), hastaAca + 1) : hastaAca;
+        }
+        return PaginaSinTotalDTO.<T>builder()
+                .contenido(slice.getContent())
+                .pagina(slice.getNumber())
+                .tamanio(slice.getSize())
+                .hayMas(slice.hasNext())
+                .totalAproximado(total)
+                .build();
+    }
+}
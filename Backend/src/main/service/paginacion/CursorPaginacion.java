@@ -0,0 +1,53 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.paginacion;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Codifica la posicion de la ultima fila devuelta (clave de orden + id) como un
+// string opaco para el cliente
+public final class CursorPaginacion {
+
+    // tamaño de pagina maximo para los listados por cursor
+    public static final int TAMANIO_MAXIMO = 100;
+
+    private static final String VERSION = "v1";
+    private static final String SEPARADOR = "|";
+
+    private CursorPaginacion() {
+    }
+
+    public static String codificar(Object... valores) {
+        StringBuilder sb = new StringBuilder(VERSION);
+        for (Object v : valores) {
+            sb.append(SEPARADOR).append(v);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // devuelve los valores del cursor, o null si no se mando cursor (primera pagina)
+    public static String[] decodificar(String cursor, int cantidadValores) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        String[] partes;
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            partes = texto.split("\\" + SEPARADOR, -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        if (partes.length != cantidadValores + 1 || !VERSION.equals(partes[0])) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+        String[] valores = new String[cantidadValores];
+        System.arraycopy(partes, 1, valores, 0, cantidadValores);
+        return valores;
+    }
+
+    public static int validarTamanio(int size) {
+        if (size < 1) {
+            throw new IllegalArgumentException("El tamaño de pagina debe ser mayor a 0");
+        }
+        return Math.min(size, TAMANIO_MAXIMO);
+    }
+}
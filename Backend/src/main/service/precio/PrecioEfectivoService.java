@@ -0,0 +1,16 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.precio;
+
+import java.util.Collection;
+
+/**
+ * Mantiene productos.precio_efectivo y productos.descuento_vigente al dia: se
+ * recalculan cuando cambia el precio o el descuento de un producto y, sin que nadie
+ * lo pida, en el instante en que se abre o se cierra la ventana de vigencia de un
+ * descuento.
+ */
+public interface PrecioEfectivoService {
+
+    // recalcula esos productos y agenda su proximo cambio. Dentro de una transaccion
+    // se hace al confirmarla (si se revierte, no hay nada que recalcular)
+    void recalcular(Collection<Long> productosIds);
+}
@@ -0,0 +1,219 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.precio;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.DescuentoProducto;
+import com.example.uade.tpo.ecommerce_grupo10.repository.DescuentoProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Los proximos cambios de precio (inicio o fin de la ventana de cada descuento
+ * activo) esperan en una DelayQueue; un hilo propio los toma en el instante exacto
+ * y recalcula esos productos con un UPDATE.
+ *
+ * La cola no necesita tabla propia: las ventanas ya estan en descuentos_productos.
+ * Al iniciar se recalculan todos los productos (asi se aplican tambien los cambios
+ * que ocurrieron con la aplicacion apagada) y se vuelve a armar la cola con las
+ * ventanas pendientes.
+ *
+ * Las escrituras de productos y descuentos tambien pasan por la cola, sin demora:
+ * el UPDATE lo hace ese hilo y no quien escribio, que despues del commit todavia
+ * tiene su conexion y necesitaria otra. Como el recalculo ya no coincide con el
+ * commit, el hilo siempre publica el ProductosModificadosEvent de lo que recalculo.
+ *
+ * Si un recalculo falla, esos productos vuelven a la cola para reintentarse a los
+ * {@value #REINTENTO_MS} ms. El checkout no depende de este valor: evalua el
+ * descuento en memoria.
+ */
+@Service
+public class PrecioEfectivoServiceImpl implements PrecioEfectivoService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrecioEfectivoServiceImpl.class);
+
+    // espera antes de reintentar un recalculo que fallo
+    private static final long REINTENTO_MS = 10 * 1000;
+
+    private final ProductoRepository productoRepository;
+    private final DescuentoProductoRepository descuentoProductoRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DelayQueue<CambioProgramado> cola = new DelayQueue<>();
+    // producto -> instante del cambio agendado; lo que esta en la cola con otro
+    // instante quedo viejo (el descuento se modifico) y se ignora
+    private final ConcurrentHashMap<Long, Long> programados = new ConcurrentHashMap<>();
+
+    private volatile Thread trabajador;
+
+    private static final class CambioProgramado implements Delayed {
+        final Long productoId;
+        final long instanteMs;
+
+        CambioProgramado(Long productoId, long instanteMs) {
+            this.productoId = productoId;
+            this.instanteMs = instanteMs;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(instanteMs - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed otro) {
+            return Long.compare(instanteMs, ((CambioProgramado) otro).instanteMs);
+        }
+    }
+
+    public PrecioEfectivoServiceImpl(ProductoRepository productoRepository,
+            DescuentoProductoRepository descuentoProductoRepository,
+            ApplicationEventPublisher eventPublisher,
+            PlatformTransactionManager transactionManager) {
+        this.productoRepository = productoRepository;
+        this.descuentoProductoRepository = descuentoProductoRepository;
+        this.eventPublisher = eventPublisher;
+        // solo se usa desde el hilo de la cola: siempre en una transaccion nueva
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public void recalcular(Collection<Long> productosIds) {
+        if (productosIds == null) {
+            return;
+        }
+        List<Long> ids = productosIds.stream().filter(Objects::nonNull).distinct().toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            programar(ids, System.currentTimeMillis());
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                programar(ids, System.currentTimeMillis());
+            }
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        try {
+            Date ahora = new Date();
+            List<Object[]> ventanas = transactionTemplate.execute(status -> {
+                int filas = productoRepository.recalcularPrecioEfectivoTodos(ahora);
+                logger.info("Precio efectivo recalculado para {} productos", filas);
+                return descuentoProductoRepository.findVentanasPendientes(ahora);
+            });
+            agendar(ventanas, ahora.getTime());
+        } catch (RuntimeException e) {
+            logger.error("No se pudo recalcular el precio efectivo al iniciar: {}", e.getMessage(), e);
+        }
+
+        trabajador = new Thread(this::procesarCambios, "precio-efectivo");
+        trabajador.setDaemon(true);
+        trabajador.start();
+    }
+
+    @PreDestroy
+    void detener() {
+        if (trabajador != null) {
+            trabajador.interrupt();
+        }
+    }
+
+    private void procesarCambios() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<CambioProgramado> listos = new ArrayList<>();
+                listos.add(cola.take());
+                cola.drainTo(listos);
+
+                List<Long> ids = listos.stream()
+                        .filter(c -> programados.remove(c.productoId, c.instanteMs))
+                        .map(c -> c.productoId)
+                        .distinct()
+                        .toList();
+                if (!ids.isEmpty()) {
+                    logger.debug("Cambio de vigencia de descuento en {} productos", ids.size());
+                    recalcularAhora(ids);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // el evento avisa el nuevo precio efectivo (catalogo, cache y versiones): si el
+    // cambio lo causo una escritura, esa ya publico el suyo pero antes de este UPDATE
+    private void recalcularAhora(List<Long> ids) {
+        try {
+            Date ahora = new Date();
+            List<Object[]> ventanas = transactionTemplate.execute(status -> {
+                productoRepository.recalcularPrecioEfectivo(ids, ahora);
+                eventPublisher.publishEvent(new ProductosModificadosEvent(ids));
+                return descuentoProductoRepository.findVentanasPendientes(ahora, ids);
+            });
+            ids.forEach(programados::remove);
+            agendar(ventanas, ahora.getTime());
+        } catch (RuntimeException e) {
+            // queda el valor anterior hasta que el reintento funcione
+            logger.error("No se pudo recalcular el precio efectivo de {} productos, se reintenta en {} ms: {}",
+                    ids.size(), REINTENTO_MS, e.getMessage(), e);
+            programar(ids, System.currentTimeMillis() + REINTENTO_MS);
+        }
+    }
+
+    // no pisa un cambio ya agendado antes de ese instante: ese tambien recalcula
+    private void programar(List<Long> ids, long instante) {
+        for (Long productoId : ids) {
+            Long agendado = programados.compute(productoId,
+                    (id, actual) -> actual != null && actual <= instante ? actual : instante);
+            if (agendado == instante) {
+                cola.add(new CambioProgramado(productoId, instante));
+            }
+        }
+    }
+
+    // [productoId, fechaInicio, fechaFin] de descuentos activos: el proximo cambio es la
+    // apertura si todavia no empezo, o el cierre si esta vigente
+    private void agendar(List<Object[]> ventanas, long ahora) {
+        if (ventanas == null) {
+            return;
+        }
+        for (Object[] v : ventanas) {
+            Long productoId = (Long) v[0];
+            long instante = DescuentoProducto.proximoCambio(true, (Date) v[1], (Date) v[2], ahora);
+            if (instante == Long.MAX_VALUE) {
+                continue;
+            }
+            programados.put(productoId, instante);
+            cola.add(new CambioProgramado(productoId, instante));
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.producto;
+
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.JsonSerializado;
+
+// Detalle publico de un producto (GET /productos-publicos/{id}) ya serializado a
+// JSON, cacheado por id
+public interface DetalleProductoService {
+
+    JsonSerializado obtener(Long productoId);
+}
@@ -0,0 +1,90 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.producto;
+
+import java.util.Arrays;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CargasCompartidas;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.JsonSerializado;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.VersionCatalogoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache de los bytes finales del detalle de cada producto: un pedido que la
+ * encuentra no carga la entidad, no evalua el descuento ni pasa por Jackson.
+ *
+ * Cada entrada vence cuando el descuento del producto entra o sale de vigencia (o
+ * a los 60 s, como red de seguridad) y se invalida con cualquier cambio del
+ * producto, su descuento o sus imagenes. La invalidacion va en AFTER_COMPLETION,
+ * despues de que las caches de las que sale el DTO (productos y descuentos) ya se
+ * invalidaron en AFTER_COMMIT: si no, se podria volver a serializar el dato viejo.
+ * Dentro de AFTER_COMPLETION va antes que el avance de version (ver el @Order de
+ * VersionCatalogoServiceImpl): si no, una lectura en el medio podria servir los
+ * bytes viejos bajo el ETag nuevo.
+ */
+@Service
+@RequiredArgsConstructor
+public class DetalleProductoServiceImpl implements DetalleProductoService {
+
+    private static final long CACHE_TTL_MAX_MS = 60 * 1000;
+    private static final int CACHE_MAX = 10_000;
+
+    private final ProductoService productoService;
+    private final DescuentoProductoService descuentoProductoService;
+    private final ObjectMapper objectMapper;
+    private final CargasCompartidas cargasCompartidas;
+
+    private final CacheConVencimiento<Long, Detalle> detalles = new CacheConVencimiento<>(CACHE_TTL_MAX_MS,
+            CACHE_MAX);
+
+    private static final class Detalle {
+        final JsonSerializado serializado;
+        final long venceEnMs;
+
+        Detalle(JsonSerializado serializado, long venceEnMs) {
+            this.serializado = serializado;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    @Override
+    public JsonSerializado obtener(Long productoId) {
+        // los fallos simultaneos del mismo producto comparten una sola serializacion; con
+        // la generacion en la clave, quien llega despues de una invalidacion (y del
+        // avance de version) no recibe bytes de una carga que empezo antes
+        return detalles.obtener(productoId,
+                id -> cargasCompartidas.obtener("detalle-producto", Arrays.asList(id, detalles.generacion()),
+                        () -> serializar(id)),
+                d -> d.venceEnMs).serializado;
+    }
+
+    @Order(VersionCatalogoService.ORDEN_AVANCE - 1)
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMPLETION, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        event.getProductosIds().forEach(detalles::invalidar);
+    }
+
+    private Detalle serializar(Long productoId) {
+        long ahora = System.currentTimeMillis();
+        ProductoDTO dto = productoService.obtenerDTO(productoId);
+        DescuentoProductoDTO descuento = descuentoProductoService.obtenerPorProductoOptional(productoId).orElse(null);
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(dto);
+            long proximoCambio = descuento != null ? descuento.proximoCambio(ahora) : Long.MAX_VALUE;
+            return new Detalle(JsonSerializado.de(json), proximoCambio);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el producto " + productoId, e);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.producto;
 
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ActualizacionStockPrecioDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoActualizacionDTO;
 
 public interface ProductoService {
 
@@ -13,29 +20,67 @@ public interface ProductoService {
     public Producto get(Long id); // se utiliza Optional para manejar el caso en que no se encuentra el producto
                                   // en la base de datos
 
+    ProductoDTO obtenerDTO(Long id); // vista publica del producto, con descuento (cacheada)
+
     public Producto update(Long id, ProductoDTO dto);
 
     public void delete(Long id);
 
-    Page<Producto> listarDisponibles(Pageable pageable); // productos con stock > 0
+    // stock y precio de muchos productos a la vez; un resultado por cambio, en el
+    // mismo orden. Un vendedor solo puede actualizar sus productos
+    List<ResultadoActualizacionDTO> actualizarStockYPrecio(List<ActualizacionStockPrecioDTO> cambios, Long usuarioId,
+            boolean esAdmin);
+
+    // Listados: se proyectan directo a DTO (una consulta de filas y una de imagenes),
+    // sin cargar entidades. Los que devuelven Slice no cuentan el total; los Page
+    // agregan el COUNT solo cuando no se deduce de la pagina
+    Slice<ProductoDTO> listarDisponibles(Pageable pageable); // productos con stock > 0
 
-    Page<Producto> buscarPorTitulo(String titulo, Pageable pageable); // stock > 0
+    Page<ProductoDTO> buscarPorTitulo(String titulo, Pageable pageable); // stock > 0, por relevancia
 
-    Page<Producto> buscarPorCategoria(Long categoriaId, Pageable pageable); // stock > 0
+    Slice<ProductoDTO> buscarPorCategoria(Long categoriaId, Pageable pageable); // stock > 0
 
     Page<ProductoDTO> buscarPorPrecio(Double precioMin, Double precioMax, Pageable pageable); // stock > 0
 
+    Page<ProductoDTO> buscarPorPrecioEfectivo(Double precioMin, Double precioMax, Pageable pageable); // stock > 0,
+                                                                                                     // con descuento
+
+    // Variantes sin COUNT (scroll infinito): hayMas y, si se pide, un total
+    // aproximado cacheado
+    PaginaSinTotalDTO<ProductoDTO> buscarPorTituloSinTotal(String titulo, Pageable pageable,
+            boolean totalAproximado);
+
+    PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioSinTotal(Double precioMin, Double precioMax, Pageable pageable,
+            boolean totalAproximado);
+
+    PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioEfectivoSinTotal(Double precioMin, Double precioMax,
+            Pageable pageable, boolean totalAproximado);
+
+    // varios productos por id (carrito, wishlist, comparador), con descuento e imagen
+    // principal, en el orden pedido; los ids que no existen se omiten
+    List<ProductoDTO> obtenerPorIds(List<Long> ids);
+
+    // Variantes por cursor (keyset, sin COUNT). cursor null = primera pagina
+    PaginaCursorDTO<ProductoDTO> listarDisponiblesCursor(String cursor, int size);
+
+    PaginaCursorDTO<ProductoDTO> buscarPorCategoriaCursor(Long categoriaId, String cursor, int size);
+
+    PaginaCursorDTO<ProductoDTO> buscarPorPrecioCursor(Double precioMin, Double precioMax, String cursor, int size);
+
     // Métodos para vendedores (sus propios productos)
-    Page<Producto> listarPorVendedor(Long vendedorId, Pageable pageable); 
+    Slice<ProductoDTO> listarPorVendedor(Long vendedorId, Pageable pageable);
 
-    Page<Producto> listarDisponiblesPorVendedor(Long vendedorId, Pageable pageable); // productos del vendedor con stock
-                                                                                     // > 0
+    Slice<ProductoDTO> listarDisponiblesPorVendedor(Long vendedorId, Pageable pageable); // productos del vendedor
+                                                                                         // con stock > 0
 
-    Page<Producto> buscarPorTituloPorVendedor(Long vendedorId, String titulo, Pageable pageable);
+    Slice<ProductoDTO> buscarPorTituloPorVendedor(Long vendedorId, String titulo, Pageable pageable);
 
-    Page<Producto> buscarPorCategoriaPorVendedor(Long vendedorId, Long categoriaId, Pageable pageable);
+    Slice<ProductoDTO> buscarPorCategoriaPorVendedor(Long vendedorId, Long categoriaId, Pageable pageable);
 
     Page<ProductoDTO> buscarPorPrecioPorVendedor(Long vendedorId, Double precioMin, Double precioMax,
             Pageable pageable);
 
+    PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioPorVendedorSinTotal(Long vendedorId, Double precioMin,
+            Double precioMax, Pageable pageable, boolean totalAproximado);
+
 }
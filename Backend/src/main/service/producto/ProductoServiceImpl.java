@@ -1,18 +1,58 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.producto;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ActualizacionStockPrecioDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ImagenProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaCursorDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoActualizacionDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperProducto;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
-import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ImagenProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoVista;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.busqueda.BusquedaProductosService;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CacheConVencimiento;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CargasCompartidas;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.VersionCatalogoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.categoria.CategoriaService;
+import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.ConteosAproximados;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.CursorPaginacion;
+import com.example.uade.tpo.ecommerce_grupo10.service.precio.PrecioEfectivoService;
 import com.example.uade.tpo.ecommerce_grupo10.service.security.SecurityService;
 
 import lombok.RequiredArgsConstructor;
@@ -22,23 +62,43 @@ import lombok.RequiredArgsConstructor;
 public class ProductoServiceImpl implements ProductoService {
 
     private final ProductoRepository productoRepository;
-    private final CategoriaRepository categoriaRepository;
+    private final ImagenProductoRepository imagenProductoRepository;
+    private final CategoriaService categoriaService;
     private final UsuarioRepository usuarioRepository;
     private final SecurityService securityService;
     private final MapperProducto mapperProducto;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BusquedaProductosService busquedaProductosService;
+    private final DescuentoProductoService descuentoProductoService;
+    private final PrecioEfectivoService precioEfectivoService;
+    private final CargasCompartidas cargasCompartidas;
+    private final ConteosAproximados conteosAproximados;
+    private final VersionCatalogoService versionCatalogoService;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final int MAX_ACTUALIZACIONES = 10_000;
+    private static final int MAX_IDS_POR_LOTE = 500;
+
+    private static final long CACHE_TTL_MAX_MS = 5 * 60 * 1000;
+    private static final int CACHE_MAX = 10_000;
 
+    private final CacheConVencimiento<Long, ProductoDTO> productosPorId = new CacheConVencimiento<>(CACHE_TTL_MAX_MS,
+            CACHE_MAX);
+
+    // sale de la cache de categorias: una copia con id y nombre alcanza para la FK
+    // (la asociacion no cascadea) y para el nombre en la respuesta
     private Categoria getCategoria(Long categoriaId) {
-        return categoriaRepository.findById(categoriaId)
-                .orElseThrow(() -> new RecursoNoEncontrado("Categoria no encontrada"));
+        return categoriaService.obtenerPorId(categoriaId);
     }
 
+    // el id sale del principal autenticado: alcanza con una referencia para la FK,
+    // sin consultar usuarios
     private Usuario getCurrentUser() {
-        String email = securityService.getCurrentUserEmail();
-        if (email == null) {
+        Long usuarioId = securityService.getCurrentUserId();
+        if (usuarioId == null) {
             throw new RecursoNoEncontrado("Usuario no autenticado");
         }
-        return usuarioRepository.findByEmailIgnoreCase(email)
-                .orElseThrow(() -> new RecursoNoEncontrado("Usuario no encontrado"));
+        return usuarioRepository.getReferenceById(usuarioId);
     }
 
     @Override
@@ -46,7 +106,10 @@ public class ProductoServiceImpl implements ProductoService {
         var categoria = getCategoria(dto.getCategoriaId());
         var vendedor = getCurrentUser();
         var entity = mapperProducto.toEntity(dto, categoria, vendedor);
-        return productoRepository.save(entity);
+        Producto guardado = productoRepository.save(entity);
+        precioEfectivoService.recalcular(List.of(guardado.getId()));
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(guardado.getId()));
+        return guardado;
     }
 
     @Override
@@ -54,70 +117,441 @@ public class ProductoServiceImpl implements ProductoService {
         return productoRepository.findById(id).orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado"));
     }
 
+    // el producto (con categoria, vendedor e imagenes) sale de la cache; el descuento
+    // se aplica en cada lectura desde la cache de descuentos, que vence en cada
+    // frontera de vigencia. La carga compartida va por generacion de la cache: quien
+    // llega despues de una invalidacion no se suma a una carga anterior
+    @Override
+    public ProductoDTO obtenerDTO(Long id) {
+        ProductoDTO base = productosPorId.obtener(id,
+                k -> cargasCompartidas.obtener("producto", Arrays.asList(k, productosPorId.generacion()),
+                        () -> leer(() -> mapperProducto.toDTO(get(k)))),
+                dto -> Long.MAX_VALUE);
+        ProductoDTO dto = copia(base);
+        mapperProducto.aplicarDescuento(dto, descuentoProductoService.obtenerPorProductoOptional(id).orElse(null));
+        return dto;
+    }
+
+    // toBuilder copia la lista de imagenes por referencia: la lista y cada imagen se
+    // copian aparte para que quien modifique la respuesta no toque lo cacheado
+    private static ProductoDTO copia(ProductoDTO base) {
+        List<ImagenProductoDTO> imagenes = new ArrayList<>();
+        if (base.getImagenes() != null) {
+            base.getImagenes().forEach(i -> imagenes.add(i.toBuilder().build()));
+        }
+        return base.toBuilder().imagenes(imagenes).build();
+    }
+
+    // cualquier cambio que afecte la vista del producto (datos, stock, imagenes,
+    // descuento, nombre de categoria o vendedor) publica este evento
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        event.getProductosIds().forEach(productosPorId::invalidar);
+    }
+
     @Override
     public Producto update(Long id, ProductoDTO dto) {
         var entity = get(id);
         Categoria cat = (dto.getCategoriaId() != null) ? getCategoria(dto.getCategoriaId()) : entity.getCategoria();
         mapperProducto.updateEntityFromDto(dto, entity, cat);
-        return productoRepository.save(entity);
+        Producto actualizado = productoRepository.save(entity);
+        precioEfectivoService.recalcular(List.of(id));
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(id));
+        return actualizado;
     }
 
     @Override
     public void delete(Long id) {
         var entity = get(id); // lanza excepcion si no existe
         productoRepository.delete(entity);
+        eventPublisher.publishEvent(ProductosModificadosEvent.de(id));
+    }
+
+    // Actualizacion masiva de stock y precio: una consulta para existencia y permisos
+    // de todo el lote y UPDATE directos en batch, sin cargar las entidades. Los cambios
+    // validos se aplican aunque otros del lote sean rechazados
+    @Override
+    @Transactional
+    public List<ResultadoActualizacionDTO> actualizarStockYPrecio(List<ActualizacionStockPrecioDTO> cambios,
+            Long usuarioId, boolean esAdmin) {
+        if (cambios == null || cambios.isEmpty()) {
+            return List.of();
+        }
+        if (cambios.size() > MAX_ACTUALIZACIONES) {
+            throw new IllegalArgumentException("No se pueden actualizar mas de " + MAX_ACTUALIZACIONES
+                    + " productos por pedido");
+        }
+
+        Map<Long, ResultadoActualizacionDTO> resultados = new HashMap<>();
+        List<ResultadoActualizacionDTO> enOrden = new ArrayList<>(cambios.size());
+        List<ActualizacionStockPrecioDTO> validos = new ArrayList<>(cambios.size());
+        Set<Long> vistos = new HashSet<>();
+        for (ActualizacionStockPrecioDTO c : cambios) {
+            String error = validarActualizacion(c);
+            if (error == null && !vistos.add(c.getId())) {
+                error = "El producto aparece mas de una vez en el pedido";
+            }
+            // un elemento null del lote queda como invalido, sin id
+            Long id = c != null ? c.getId() : null;
+            ResultadoActualizacionDTO r = new ResultadoActualizacionDTO(id, "ACTUALIZADO", null);
+            if (error != null) {
+                r.setEstado("INVALIDO");
+                r.setMensaje(error);
+            } else {
+                validos.add(c);
+                resultados.put(id, r);
+            }
+            enOrden.add(r);
+        }
+
+        // existencia y dueño de todos los productos del lote en una sola consulta
+        Map<Long, Long> vendedores = new HashMap<>();
+        if (!validos.isEmpty()) {
+            for (Object[] fila : productoRepository.findVendedoresByIdIn(resultados.keySet())) {
+                vendedores.put((Long) fila[0], (Long) fila[1]);
+            }
+        }
+        List<ActualizacionStockPrecioDTO> permitidos = new ArrayList<>(validos.size());
+        for (ActualizacionStockPrecioDTO c : validos) {
+            ResultadoActualizacionDTO r = resultados.get(c.getId());
+            if (!vendedores.containsKey(c.getId())) {
+                r.setEstado("NO_ENCONTRADO");
+                r.setMensaje("Producto no encontrado");
+            } else if (!esAdmin && !Objects.equals(vendedores.get(c.getId()), usuarioId)) {
+                r.setEstado("SIN_PERMISO");
+                r.setMensaje("El producto no pertenece al vendedor");
+            } else {
+                permitidos.add(c);
+            }
+        }
+
+        Map<Long, Boolean> aplicados = productoRepository.actualizarStockYPrecio(permitidos);
+        List<Long> actualizados = new ArrayList<>(aplicados.size());
+        List<Long> conCambioDePrecio = new ArrayList<>();
+        for (ActualizacionStockPrecioDTO c : permitidos) {
+            if (Boolean.TRUE.equals(aplicados.get(c.getId()))) {
+                actualizados.add(c.getId());
+                if (c.getPrecio() != null || c.getPrecioDelta() != null) {
+                    conCambioDePrecio.add(c.getId());
+                }
+            } else {
+                ResultadoActualizacionDTO r = resultados.get(c.getId());
+                r.setEstado("RECHAZADO");
+                r.setMensaje("El stock quedaria negativo o el precio en 0 o menos");
+            }
+        }
+
+        if (!actualizados.isEmpty()) {
+            precioEfectivoService.recalcular(conCambioDePrecio);
+            eventPublisher.publishEvent(new ProductosModificadosEvent(actualizados));
+        }
+        return enOrden;
+    }
+
+    private String validarActualizacion(ActualizacionStockPrecioDTO c) {
+        if (c == null || c.getId() == null) {
+            return "El id del producto es obligatorio";
+        }
+        if (c.getStock() == null && c.getStockDelta() == null && c.getPrecio() == null
+                && c.getPrecioDelta() == null) {
+            return "No hay cambios de stock ni de precio";
+        }
+        if (c.getStock() != null && c.getStockDelta() != null) {
+            return "Indicar stock o stockDelta, no ambos";
+        }
+        if (c.getPrecio() != null && c.getPrecioDelta() != null) {
+            return "Indicar precio o precioDelta, no ambos";
+        }
+        if (c.getStock() != null && c.getStock() < 0) {
+            return "El stock no puede ser negativo";
+        }
+        if (c.getPrecio() != null && c.getPrecio() <= 0) {
+            return "El precio debe ser mayor a 0";
+        }
+        return null;
     }
 
     // BUSQUEDAS
+    // Todas son de solo lectura y trabajan con filas proyectadas (ProductoVista): una
+    // pagina son dos consultas sin importar su tamanio (filas e imagenes), mas el
+    // COUNT en las que devuelven Page y no lo pueden deducir de la propia pagina. Sin
+    // entidades en el contexto de persistencia
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> listarDisponibles(Pageable pageable) {
+        return aDTOs(productoRepository.findVistasDisponibles(pageable));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<ProductoDTO> buscarPorTitulo(String titulo, Pageable pageable) {
+        // hasta que el indice termina de cargarse se sigue buscando en la base
+        if (!busquedaProductosService.estaListo() || titulo == null || titulo.isBlank()) {
+            String texto = titulo == null ? "" : titulo;
+            return aDTOs(productoRepository.findVistasDisponiblesPorTitulo(texto, pageable),
+                    () -> productoRepository.countDisponiblesPorTitulo(texto));
+        }
+
+        // el indice devuelve los ids ya ordenados por relevancia, solo se leen los de la
+        // pagina pedida
+        Page<Long> ids = busquedaProductosService.buscarIds(titulo, pageable);
+        if (ids.isEmpty()) {
+            return new PageImpl<>(List.of(), pageable, ids.getTotalElements());
+        }
+        return new PageImpl<>(aDTOs(vistasEnOrden(ids.getContent())), pageable, ids.getTotalElements());
+    }
 
+    // una consulta de filas, una de imagenes principales y, solo para los productos
+    // sin precio efectivo calculado, una de descuentos
     @Override
-    public Page<Producto> listarDisponibles(Pageable pageable) {
-        return productoRepository.findByStockGreaterThan(0, pageable);
+    @Transactional(readOnly = true)
+    public List<ProductoDTO> obtenerPorIds(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return List.of();
+        }
+        List<Long> distintos = ids.stream().filter(Objects::nonNull).distinct().toList();
+        if (distintos.size() > MAX_IDS_POR_LOTE) {
+            throw new IllegalArgumentException("Se pueden pedir hasta " + MAX_IDS_POR_LOTE + " productos por vez");
+        }
+        if (distintos.isEmpty()) {
+            return List.of();
+        }
+        List<ProductoVista> vistas = vistasEnOrden(distintos);
+        Map<Long, List<ImagenProductoDTO>> principales = imagenProductoRepository
+                .findImagenesPrincipalesByProductosIds(distintos).stream()
+                .collect(Collectors.toMap(ImagenProductoDTO::getProductoId, List::of, (primera, otra) -> primera));
+        return mapperProducto.vistasToDTOsConDescuentos(vistas, principales);
+    }
+
+    // las filas de esos ids en el mismo orden (los que no existen se omiten)
+    private List<ProductoVista> vistasEnOrden(List<Long> ids) {
+        Map<Long, ProductoVista> porId = productoRepository.findVistasByIdIn(ids).stream()
+                .collect(Collectors.toMap(ProductoVista::getId, Function.identity()));
+        return ids.stream()
+                .map(porId::get)
+                .filter(Objects::nonNull)
+                .toList();
     }
 
+    // categoria y precio: pedidos identicos simultaneos comparten la misma consulta.
+    // Sin @Transactional: los que esperan no toman conexion, solo quien ejecuta la
+    // carga (en leer). La version del catalogo va en la clave, asi que despues de un
+    // cambio no se comparte una carga que empezo antes
     @Override
-    public Page<Producto> buscarPorTitulo(String titulo, Pageable pageable) {
-        return productoRepository.findByTituloContainingIgnoreCaseAndStockGreaterThan(titulo, 0, pageable);
+    public Slice<ProductoDTO> buscarPorCategoria(Long categoriaId, Pageable pageable) {
+        return cargasCompartidas.obtener("productos-por-categoria",
+                Arrays.asList(categoriaId, pageable, versionCatalogoService.versionCatalogo()),
+                () -> leer(() -> aDTOs(productoRepository.findVistasDisponiblesPorCategoria(categoriaId, pageable))));
     }
 
     @Override
-    public Page<Producto> buscarPorCategoria(Long categoriaId, Pageable pageable) {
-        return productoRepository.findByCategoriaIdAndStockGreaterThan(categoriaId, 0, pageable);
+    public Page<ProductoDTO> buscarPorPrecioEfectivo(Double min, Double max, Pageable pageable) {
+        return cargasCompartidas.obtener("productos-por-precio-efectivo",
+                Arrays.asList(min, max, pageable, versionCatalogoService.versionCatalogo()),
+                () -> leer(() -> aDTOs(productoRepository.findVistasDisponiblesPorPrecioEfectivo(min, max, pageable),
+                        () -> productoRepository.countDisponiblesPorPrecioEfectivo(min, max))));
     }
 
     @Override
     public Page<ProductoDTO> buscarPorPrecio(Double min, Double max, Pageable pageable) {
-        return productoRepository.findByPrecioBetweenAndStockGreaterThan(min, max, 0, pageable)
-                .map(mapperProducto::toDTOConDescuentos);
+        return cargasCompartidas.obtener("productos-por-precio",
+                Arrays.asList(min, max, pageable, versionCatalogoService.versionCatalogo()),
+                () -> leer(() -> aDTOs(productoRepository.findVistasDisponiblesPorPrecio(min, max, pageable),
+                        () -> productoRepository.countDisponiblesPorPrecio(min, max))));
+    }
+
+    // carga en una transaccion de solo lectura propia (o la del llamador, si hay una)
+    private <T> T leer(Supplier<T> carga) {
+        TransactionTemplate lectura = new TransactionTemplate(transactionManager);
+        lectura.setReadOnly(true);
+        return lectura.execute(status -> carga.get());
+    }
+
+    // BUSQUEDAS SIN COUNT
+    // La misma consulta de filas que la version paginada; el total aproximado sale de
+    // ConteosAproximados (cacheado por filtro) y solo si el cliente lo pide. Sin
+    // @Transactional: las filas se leen en su propia transaccion y el COUNT corre
+    // despues, fuera de ella
+
+    @Override
+    public PaginaSinTotalDTO<ProductoDTO> buscarPorTituloSinTotal(String titulo, Pageable pageable,
+            boolean totalAproximado) {
+        String texto = titulo == null ? "" : titulo;
+        if (!busquedaProductosService.estaListo() || texto.isBlank()) {
+            return sinTotal(() -> productoRepository.findVistasDisponiblesPorTitulo(texto, pageable), totalAproximado,
+                    "productos-por-titulo", texto, () -> productoRepository.countDisponiblesPorTitulo(texto));
+        }
+        // con el indice el total ya viene calculado, no cuesta nada
+        Page<Long> ids = busquedaProductosService.buscarIds(texto, pageable);
+        return PaginaSinTotalDTO.<ProductoDTO>builder()
+                .contenido(ids.isEmpty() ? List.of() : leer(() -> aDTOs(vistasEnOrden(ids.getContent()))))
+                .pagina(ids.getNumber())
+                .tamanio(ids.getSize())
+                .hayMas(ids.hasNext())
+                .totalAproximado(totalAproximado ? ids.getTotalElements() : null)
+                .build();
+    }
+
+    @Override
+    public PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioSinTotal(Double min, Double max, Pageable pageable,
+            boolean totalAproximado) {
+        return sinTotal(() -> productoRepository.findVistasDisponiblesPorPrecio(min, max, pageable), totalAproximado,
+                "productos-por-precio", Arrays.asList(min, max),
+                () -> productoRepository.countDisponiblesPorPrecio(min, max));
+    }
+
+    @Override
+    public PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioEfectivoSinTotal(Double min, Double max,
+            Pageable pageable, boolean totalAproximado) {
+        return sinTotal(() -> productoRepository.findVistasDisponiblesPorPrecioEfectivo(min, max, pageable),
+                totalAproximado, "productos-por-precio-efectivo", Arrays.asList(min, max),
+                () -> productoRepository.countDisponiblesPorPrecioEfectivo(min, max));
+    }
+
+    // BUSQUEDAS POR CURSOR (keyset)
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ProductoDTO> listarDisponiblesCursor(String cursor, int size) {
+        String[] pos = CursorPaginacion.decodificar(cursor, 1);
+        Long ultimoId = pos == null ? 0L : parseId(pos[0]);
+        Slice<ProductoVista> slice = productoRepository.findVistasDisponiblesDespuesDe(ultimoId,
+                PageRequest.of(0, CursorPaginacion.validarTamanio(size)));
+        return paginaPorId(slice);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ProductoDTO> buscarPorCategoriaCursor(Long categoriaId, String cursor, int size) {
+        String[] pos = CursorPaginacion.decodificar(cursor, 1);
+        Long ultimoId = pos == null ? 0L : parseId(pos[0]);
+        Slice<ProductoVista> slice = productoRepository.findVistasDisponiblesPorCategoriaDespuesDe(categoriaId,
+                ultimoId, PageRequest.of(0, CursorPaginacion.validarTamanio(size)));
+        return paginaPorId(slice);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public PaginaCursorDTO<ProductoDTO> buscarPorPrecioCursor(Double precioMin, Double precioMax, String cursor,
+            int size) {
+        if (precioMin == null || precioMax == null) {
+            throw new IllegalArgumentException("precioMin y precioMax son obligatorios");
+        }
+        String[] pos = CursorPaginacion.decodificar(cursor, 2);
+        double ultimoPrecio = precioMin;
+        Long ultimoId = 0L;
+        if (pos != null) {
+            try {
+                ultimoPrecio = Double.parseDouble(pos[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cursor invalido");
+            }
+            ultimoId = parseId(pos[1]);
+        }
+        Slice<ProductoVista> slice = productoRepository.findVistasDisponiblesPorPrecioDespuesDe(precioMin, precioMax,
+                ultimoPrecio, ultimoId, PageRequest.of(0, CursorPaginacion.validarTamanio(size)));
+
+        String siguiente = null;
+        if (slice.hasNext()) {
+            ProductoVista ultimo = slice.getContent().get(slice.getNumberOfElements() - 1);
+            siguiente = CursorPaginacion.codificar(ultimo.getPrecio(), ultimo.getId());
+        }
+        return pagina(slice, siguiente);
+    }
+
+    private PaginaCursorDTO<ProductoDTO> paginaPorId(Slice<ProductoVista> slice) {
+        String siguiente = null;
+        if (slice.hasNext()) {
+            siguiente = CursorPaginacion.codificar(slice.getContent().get(slice.getNumberOfElements() - 1).getId());
+        }
+        return pagina(slice, siguiente);
+    }
+
+    private PaginaCursorDTO<ProductoDTO> pagina(Slice<ProductoVista> slice, String siguienteCursor) {
+        return PaginaCursorDTO.<ProductoDTO>builder()
+                .contenido(aDTOs(slice.getContent()))
+                .tamanio(slice.getSize())
+                .hayMas(slice.hasNext())
+                .siguienteCursor(siguienteCursor)
+                .build();
+    }
+
+    private Long parseId(String valor) {
+        try {
+            return Long.parseLong(valor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Cursor invalido");
+        }
+    }
+
+    private Slice<ProductoDTO> aDTOs(Slice<ProductoVista> slice) {
+        return new SliceImpl<>(aDTOs(slice.getContent()), slice.getPageable(), slice.hasNext());
+    }
+
+    // contar solo se ejecuta si el total no se deduce de la pagina (primera pagina
+    // incompleta o ultima pagina)
+    private Page<ProductoDTO> aDTOs(Slice<ProductoVista> slice, LongSupplier contar) {
+        return PageableExecutionUtils.getPage(aDTOs(slice.getContent()), slice.getPageable(), contar);
+    }
+
+    private PaginaSinTotalDTO<ProductoDTO> sinTotal(Supplier<Slice<ProductoVista>> filas, boolean totalAproximado,
+            String filtro, Object clave, LongSupplier contar) {
+        return conteosAproximados.pagina(() -> aDTOs(filas.get()), totalAproximado, filtro, clave, contar);
+    }
+
+    // las imagenes de todas las filas salen de una sola consulta
+    private List<ProductoDTO> aDTOs(List<ProductoVista> vistas) {
+        if (vistas.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = vistas.stream().map(ProductoVista::getId).toList();
+        Map<Long, List<ImagenProductoDTO>> imagenes = imagenProductoRepository.findDTOsByProductoIdIn(ids).stream()
+                .collect(Collectors.groupingBy(ImagenProductoDTO::getProductoId));
+        return mapperProducto.vistasToDTOsConDescuentos(vistas, imagenes);
     }
 
     // MÉTODOS PARA VENDEDORES
 
     @Override
-    public Page<Producto> listarPorVendedor(Long vendedorId, Pageable pageable) {
-        return productoRepository.findByVendedorId(vendedorId, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> listarPorVendedor(Long vendedorId, Pageable pageable) {
+        return aDTOs(productoRepository.findVistasPorVendedor(vendedorId, pageable));
     }
 
     @Override
-    public Page<Producto> listarDisponiblesPorVendedor(Long vendedorId, Pageable pageable) {
-        return productoRepository.findByVendedorIdAndStockGreaterThan(vendedorId, 0, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> listarDisponiblesPorVendedor(Long vendedorId, Pageable pageable) {
+        return aDTOs(productoRepository.findVistasDisponiblesPorVendedor(vendedorId, pageable));
     }
 
     @Override
-    public Page<Producto> buscarPorTituloPorVendedor(Long vendedorId, String titulo, Pageable pageable) {
-        return productoRepository.findByVendedorIdAndTituloContainingIgnoreCase(vendedorId, titulo, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> buscarPorTituloPorVendedor(Long vendedorId, String titulo, Pageable pageable) {
+        return aDTOs(productoRepository.findVistasPorVendedorYTitulo(vendedorId, titulo, pageable));
     }
 
     @Override
-    public Page<Producto> buscarPorCategoriaPorVendedor(Long vendedorId, Long categoriaId, Pageable pageable) {
-        return productoRepository.findByVendedorIdAndCategoriaId(vendedorId, categoriaId, pageable);
+    @Transactional(readOnly = true)
+    public Slice<ProductoDTO> buscarPorCategoriaPorVendedor(Long vendedorId, Long categoriaId, Pageable pageable) {
+        return aDTOs(productoRepository.findVistasPorVendedorYCategoria(vendedorId, categoriaId, pageable));
     }
 
     @Override
+    @Transactional(readOnly = true)
     public Page<ProductoDTO> buscarPorPrecioPorVendedor(Long vendedorId, Double precioMin, Double precioMax,
             Pageable pageable) {
-        return productoRepository.findByVendedorIdAndPrecioBetween(vendedorId, precioMin, precioMax, pageable)
-                .map(mapperProducto::toDTOConDescuentos);
+        return aDTOs(productoRepository.findVistasPorVendedorYPrecio(vendedorId, precioMin, precioMax, pageable),
+                () -> productoRepository.countPorVendedorYPrecio(vendedorId, precioMin, precioMax));
+    }
+
+    @Override
+    public PaginaSinTotalDTO<ProductoDTO> buscarPorPrecioPorVendedorSinTotal(Long vendedorId, Double precioMin,
+            Double precioMax, Pageable pageable, boolean totalAproximado) {
+        return sinTotal(
+                () -> productoRepository.findVistasPorVendedorYPrecio(vendedorId, precioMin, precioMax, pageable),
+                totalAproximado, "productos-por-vendedor-y-precio", Arrays.asList(vendedorId, precioMin, precioMax),
+                () -> productoRepository.countPorVendedorYPrecio(vendedorId, precioMin, precioMax));
     }
 
 }
@@ -0,0 +1,27 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.reserva;
+
+import java.util.List;
+import java.util.Map;
+
+// Reservas temporales de stock para los productos que estan en un carrito
+public interface ReservaStockService {
+
+    // unidades que se pueden vender ahora: stock menos reservas vigentes
+    int disponible(Long productoId);
+
+    // unidades reservadas por el usuario para el producto (0 si no tiene)
+    int reservado(Long usuarioId, Long productoId);
+
+    // deja la reserva del usuario en 'cantidad' unidades y renueva su vencimiento
+    // (0 la libera). Lanza IllegalArgumentException si no hay disponible
+    void reservar(Long usuarioId, Long productoId, int cantidad);
+
+    void liberar(Long usuarioId, Long productoId);
+
+    void liberarTodas(Long usuarioId);
+
+    // checkout: se asegura de que las reservas del usuario cubran las cantidades
+    // (tomando lo que falte) y las consume cuando confirma la transaccion. Devuelve
+    // los productos que no alcanzan; si no esta vacia no se reservo nada
+    List<Long> confirmar(Long usuarioId, Map<Long, Integer> cantidadesPorProducto);
+}
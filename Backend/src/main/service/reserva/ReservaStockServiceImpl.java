@@ -0,0 +1,437 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.reserva;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ReservaStock;
+import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ReservaStockRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Ledger de reservas en memoria.
+ *
+ * Por producto se lleva un contador de "disponible para vender" (stock menos
+ * reservas vigentes) que se modifica con compareAndSet, sin locks: dos usuarios
+ * que reservan el mismo producto a la vez nunca pueden dejarlo en negativo. Los
+ * contadores estan repartidos por producto en un ConcurrentHashMap, asi que
+ * productos distintos no compiten entre si. Las reservas de cada producto se
+ * cambian con compute sobre el mapa externo (el lock del casillero dura solo el
+ * cambio en memoria; la consulta del stock se hace antes, fuera del lock) y el
+ * mapa del producto se quita cuando queda vacio. El contador se siembra con ese
+ * mismo lock, asi que ve todas las reservas anteriores y ninguna posterior se le
+ * escapa. Un indice usuario -> productos, mantenido en el mismo cambio, evita
+ * recorrer todos los productos para liberar las reservas de un usuario.
+ *
+ * Cada reserva vence a los {@code application.reservas.ttl-minutos} minutos
+ * (se renueva cada vez que el usuario cambia la cantidad); los vencimientos los
+ * dispara una {@link RuedaTemporizadora} que avanza una vez por segundo. La tabla
+ * reservas_stock se escribe en la misma transaccion que el carrito y se lee solo
+ * al iniciar, para recuperar las reservas vigentes.
+ *
+ * Cuando cambia el stock en la base (vendedor, checkout, borrado) el contador del
+ * producto se descarta y se recalcula en el proximo uso.
+ */
+@Service
+@RequiredArgsConstructor
+public class ReservaStockServiceImpl implements ReservaStockService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReservaStockServiceImpl.class);
+
+    private static final long TICK_MS = 1000;
+    private static final int CASILLEROS = 512;
+
+    private final ReservaStockRepository reservaStockRepository;
+    private final ProductoRepository productoRepository;
+
+    @Value("${application.reservas.ttl-minutos:15}")
+    private long ttlMinutos;
+
+    // producto -> disponible para vender
+    private final ConcurrentHashMap<Long, AtomicInteger> disponibles = new ConcurrentHashMap<>();
+
+    // producto -> (usuario -> reserva vigente)
+    private final ConcurrentHashMap<Long, ConcurrentHashMap<Long, Reserva>> reservas = new ConcurrentHashMap<>();
+
+    // usuario -> productos con reserva vigente (se cambia solo desde cambiarReserva)
+    private final ConcurrentHashMap<Long, Set<Long>> productosPorUsuario = new ConcurrentHashMap<>();
+
+    private final RuedaTemporizadora<ClaveReserva> rueda = new RuedaTemporizadora<>(TICK_MS, CASILLEROS);
+
+    private static final class Reserva {
+        final int cantidad;
+        final long venceEnMs;
+
+        Reserva(int cantidad, long venceEnMs) {
+            this.cantidad = cantidad;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    // lo que se agenda en la rueda: si la reserva se renueva cambia el vencimiento y
+    // la entrada vieja se ignora
+    private static final class ClaveReserva {
+        final Long productoId;
+        final Long usuarioId;
+        final long venceEnMs;
+
+        ClaveReserva(Long productoId, Long usuarioId, long venceEnMs) {
+            this.productoId = productoId;
+            this.usuarioId = usuarioId;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    // CONSULTAS
+
+    @Override
+    public int disponible(Long productoId) {
+        return Math.max(0, contador(productoId).get());
+    }
+
+    @Override
+    public int reservado(Long usuarioId, Long productoId) {
+        Map<Long, Reserva> delProducto = reservas.get(productoId);
+        Reserva r = delProducto != null ? delProducto.get(usuarioId) : null;
+        return r != null ? r.cantidad : 0;
+    }
+
+    // RESERVAS
+
+    @Override
+    public void reservar(Long usuarioId, Long productoId, int cantidad) {
+        if (cantidad < 0)
+            throw new IllegalArgumentException("La cantidad no puede ser negativa");
+        if (cantidad == 0) {
+            liberar(usuarioId, productoId);
+            return;
+        }
+
+        long venceEn = System.currentTimeMillis() + ttlMinutos * 60_000;
+        // el contador (y su consulta a la base) se carga antes de tomar el lock
+        AtomicInteger disponible = contador(productoId);
+
+        Reserva[] anterior = new Reserva[1];
+        cambiarReserva(productoId, usuarioId, actual -> {
+            int previa = actual != null ? actual.cantidad : 0;
+            int delta = cantidad - previa;
+            if (delta > 0 && !tomar(disponible, delta)) {
+                throw new IllegalArgumentException(String.format("Stock insuficiente. Disponible: %d, Solicitado: %d",
+                        Math.max(0, disponible.get()) + previa, cantidad));
+            }
+            if (delta < 0) {
+                ajustar(productoId, -delta);
+            }
+            anterior[0] = actual;
+            return new Reserva(cantidad, venceEn);
+        });
+        rueda.agendar(new ClaveReserva(productoId, usuarioId, venceEn), venceEn);
+
+        ReservaStock fila = reservaStockRepository.findByUsuarioIdAndProductoId(usuarioId, productoId)
+                .orElseGet(ReservaStock::new);
+        fila.setUsuarioId(usuarioId);
+        fila.setProductoId(productoId);
+        fila.setCantidad(cantidad);
+        fila.setVenceEn(aFecha(venceEn));
+        reservaStockRepository.save(fila);
+
+        // si el cambio del carrito no se confirma, la reserva vuelve a como estaba
+        alRevertir(() -> cambiarReserva(productoId, usuarioId, actual -> {
+            int previa = anterior[0] != null ? anterior[0].cantidad : 0;
+            ajustar(productoId, cantidad - previa);
+            return anterior[0];
+        }));
+    }
+
+    @Override
+    public void liberar(Long usuarioId, Long productoId) {
+        Reserva quitada = quitarReserva(productoId, usuarioId);
+        if (quitada != null) {
+            alRevertir(() -> reponerReserva(productoId, usuarioId, quitada));
+        }
+        reservaStockRepository.eliminar(usuarioId, productoId);
+    }
+
+    @Override
+    public void liberarTodas(Long usuarioId) {
+        Map<Long, Reserva> quitadas = new HashMap<>();
+        Set<Long> conReserva = productosPorUsuario.get(usuarioId);
+        for (Long productoId : conReserva != null ? new ArrayList<>(conReserva) : List.<Long>of()) {
+            Reserva r = quitarReserva(productoId, usuarioId);
+            if (r != null) {
+                quitadas.put(productoId, r);
+            }
+        }
+        if (!quitadas.isEmpty()) {
+            alRevertir(() -> quitadas.forEach((productoId, r) -> reponerReserva(productoId, usuarioId, r)));
+        }
+        reservaStockRepository.eliminarPorUsuario(usuarioId);
+    }
+
+    @Override
+    public List<Long> confirmar(Long usuarioId, Map<Long, Integer> cantidadesPorProducto) {
+        List<Long> faltantes = new ArrayList<>();
+        Map<Long, Integer> tomados = new HashMap<>(); // lo que no estaba reservado (o vencio)
+
+        for (Map.Entry<Long, Integer> e : new TreeMap<>(cantidadesPorProducto).entrySet()) {
+            Long productoId = e.getKey();
+            int delta = e.getValue() - reservado(usuarioId, productoId);
+            if (delta > 0) {
+                if (tomar(contador(productoId), delta)) {
+                    tomados.put(productoId, delta);
+                } else {
+                    faltantes.add(productoId);
+                }
+            }
+        }
+
+        if (!faltantes.isEmpty()) {
+            tomados.forEach(this::ajustar);
+            return faltantes;
+        }
+
+        reservaStockRepository.eliminarPorUsuarioYProductos(usuarioId, cantidadesPorProducto.keySet());
+
+        alTerminar(confirmada -> {
+            if (confirmada) {
+                // lo reservado ya se descontó del stock: se quita la reserva y despues se
+                // descarta el contador, en ese orden. Un contador recalculado en el medio
+                // (stock nuevo menos una reserva ya vendida) restaria dos veces; asi no
+                // sobrevive, llegue antes o despues el ProductosModificadosEvent
+                for (Long productoId : cantidadesPorProducto.keySet()) {
+                    cambiarReserva(productoId, usuarioId, actual -> null);
+                    disponibles.remove(productoId);
+                }
+            } else {
+                tomados.forEach(this::ajustar);
+            }
+        });
+        return List.of();
+    }
+
+    // VENCIMIENTOS
+
+    @Scheduled(fixedDelay = TICK_MS)
+    public void procesarVencimientos() {
+        long ahora = System.currentTimeMillis();
+        int liberadas = 0;
+        for (ClaveReserva clave : rueda.avanzar(ahora)) {
+            if (expirar(clave, ahora)) {
+                liberadas++;
+            }
+        }
+        if (liberadas > 0) {
+            reservaStockRepository.eliminarVencidas(aFecha(ahora));
+            logger.debug("Se liberaron {} reservas vencidas", liberadas);
+        }
+    }
+
+    private boolean expirar(ClaveReserva clave, long ahora) {
+        if (!reservas.containsKey(clave.productoId)) {
+            return false;
+        }
+        boolean[] liberada = new boolean[1];
+        cambiarReserva(clave.productoId, clave.usuarioId, actual -> {
+            // si se renovo, el vencimiento ya no es el agendado
+            if (actual == null || actual.venceEnMs != clave.venceEnMs || actual.venceEnMs > ahora) {
+                return actual;
+            }
+            ajustar(clave.productoId, actual.cantidad);
+            liberada[0] = true;
+            return null;
+        });
+        return liberada[0];
+    }
+
+    // SINCRONIZACION CON LA BASE
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recuperarReservas() {
+        try {
+            LocalDateTime ahora = LocalDateTime.now();
+            reservaStockRepository.eliminarVencidas(ahora);
+            List<ReservaStock> vigentes = reservaStockRepository.findByVenceEnAfter(ahora);
+            for (ReservaStock r : vigentes) {
+                long venceEn = r.getVenceEn().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+                Reserva reserva = new Reserva(r.getCantidad(), venceEn);
+                cambiarReserva(r.getProductoId(), r.getUsuarioId(), actual -> reserva);
+                rueda.agendar(new ClaveReserva(r.getProductoId(), r.getUsuarioId(), venceEn), venceEn);
+            }
+            logger.info("Reservas de stock recuperadas: {}", vigentes.size());
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron recuperar las reservas de stock: {}", e.getMessage(), e);
+        }
+    }
+
+    // el stock cambio en la base: el contador se recalcula (stock - reservas) en el
+    // proximo uso
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductosModificados(ProductosModificadosEvent event) {
+        event.getProductosIds().forEach(disponibles::remove);
+    }
+
+    // CONTADORES
+
+    // la consulta del stock va fuera de cualquier lock del mapa (computeIfAbsent la
+    // haria con el casillero tomado). El contador se siembra con el lock del producto
+    // en reservas, el mismo de cambiarReserva: una reserva que cambia mientras tanto
+    // o ya esta sumada en lo reservado, o ajusta el contador ya instalado. Si dos
+    // hilos lo calculan a la vez queda el primero
+    private AtomicInteger contador(Long productoId) {
+        AtomicInteger c = disponibles.get(productoId);
+        if (c != null) {
+            return c;
+        }
+        int stock = productoRepository.findStockById(productoId)
+                .orElseThrow(() -> new RecursoNoEncontrado("Producto no encontrado"));
+        AtomicInteger[] sembrado = new AtomicInteger[1];
+        reservas.compute(productoId, (k, delProducto) -> {
+            AtomicInteger nuevo = new AtomicInteger(stock - totalReservado(delProducto));
+            AtomicInteger existente = disponibles.putIfAbsent(productoId, nuevo);
+            sembrado[0] = existente != null ? existente : nuevo;
+            return delProducto;
+        });
+        return sembrado[0];
+    }
+
+    private static int totalReservado(Map<Long, Reserva> delProducto) {
+        if (delProducto == null) {
+            return 0;
+        }
+        int total = 0;
+        for (Reserva r : delProducto.values()) {
+            total += r.cantidad;
+        }
+        return total;
+    }
+
+    // resta 'cantidad' solo si alcanza (CAS, sin locks)
+    private boolean tomar(AtomicInteger c, int cantidad) {
+        while (true) {
+            int actual = c.get();
+            if (actual < cantidad) {
+                return false;
+            }
+            if (c.compareAndSet(actual, actual - cantidad)) {
+                return true;
+            }
+        }
+    }
+
+    // si el contador no esta cargado no hace falta: se va a calcular desde la base
+    private void ajustar(Long productoId, int delta) {
+        AtomicInteger c = disponibles.get(productoId);
+        if (c != null) {
+            c.addAndGet(delta);
+        }
+    }
+
+    // RESERVAS EN MEMORIA
+
+    // cambia la reserva de un usuario con el lock del producto en el mapa externo
+    // (null la quita) y descarta el mapa del producto si queda vacio: como todo cambio
+    // pasa por aca, nadie escribe en un mapa ya descartado. Una excepcion de cambio
+    // deja todo como estaba. El indice por usuario se actualiza dentro del mismo lock
+    private void cambiarReserva(Long productoId, Long usuarioId, UnaryOperator<Reserva> cambio) {
+        reservas.compute(productoId, (k, delProducto) -> {
+            ConcurrentHashMap<Long, Reserva> m = delProducto != null ? delProducto : new ConcurrentHashMap<>();
+            Reserva nueva = cambio.apply(m.get(usuarioId));
+            if (nueva != null) {
+                m.put(usuarioId, nueva);
+            } else {
+                m.remove(usuarioId);
+            }
+            indexar(usuarioId, productoId, nueva != null);
+            return m.isEmpty() ? null : m;
+        });
+    }
+
+    // con compute por usuario: un producto que se agrega nunca cae en un conjunto que
+    // otro hilo esta descartando por vacio
+    private void indexar(Long usuarioId, Long productoId, boolean conReserva) {
+        productosPorUsuario.compute(usuarioId, (k, productos) -> {
+            if (conReserva) {
+                Set<Long> s = productos != null ? productos : ConcurrentHashMap.newKeySet();
+                s.add(productoId);
+                return s;
+            }
+            if (productos == null) {
+                return null;
+            }
+            productos.remove(productoId);
+            return productos.isEmpty() ? null : productos;
+        });
+    }
+
+    // quita la reserva y devuelve sus unidades al contador
+    private Reserva quitarReserva(Long productoId, Long usuarioId) {
+        Reserva[] quitada = new Reserva[1];
+        cambiarReserva(productoId, usuarioId, actual -> {
+            if (actual != null) {
+                ajustar(productoId, actual.cantidad);
+                quitada[0] = actual;
+            }
+            return null;
+        });
+        return quitada[0];
+    }
+
+    private void reponerReserva(Long productoId, Long usuarioId, Reserva reserva) {
+        cambiarReserva(productoId, usuarioId, actual -> {
+            ajustar(productoId, -reserva.cantidad);
+            return reserva;
+        });
+    }
+
+    private void alRevertir(Runnable deshacer) {
+        alTerminar(confirmada -> {
+            if (!confirmada) {
+                deshacer.run();
+            }
+        });
+    }
+
+    // ejecuta la accion cuando termina la transaccion actual (true si se confirmo)
+    private void alTerminar(Consumer<Boolean> accion) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            accion.accept(true);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                accion.accept(status == STATUS_COMMITTED);
+            }
+        });
+    }
+
+    private static LocalDateTime aFecha(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
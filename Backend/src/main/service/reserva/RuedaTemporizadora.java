@@ -0,0 +1,70 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.reserva;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rueda de tiempo (hashed timing wheel) para vencimientos. Agendar es O(1) y en
+ * cada tick solo se revisa un casillero, sin importar cuantos vencimientos haya
+ * pendientes.
+ *
+ * Cada entrada guarda el numero absoluto de tick en el que vence; las que caen en
+ * el mismo casillero pero en una vuelta posterior se dejan para la siguiente
+ * pasada. Una entrada agendada justo mientras se procesa su casillero puede
+ * demorarse a lo sumo una vuelta completa; quien la recibe tiene que verificar
+ * igual que siga vencida.
+ */
+class RuedaTemporizadora<T> {
+
+    private static final class Entrada<T> {
+        final T valor;
+        final long tick;
+
+        Entrada(T valor, long tick) {
+            this.valor = valor;
+            this.tick = tick;
+        }
+    }
+
+    private final long tickMs;
+    private final long inicioMs;
+    private final List<Queue<Entrada<T>>> casilleros;
+    private final AtomicLong tickActual = new AtomicLong(0);
+
+    RuedaTemporizadora(long tickMs, int cantidadCasilleros) {
+        this.tickMs = tickMs;
+        this.inicioMs = System.currentTimeMillis();
+        this.casilleros = new ArrayList<>(cantidadCasilleros);
+        for (int i = 0; i < cantidadCasilleros; i++) {
+            casilleros.add(new ConcurrentLinkedQueue<>());
+        }
+    }
+
+    void agendar(T valor, long venceEnMs) {
+        // redondeo hacia arriba: nunca se avisa antes de tiempo
+        long tick = Math.max((venceEnMs - inicioMs + tickMs - 1) / tickMs, tickActual.get() + 1);
+        casilleros.get((int) (tick % casilleros.size())).add(new Entrada<>(valor, tick));
+    }
+
+    // avanza la rueda hasta el instante dado y devuelve lo que vencio
+    synchronized List<T> avanzar(long ahoraMs) {
+        List<T> vencidos = new ArrayList<>();
+        long hasta = (ahoraMs - inicioMs) / tickMs;
+        while (tickActual.get() < hasta) {
+            long tick = tickActual.incrementAndGet();
+            Iterator<Entrada<T>> it = casilleros.get((int) (tick % casilleros.size())).iterator();
+            while (it.hasNext()) {
+                Entrada<T> e = it.next();
+                if (e.tick <= tick) {
+                    it.remove();
+                    vencidos.add(e.valor);
+                }
+            }
+        }
+        return vencidos;
+    }
+}
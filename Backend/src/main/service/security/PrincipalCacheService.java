@@ -0,0 +1,103 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.security;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Cache de principals (id, email y rol) por email. JwtAuthFilter la usa en cada
+ * request en lugar de consultar usuarios. Las entradas se descartan cuando cambia
+ * el usuario (UsuarioModificadoEvent) y, como red de seguridad, despues de
+ * {@code application.security.principal-cache.ttl-segundos}.
+ *
+ * Como en CacheConVencimiento, cada invalidacion avanza una generacion: una carga
+ * que leyo la base antes de la invalidacion (por ejemplo el rol anterior de un
+ * ADMIN degradado) se devuelve pero no queda guardada.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrincipalCacheService {
+
+    private final UsuarioRepository usuarioRepository;
+
+    @Value("${application.security.principal-cache.ttl-segundos:300}")
+    private long ttlSegundos;
+    @Value("${application.security.principal-cache.max:10000}")
+    private int max;
+
+    private final Map<String, EntradaPrincipal> principales = new ConcurrentHashMap<>();
+    private final AtomicLong generacion = new AtomicLong();
+
+    private static final class EntradaPrincipal {
+        final UsuarioAutenticado usuario;
+        final long venceEnMs;
+
+        EntradaPrincipal(UsuarioAutenticado usuario, long venceEnMs) {
+            this.usuario = usuario;
+            this.venceEnMs = venceEnMs;
+        }
+    }
+
+    public UsuarioAutenticado cargar(String email) {
+        String clave = email.toLowerCase(Locale.ROOT);
+        long ahora = System.currentTimeMillis();
+
+        EntradaPrincipal entrada = principales.get(clave);
+        if (entrada != null && entrada.venceEnMs > ahora) {
+            return entrada.usuario;
+        }
+
+        long generacionInicial = generacion.get();
+        UsuarioAutenticado usuario = usuarioRepository.findByEmailIgnoreCase(email)
+                .map(u -> new UsuarioAutenticado(u.getId(), u.getEmail(), u.getRol()))
+                .orElseThrow(() -> new UsernameNotFoundException("Usuario no encontrado: " + email));
+
+        if (generacion.get() != generacionInicial) {
+            return usuario;
+        }
+        if (principales.size() >= max) {
+            liberarEspacio(ahora);
+        }
+        EntradaPrincipal nueva = new EntradaPrincipal(usuario, ahora + ttlSegundos * 1000);
+        principales.put(clave, nueva);
+        // una invalidacion entre el control y el put no llego a borrar esta entrada
+        if (generacion.get() != generacionInicial) {
+            principales.remove(clave, nueva);
+        }
+        return usuario;
+    }
+
+    // por id y no por email: si cambio el email, la entrada vieja tambien se va. La
+    // generacion avanza antes de borrar (ver cargar)
+    public void invalidar(Long usuarioId) {
+        generacion.incrementAndGet();
+        principales.values().removeIf(e -> e.usuario.getId().equals(usuarioId));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUsuarioModificado(UsuarioModificadoEvent event) {
+        invalidar(event.getUsuarioId());
+    }
+
+    private void liberarEspacio(long ahora) {
+        principales.values().removeIf(e -> e.venceEnMs <= ahora);
+        int aQuitar = principales.size() - max / 2;
+        Iterator<String> it = principales.keySet().iterator();
+        while (aQuitar-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
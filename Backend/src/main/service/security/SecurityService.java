@@ -4,9 +4,38 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+
 @Service
 public class SecurityService {
 
+    /**
+     * Obtiene el usuario autenticado (id, email y rol) sin consultar la base
+     */
+    public UsuarioAutenticado getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UsuarioAutenticado usuario) {
+            return usuario;
+        }
+        return null;
+    }
+
+    /**
+     * Obtiene el id del usuario autenticado
+     */
+    public Long getCurrentUserId() {
+        UsuarioAutenticado usuario = getCurrentUser();
+        return usuario != null ? usuario.getId() : null;
+    }
+
+    /**
+     * Obtiene el rol del usuario autenticado
+     */
+    public Rol getCurrentUserRol() {
+        UsuarioAutenticado usuario = getCurrentUser();
+        return usuario != null ? usuario.getRol() : null;
+    }
+
     /**
      * Obtiene el email del usuario autenticado
      */
@@ -0,0 +1,49 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.security;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+
+import lombok.Getter;
+
+/**
+ * Principal que queda en el SecurityContext en cada request autenticado. Lleva
+ * el id y el rol del usuario para que controllers y servicios no tengan que
+ * consultar la tabla usuarios para saber quien llama. No guarda la contraseña:
+ * el login sigue validando contra la base.
+ */
+@Getter
+public class UsuarioAutenticado implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final Rol rol;
+    private final List<GrantedAuthority> authorities;
+
+    public UsuarioAutenticado(Long id, String email, Rol rol) {
+        this.id = id;
+        this.email = email;
+        this.rol = rol;
+        this.authorities = List.of(new SimpleGrantedAuthority("ROLE_" + rol.name()));
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+}
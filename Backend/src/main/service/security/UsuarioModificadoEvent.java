@@ -0,0 +1,18 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.security;
+
+import lombok.Getter;
+
+/**
+ * Se publica cuando cambian datos de un usuario que viajan en su principal
+ * (email o rol). La cache de principals lo descarta cuando confirma la
+ * transaccion.
+ */
+@Getter
+public class UsuarioModificadoEvent {
+
+    private final Long usuarioId;
+
+    public UsuarioModificadoEvent(Long usuarioId) {
+        this.usuarioId = usuarioId;
+    }
+}
@@ -6,6 +6,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioCreateDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioUpdateDTO;
@@ -25,6 +26,14 @@ public interface UsuarioService {
 
     Page<UsuarioDTO> listarPorRol(Rol rol, Pageable pageable);
 
+    // variantes sin COUNT: hayMas y, si se pide, un total aproximado cacheado
+    PaginaSinTotalDTO<UsuarioDTO> listarSinTotal(Pageable pageable, boolean totalAproximado);
+
+    PaginaSinTotalDTO<UsuarioDTO> buscarSinTotal(String parametroBusqueda, Pageable pageable,
+            boolean totalAproximado);
+
+    PaginaSinTotalDTO<UsuarioDTO> listarPorRolSinTotal(Rol rol, Pageable pageable, boolean totalAproximado);
+
     UsuarioDTO actualizar(Long id, UsuarioUpdateDTO dto);
 
     boolean existePorUsername(String username);
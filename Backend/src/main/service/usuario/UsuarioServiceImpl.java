@@ -1,19 +1,26 @@
 package com.example.uade.tpo.ecommerce_grupo10.service.usuario;
 
+import java.util.Objects;
 import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
 import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
 import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.PaginaSinTotalDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioCreateDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.dtosUsuario.UsuarioUpdateDTO;
 import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperUsuario;
 import com.example.uade.tpo.ecommerce_grupo10.exceptions.RecursoNoEncontrado;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
 import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.paginacion.ConteosAproximados;
+import com.example.uade.tpo.ecommerce_grupo10.service.security.UsuarioModificadoEvent;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,6 +30,9 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     private final UsuarioRepository usuarioRepository;
     private final MapperUsuario mapperUsuario;
+    private final ProductoRepository productoRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ConteosAproximados conteosAproximados;
 
     @Override
     public UsuarioDTO crear(UsuarioCreateDTO dto) {
@@ -79,6 +89,30 @@ public class UsuarioServiceImpl implements UsuarioService {
         return usuarioRepository.findByRol(rol, pageable).map(mapperUsuario::toDTO);
     }
 
+    // sin @Transactional: la pagina se lee en su propia transaccion y el COUNT corre
+    // despues, fuera de ella (ver ConteosAproximados.pagina)
+    @Override
+    public PaginaSinTotalDTO<UsuarioDTO> listarSinTotal(Pageable pageable, boolean totalAproximado) {
+        return conteosAproximados.pagina(() -> usuarioRepository.findSliceBy(pageable).map(mapperUsuario::toDTO),
+                totalAproximado, "usuarios", "todos", usuarioRepository::count);
+    }
+
+    @Override
+    public PaginaSinTotalDTO<UsuarioDTO> buscarSinTotal(String parametroBusqueda, Pageable pageable,
+            boolean totalAproximado) {
+        return conteosAproximados.pagina(
+                () -> usuarioRepository.searchSlice(parametroBusqueda, pageable).map(mapperUsuario::toDTO),
+                totalAproximado, "usuarios-busqueda", parametroBusqueda,
+                () -> usuarioRepository.countSearch(parametroBusqueda));
+    }
+
+    @Override
+    public PaginaSinTotalDTO<UsuarioDTO> listarPorRolSinTotal(Rol rol, Pageable pageable, boolean totalAproximado) {
+        return conteosAproximados.pagina(
+                () -> usuarioRepository.findSliceByRol(rol, pageable).map(mapperUsuario::toDTO),
+                totalAproximado, "usuarios-por-rol", rol, () -> usuarioRepository.countByRol(rol));
+    }
+
     @Override
     public UsuarioDTO actualizar(Long id, UsuarioUpdateDTO dto) {
         Usuario u = usuarioRepository.findById(id).orElseThrow(() -> new RecursoNoEncontrado("Usuario no encontrado"));
@@ -88,6 +122,9 @@ public class UsuarioServiceImpl implements UsuarioService {
             throw new IllegalArgumentException("El email ya está en uso");
         }
 
+        boolean cambioNombre = !Objects.equals(u.getNombre(), dto.getNombre());
+        boolean cambioPrincipal = !u.getEmail().equalsIgnoreCase(dto.getEmail()) || u.getRol() != dto.getRol();
+
         u.setNombre(dto.getNombre());
         u.setApellido(dto.getApellido());
         u.setEmail(dto.getEmail());
@@ -96,6 +133,14 @@ public class UsuarioServiceImpl implements UsuarioService {
         u.setRol(dto.getRol());
 
         Usuario actualizado = usuarioRepository.save(u);
+        if (cambioPrincipal) {
+            // email y rol viajan en el principal cacheado
+            eventPublisher.publishEvent(new UsuarioModificadoEvent(id));
+        }
+        if (cambioNombre) {
+            // el nombre del vendedor se muestra en el catalogo publico
+            eventPublisher.publishEvent(new ProductosModificadosEvent(productoRepository.findIdsByVendedorId(id)));
+        }
         return mapperUsuario.toDTO(actualizado);
     }
 
@@ -0,0 +1,35 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.ventas;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoReconstruccionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaDiariaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.LineaVenta;
+
+// Ventas ya agregadas por producto, vendedor, categoria y dia (tabla resumen_ventas)
+// para los reportes de vendedores y administradores
+public interface ResumenVentasService {
+
+    // solo las ordenes en este estado cuentan como venta
+    String ESTADO_VENTA = "COMPLETADA";
+
+    // suma (signo 1) o resta (signo -1) las lineas cuando confirma la transaccion actual
+    void registrar(List<LineaVenta> lineas, int signo);
+
+    List<LineaVenta> lineasDeOrden(Long ordenId);
+
+    // un valor por dia del rango (con ceros en los dias sin ventas)
+    List<VentaDiariaDTO> diarias(DimensionVenta dimension, Long claveId, LocalDate desde, LocalDate hasta);
+
+    // PRODUCTO, VENDEDOR o CATEGORIA de mayor a menor ingreso
+    List<VentaAcumuladaDTO> ranking(DimensionVenta dimension, LocalDate desde, LocalDate hasta, int limite);
+
+    List<VentaAcumuladaDTO> rankingProductosDeVendedor(Long vendedorId, LocalDate desde, LocalDate hasta,
+            int limite);
+
+    // vuelve a calcular toda la tabla desde las ordenes
+    ResultadoReconstruccionDTO reconstruir();
+}
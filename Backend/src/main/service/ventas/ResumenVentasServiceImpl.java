@@ -0,0 +1,367 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.ventas;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ClaveResumenVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.DimensionVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.ResumenVenta;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ResultadoReconstruccionDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaAcumuladaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.VentaDiariaDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.LineaVenta;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ResumenVentaRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Cada venta suma una fila por (dimension, clave, dia) en resumen_ventas: una por
+ * producto, vendedor, categoria y una para el total. Los reportes leen solo esas
+ * filas, a lo sumo una por dia del rango, sin recorrer ordenes ni items.
+ *
+ * Las sumas se anotan despues del commit de la orden y las escribe un hilo propio,
+ * en su transaccion, con un INSERT ... ON DUPLICATE KEY UPDATE por fila: el
+ * checkout no pide una segunda conexion mientras todavia tiene la suya, y lo que
+ * se acumula mientras el hilo escribe se junta en una sola pasada (una fila por
+ * dimension, clave y dia). Si esa escritura falla la orden ya quedo confirmada; el
+ * resumen se corrige con la reconstruccion.
+ *
+ * El vendedor y la categoria de cada venta se guardan en el item al vender, y
+ * tanto las sumas como la reconstruccion usan esos: si despues el producto cambia
+ * de categoria o se borra, lo vendido sigue en las mismas filas. Los items
+ * anteriores a esas columnas toman los del producto actual.
+ *
+ * La reconstruccion parte el rango de fechas con ordenes en tramos de
+ * {@value #DIAS_POR_TRAMO} dias y los recalcula en paralelo, cada uno con un
+ * INSERT ... SELECT agrupado en la base. Una venta confirmada mientras se
+ * reconstruye su dia puede quedar contada dos veces (o ninguna); se corrige
+ * volviendo a reconstruir.
+ */
+@Service
+public class ResumenVentasServiceImpl implements ResumenVentasService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResumenVentasServiceImpl.class);
+
+    private static final int DIAS_POR_TRAMO = 7;
+    private static final int DIAS_MAX = 366;
+    private static final int LIMITE_MAX = 100;
+    private static final Long CLAVE_TOTAL = 0L;
+
+    private final ResumenVentaRepository resumenVentaRepository;
+    private final ItemOrdenRepository itemOrdenRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int hilos;
+
+    private final AtomicBoolean reconstruyendo = new AtomicBoolean();
+
+    // sumas de ordenes confirmadas que esperan al hilo escritor; programado evita
+    // encolar una pasada por cada orden
+    private final ConcurrentLinkedQueue<List<ResumenVenta>> pendientes = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean programado = new AtomicBoolean();
+    private final ExecutorService escritor = Executors.newSingleThreadExecutor(r -> {
+        Thread hilo = new Thread(r, "resumen-ventas-escritor");
+        hilo.setDaemon(true);
+        return hilo;
+    });
+
+    public ResumenVentasServiceImpl(ResumenVentaRepository resumenVentaRepository,
+            ItemOrdenRepository itemOrdenRepository,
+            PlatformTransactionManager transactionManager,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${application.ventas.reconstruccion.hilos:4}") int hilos) {
+        this.resumenVentaRepository = resumenVentaRepository;
+        this.itemOrdenRepository = itemOrdenRepository;
+        this.eventPublisher = eventPublisher;
+        // se usa despues del commit de otra transaccion y desde los hilos de la
+        // reconstruccion: siempre en una transaccion nueva
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.hilos = Math.max(1, hilos);
+    }
+
+    @Override
+    public void registrar(List<LineaVenta> lineas, int signo) {
+        if (lineas == null || lineas.isEmpty() || signo == 0) {
+            return;
+        }
+        // se agrega ahora (las lineas son valores, no entidades) y se escribe al confirmar
+        List<ResumenVenta> deltas = agregar(lineas, signo);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            encolar(deltas);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                encolar(deltas);
+            }
+        });
+    }
+
+    // lo pendiente se termina de escribir antes de cerrar
+    @PreDestroy
+    void detener() {
+        escritor.shutdown();
+    }
+
+    private void encolar(List<ResumenVenta> deltas) {
+        pendientes.add(deltas);
+        if (programado.compareAndSet(false, true)) {
+            escritor.execute(this::aplicarPendientes);
+        }
+    }
+
+    // en el hilo escritor. Lo que llega mientras se escribe queda para la pasada
+    // siguiente (programado ya se libero)
+    private void aplicarPendientes() {
+        programado.set(false);
+        Map<ClaveResumenVenta, ResumenVenta> filas = new HashMap<>();
+        for (List<ResumenVenta> deltas = pendientes.poll(); deltas != null; deltas = pendientes.poll()) {
+            for (ResumenVenta d : deltas) {
+                filas.merge(d.getClave(), d, (a, b) -> new ResumenVenta(a.getClave(),
+                        a.getIngresos() + b.getIngresos(), a.getUnidades() + b.getUnidades(),
+                        a.getOrdenes() + b.getOrdenes()));
+            }
+        }
+        if (!filas.isEmpty()) {
+            aplicar(new ArrayList<>(filas.values()));
+        }
+    }
+
+    // el evento sale aunque falle la escritura: la venta ya esta confirmada
+    private void aplicar(List<ResumenVenta> deltas) {
+        sumar(deltas);
+        Map<Long, Long> unidades = new HashMap<>();
+        for (ResumenVenta r : deltas) {
+            if (r.getClave().getDimension() == DimensionVenta.PRODUCTO) {
+                unidades.merge(r.getClave().getClaveId(), r.getUnidades(), Long::sum);
+            }
+        }
+        eventPublisher.publishEvent(new VentasRegistradasEvent(unidades));
+    }
+
+    @Override
+    public List<LineaVenta> lineasDeOrden(Long ordenId) {
+        return itemOrdenRepository.findLineasVenta(ordenId);
+    }
+
+    @Override
+    public List<VentaDiariaDTO> diarias(DimensionVenta dimension, Long claveId, LocalDate desde, LocalDate hasta) {
+        validarRango(desde, hasta);
+        if (dimension == null) {
+            throw new IllegalArgumentException("La dimension es obligatoria");
+        }
+        Long clave = dimension == DimensionVenta.TOTAL ? CLAVE_TOTAL : claveId;
+        if (clave == null) {
+            throw new IllegalArgumentException("El id es obligatorio para la dimension " + dimension);
+        }
+
+        Map<LocalDate, ResumenVenta> porDia = new HashMap<>();
+        for (ResumenVenta r : resumenVentaRepository.findSerie(dimension, clave, desde, hasta)) {
+            porDia.put(r.getClave().getFecha(), r);
+        }
+
+        List<VentaDiariaDTO> dias = new ArrayList<>();
+        for (LocalDate dia = desde; !dia.isAfter(hasta); dia = dia.plusDays(1)) {
+            ResumenVenta r = porDia.get(dia);
+            dias.add(r == null
+                    ? new VentaDiariaDTO(dia, 0.0, 0L, 0L)
+                    : new VentaDiariaDTO(dia, r.getIngresos(), r.getUnidades(), r.getOrdenes()));
+        }
+        return dias;
+    }
+
+    @Override
+    public List<VentaAcumuladaDTO> ranking(DimensionVenta dimension, LocalDate desde, LocalDate hasta, int limite) {
+        validarRango(desde, hasta);
+        PageRequest primeros = PageRequest.of(0, validarLimite(limite));
+        if (dimension == DimensionVenta.PRODUCTO) {
+            return resumenVentaRepository.findRankingProductos(desde, hasta, primeros);
+        }
+        if (dimension == DimensionVenta.VENDEDOR) {
+            return resumenVentaRepository.findRankingVendedores(desde, hasta, primeros);
+        }
+        if (dimension == DimensionVenta.CATEGORIA) {
+            return resumenVentaRepository.findRankingCategorias(desde, hasta, primeros);
+        }
+        throw new IllegalArgumentException("No hay ranking para la dimension " + dimension);
+    }
+
+    @Override
+    public List<VentaAcumuladaDTO> rankingProductosDeVendedor(Long vendedorId, LocalDate desde, LocalDate hasta,
+            int limite) {
+        validarRango(desde, hasta);
+        return resumenVentaRepository.findRankingProductosDeVendedor(vendedorId, desde, hasta,
+                PageRequest.of(0, validarLimite(limite)));
+    }
+
+    @Override
+    public ResultadoReconstruccionDTO reconstruir() {
+        if (!reconstruyendo.compareAndSet(false, true)) {
+            throw new IllegalArgumentException("Ya hay una reconstruccion de ventas en curso");
+        }
+        try {
+            return reconstruirTodo();
+        } finally {
+            reconstruyendo.set(false);
+        }
+    }
+
+    // Si la tabla esta vacia (primer arranque con ventas previas) se llena en segundo plano
+    @EventListener(ApplicationReadyEvent.class)
+    public void iniciar() {
+        try {
+            if (resumenVentaRepository.count() > 0) {
+                return;
+            }
+        } catch (RuntimeException e) {
+            logger.error("No se pudo revisar el resumen de ventas al iniciar: {}", e.getMessage(), e);
+            return;
+        }
+        Thread hilo = new Thread(() -> {
+            try {
+                reconstruir();
+            } catch (RuntimeException e) {
+                logger.error("No se pudo reconstruir el resumen de ventas al iniciar: {}", e.getMessage(), e);
+            }
+        }, "resumen-ventas");
+        hilo.setDaemon(true);
+        hilo.start();
+    }
+
+    private ResultadoReconstruccionDTO reconstruirTodo() {
+        long inicio = System.currentTimeMillis();
+        LocalDate[] rango = resumenVentaRepository.rangoDeOrdenes(ESTADO_VENTA);
+        if (rango == null) {
+            transactionTemplate.executeWithoutResult(status -> resumenVentaRepository.deleteAllInBatch());
+            return new ResultadoReconstruccionDTO(null, null, 0, 0, System.currentTimeMillis() - inicio);
+        }
+        LocalDate desde = rango[0];
+        LocalDate hasta = rango[1];
+        transactionTemplate.executeWithoutResult(status -> resumenVentaRepository.borrarFueraDe(desde, hasta));
+
+        List<LocalDate[]> tramos = new ArrayList<>();
+        for (LocalDate d = desde; !d.isAfter(hasta); d = d.plusDays(DIAS_POR_TRAMO)) {
+            LocalDate fin = d.plusDays(DIAS_POR_TRAMO - 1);
+            tramos.add(new LocalDate[] { d, fin.isAfter(hasta) ? hasta : fin });
+        }
+
+        // cada tramo es independiente (borra y vuelve a insertar sus dias) y va en su
+        // propia transaccion; los que ya terminaron quedan aunque otro falle
+        AtomicInteger filas = new AtomicInteger();
+        ExecutorService pool = Executors.newFixedThreadPool(Math.min(hilos, tramos.size()));
+        try {
+            List<Future<?>> pendientes = new ArrayList<>(tramos.size());
+            for (LocalDate[] tramo : tramos) {
+                pendientes.add(pool.submit(() -> filas.addAndGet(transactionTemplate.execute(
+                        status -> resumenVentaRepository.reconstruir(tramo[0], tramo[1], ESTADO_VENTA)))));
+            }
+            for (Future<?> f : pendientes) {
+                f.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstruccion del resumen de ventas interrumpida", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new IllegalStateException("No se pudo reconstruir el resumen de ventas", e.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long ms = System.currentTimeMillis() - inicio;
+        logger.info("Resumen de ventas reconstruido del {} al {}: {} tramos, {} filas en {} ms", desde, hasta,
+                tramos.size(), filas.get(), ms);
+        return new ResultadoReconstruccionDTO(desde, hasta, tramos.size(), filas.get(), ms);
+    }
+
+    private void sumar(List<ResumenVenta> deltas) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> resumenVentaRepository.sumar(deltas));
+        } catch (RuntimeException e) {
+            // la orden ya esta confirmada: el resumen queda atrasado hasta reconstruirlo
+            logger.error("No se pudo actualizar el resumen de ventas ({} filas), reconstruirlo con "
+                    + "POST /admin/ventas/reconstruir: {}", deltas.size(), e.getMessage(), e);
+        }
+    }
+
+    // una fila por dimension, clave y dia; ordenes cuenta cada orden una sola vez por fila
+    private List<ResumenVenta> agregar(List<LineaVenta> lineas, int signo) {
+        Map<ClaveResumenVenta, ResumenVenta> filas = new HashMap<>();
+        Map<ClaveResumenVenta, Set<Long>> ordenes = new HashMap<>();
+        for (LineaVenta l : lineas) {
+            LocalDate dia = l.getFecha().toLocalDate();
+            acumular(filas, ordenes, new ClaveResumenVenta(DimensionVenta.PRODUCTO, l.getProductoId(), dia), l,
+                    signo);
+            if (l.getVendedorId() != null) {
+                acumular(filas, ordenes, new ClaveResumenVenta(DimensionVenta.VENDEDOR, l.getVendedorId(), dia), l,
+                        signo);
+            }
+            if (l.getCategoriaId() != null) {
+                acumular(filas, ordenes, new ClaveResumenVenta(DimensionVenta.CATEGORIA, l.getCategoriaId(), dia),
+                        l, signo);
+            }
+            acumular(filas, ordenes, new ClaveResumenVenta(DimensionVenta.TOTAL, CLAVE_TOTAL, dia), l, signo);
+        }
+        filas.forEach((clave, fila) -> fila.setOrdenes((long) ordenes.get(clave).size() * signo));
+        return new ArrayList<>(filas.values());
+    }
+
+    private void acumular(Map<ClaveResumenVenta, ResumenVenta> filas, Map<ClaveResumenVenta, Set<Long>> ordenes,
+            ClaveResumenVenta clave, LineaVenta linea, int signo) {
+        ResumenVenta fila = filas.computeIfAbsent(clave, k -> new ResumenVenta(k, 0.0, 0L, 0L));
+        fila.setIngresos(fila.getIngresos() + linea.getIngresos() * signo);
+        fila.setUnidades(fila.getUnidades() + (long) linea.getUnidades() * signo);
+        ordenes.computeIfAbsent(clave, k -> new HashSet<>()).add(linea.getOrdenId());
+    }
+
+    private void validarRango(LocalDate desde, LocalDate hasta) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Las fechas desde y hasta son obligatorias");
+        }
+        if (desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha desde no puede ser posterior a hasta");
+        }
+        if (ChronoUnit.DAYS.between(desde, hasta) >= DIAS_MAX) {
+            throw new IllegalArgumentException("El rango no puede superar los " + DIAS_MAX + " dias");
+        }
+    }
+
+    private int validarLimite(int limite) {
+        if (limite < 1 || limite > LIMITE_MAX) {
+            throw new IllegalArgumentException("El limite debe estar entre 1 y " + LIMITE_MAX);
+        }
+        return limite;
+    }
+}
@@ -0,0 +1,17 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.ventas;
+
+import java.util.Map;
+
+import lombok.Getter;
+
+// Evento que se publica cuando se suman (o restan, si la orden deja de estar
+// COMPLETADA) ventas al resumen, despues del commit: unidades por producto
+@Getter
+public class VentasRegistradasEvent {
+
+    private final Map<Long, Long> unidadesPorProducto;
+
+    public VentasRegistradasEvent(Map<Long, Long> unidadesPorProducto) {
+        this.unidadesPorProducto = Map.copyOf(unidadesPorProducto);
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.uade.tpo.ecommerce_grupo10.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.JsonSerializado;
+
+// ETag, If-None-Match e If-Modified-Since sin levantar el contexto: con la version
+// que ya tiene el cliente se responde 304 sin calcular el cuerpo
+class RespuestaCondicionalTests {
+
+    private static final long VERSION = 1_700_000_000_123L;
+    private static final String ETAG = "\"" + Long.toString(VERSION, 36) + "\"";
+    private static final String ETAG_GZIP = "\"" + Long.toString(VERSION, 36) + "-gz\"";
+
+    private final RespuestaCondicional respuesta = new RespuestaCondicional(30, 60);
+    private final AtomicInteger calculados = new AtomicInteger();
+
+    private final Supplier<String> cuerpo = () -> {
+        calculados.incrementAndGet();
+        return "catalogo";
+    };
+
+    private ResponseEntity<String> responder(MockHttpServletRequest request) {
+        return respuesta.responder(request, VERSION, cuerpo);
+    }
+
+    private static MockHttpServletRequest pedido(String encabezado, Object valor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/productos-publicos");
+        request.addHeader(encabezado, valor);
+        return request;
+    }
+
+    @Test
+    void sinEncabezadosDevuelveElCuerpoConValidadores() {
+        ResponseEntity<String> r = responder(new MockHttpServletRequest("GET", "/productos-publicos"));
+
+        assertEquals(HttpStatus.OK, r.getStatusCode());
+        assertEquals("catalogo", r.getBody());
+        assertEquals(ETAG, r.getHeaders().getETag());
+        // Last-Modified en segundos
+        assertEquals(VERSION / 1000 * 1000, r.getHeaders().getLastModified());
+        String cacheControl = r.getHeaders().getCacheControl();
+        assertTrue(cacheControl.contains("max-age=30"), cacheControl);
+        assertTrue(cacheControl.contains("public"), cacheControl);
+        assertTrue(cacheControl.contains("stale-while-revalidate=60"), cacheControl);
+        assertEquals(1, calculados.get());
+    }
+
+    @Test
+    void ifNoneMatch() {
+        for (String valor : List.of(ETAG, "W/" + ETAG, "\"otro\", " + ETAG, "*")) {
+            ResponseEntity<String> r = responder(pedido(HttpHeaders.IF_NONE_MATCH, valor));
+            assertEquals(HttpStatus.NOT_MODIFIED, r.getStatusCode(), valor);
+            assertNull(r.getBody());
+            assertEquals(ETAG, r.getHeaders().getETag());
+        }
+        assertEquals(0, calculados.get());
+
+        ResponseEntity<String> r = responder(pedido(HttpHeaders.IF_NONE_MATCH, "\"" + Long.toString(VERSION - 1, 36)
+                + "\""));
+        assertEquals(HttpStatus.OK, r.getStatusCode());
+        assertEquals(1, calculados.get());
+    }
+
+    @Test
+    void ifModifiedSince() {
+        // el cliente tiene el Last-Modified que se le mando (truncado a segundos)
+        ResponseEntity<String> r = responder(pedido(HttpHeaders.IF_MODIFIED_SINCE, VERSION / 1000 * 1000));
+        assertEquals(HttpStatus.NOT_MODIFIED, r.getStatusCode());
+
+        r = responder(pedido(HttpHeaders.IF_MODIFIED_SINCE, VERSION / 1000 * 1000 - 1000));
+        assertEquals(HttpStatus.OK, r.getStatusCode());
+
+        // fecha mal formada: se ignora
+        r = responder(pedido(HttpHeaders.IF_MODIFIED_SINCE, "ayer"));
+        assertEquals(HttpStatus.OK, r.getStatusCode());
+        assertEquals(2, calculados.get());
+    }
+
+    @Test
+    void ifNoneMatchMandaSobreIfModifiedSince() {
+        MockHttpServletRequest request = pedido(HttpHeaders.IF_NONE_MATCH, "\"otro\"");
+        request.addHeader(HttpHeaders.IF_MODIFIED_SINCE, VERSION + 60_000);
+
+        assertEquals(HttpStatus.OK, responder(request).getStatusCode());
+    }
+
+    @Test
+    void jsonConGzipTieneSuPropioEtag() {
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        JsonSerializado serializado = JsonSerializado.de(json);
+
+        ResponseEntity<byte[]> r = respuesta.responderJson(pedido(HttpHeaders.ACCEPT_ENCODING, "br, gzip"), VERSION,
+                () -> serializado);
+        assertEquals(HttpStatus.OK, r.getStatusCode());
+        assertEquals(ETAG_GZIP, r.getHeaders().getETag());
+        assertEquals("gzip", r.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), r.getHeaders().getVary());
+        assertArrayEquals(serializado.getGzip(), r.getBody());
+
+        // gzip con q=0 no cuenta: va sin comprimir y con el ETag comun
+        r = respuesta.responderJson(pedido(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"), VERSION, () -> serializado);
+        assertEquals(ETAG, r.getHeaders().getETag());
+        assertNull(r.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(json, r.getBody());
+
+        // el ETag sin comprimir no valida la version comprimida
+        MockHttpServletRequest request = pedido(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+        assertEquals(HttpStatus.OK, respuesta.responderJson(request, VERSION, () -> serializado).getStatusCode());
+
+        request = pedido(HttpHeaders.ACCEPT_ENCODING, "gzip");
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG_GZIP);
+        r = respuesta.responderJson(request, VERSION, () -> {
+            throw new AssertionError("no se tiene que serializar");
+        });
+        assertEquals(HttpStatus.NOT_MODIFIED, r.getStatusCode());
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), r.getHeaders().getVary());
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.uade.tpo.ecommerce_grupo10.service;
+
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Datos compartidos por las pruebas que escriben en la base: todo lo que crean lleva
+// el mismo prefijo al azar (usuarios, productos, categoria) y limpiar() lo borra
+// junto con sus ordenes, carritos y reservas
+public final class DatosDePrueba {
+
+    private final String prefijo;
+    private final UsuarioRepository usuarioRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    public DatosDePrueba(String prueba, UsuarioRepository usuarioRepository, JdbcTemplate jdbcTemplate) {
+        this.prefijo = prueba + "-" + UUID.randomUUID().toString().substring(0, 8);
+        this.usuarioRepository = usuarioRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String prefijo() {
+        return prefijo;
+    }
+
+    // nombre para un producto o cualquier otra fila que limpiar() tiene que encontrar
+    public String nombre(String nombre) {
+        return prefijo + "-" + nombre;
+    }
+
+    public Usuario crearUsuario(String nombre, Rol rol) {
+        Usuario u = new Usuario();
+        u.setUsername(nombre(nombre));
+        u.setPassword("password");
+        u.setNombre(nombre);
+        u.setApellido("Prueba");
+        u.setEmail(nombre(nombre) + "@test.com");
+        u.setTelefono("000");
+        u.setDireccion("-");
+        u.setRol(rol);
+        return usuarioRepository.save(u);
+    }
+
+    // estadisticas de Hibernate en cero, para contar las sentencias de lo que sigue
+    // (la prueba tiene que levantar el contexto con hibernate.generate_statistics)
+    public static Statistics estadisticasEnCero(EntityManagerFactory entityManagerFactory) {
+        Statistics estadisticas = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        estadisticas.clear();
+        return estadisticas;
+    }
+
+    public void limpiar() {
+        String nombres = prefijo + "-%";
+        jdbcTemplate.update("DELETE io FROM items_ordenes io JOIN ordenes o ON io.orden_id = o.id "
+                + "JOIN usuarios u ON o.usuario_id = u.id WHERE u.username LIKE ?", nombres);
+        jdbcTemplate.update("DELETE o FROM ordenes o JOIN usuarios u ON o.usuario_id = u.id "
+                + "WHERE u.username LIKE ?", nombres);
+        jdbcTemplate.update("DELETE ic FROM items_carrito ic JOIN carritos c ON ic.carrito_id = c.id "
+                + "JOIN usuarios u ON c.usuario_id = u.id WHERE u.username LIKE ?", nombres);
+        jdbcTemplate.update("DELETE c FROM carritos c JOIN usuarios u ON c.usuario_id = u.id "
+                + "WHERE u.username LIKE ?", nombres);
+        jdbcTemplate.update("DELETE r FROM reservas_stock r JOIN productos p ON r.producto_id = p.id "
+                + "WHERE p.titulo LIKE ?", nombres);
+        jdbcTemplate.update("DELETE FROM productos WHERE titulo LIKE ?", nombres);
+        jdbcTemplate.update("DELETE FROM usuarios WHERE username LIKE ?", nombres);
+        jdbcTemplate.update("DELETE FROM categorias WHERE nombre = ?", prefijo);
+    }
+}
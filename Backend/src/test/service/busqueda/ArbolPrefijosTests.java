@@ -0,0 +1,131 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.busqueda;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// El arbol solo, sin Spring: las K mejores de cada prefijo y que se mantengan al
+// agregar, quitar y cambiar pesos igual que si se armara de cero
+class ArbolPrefijosTests {
+
+    private static ArbolPrefijos.Entrada producto(long id, String texto, long peso) {
+        return new ArbolPrefijos.Entrada("PRODUCTO", id, texto, peso);
+    }
+
+    private static List<Long> ids(List<ArbolPrefijos.Entrada> entradas) {
+        return entradas.stream().map(e -> e.id).toList();
+    }
+
+    @Test
+    void devuelveLasMejoresPorPesoHastaK() {
+        ArbolPrefijos arbol = new ArbolPrefijos();
+        for (long id = 1; id <= 25; id++) {
+            arbol.agregar("tv " + id, producto(id, "tv " + id, id));
+        }
+
+        List<ArbolPrefijos.Entrada> sugeridas = arbol.sugerir("tv", ArbolPrefijos.K);
+        assertEquals(List.of(25L, 24L, 23L, 22L, 21L, 20L, 19L, 18L, 17L, 16L), ids(sugeridas));
+        assertEquals(List.of(25L, 24L, 23L), ids(arbol.sugerir("t", 3)));
+        // el prefijo puede terminar a mitad de un tramo
+        assertEquals(List.of(19L, 18L, 17L, 16L, 15L, 14L, 13L, 12L, 11L, 10L), ids(arbol.sugerir("tv 1", 10)));
+        assertEquals(List.of(25L, 24L, 23L, 22L, 21L, 20L, 2L), ids(arbol.sugerir("tv 2", 10)));
+        assertTrue(arbol.sugerir("radio", 10).isEmpty());
+        assertTrue(arbol.sugerir("tv 99", 10).isEmpty());
+    }
+
+    @Test
+    void unaEntradaConVariasClavesCuentaUnaVez() {
+        ArbolPrefijos arbol = new ArbolPrefijos();
+        ArbolPrefijos.Entrada tv = producto(1, "tv samsung", 50);
+        arbol.agregar("tv samsung", tv);
+        arbol.agregar("samsung", tv);
+        arbol.agregar("samsung galaxy", producto(2, "samsung galaxy", 10));
+        arbol.agregar("s", producto(3, "s", 1));
+
+        assertEquals(List.of(1L, 2L, 3L), ids(arbol.sugerir("s", 10)));
+        assertEquals(List.of(1L), ids(arbol.sugerir("tv", 10)));
+    }
+
+    @Test
+    void quitarYCambiarPesoActualizanLasListas() {
+        ArbolPrefijos arbol = new ArbolPrefijos();
+        ArbolPrefijos.Entrada mesa = producto(1, "mesa", 30);
+        ArbolPrefijos.Entrada mesita = producto(2, "mesita", 20);
+        ArbolPrefijos.Entrada mesada = producto(3, "mesada", 10);
+        arbol.agregar("mesa", mesa);
+        arbol.agregar("mesita", mesita);
+        arbol.agregar("mesada", mesada);
+        assertEquals(List.of(1L, 2L, 3L), ids(arbol.sugerir("mes", 10)));
+
+        // mas ventas: el mismo producto con otro peso reemplaza al anterior
+        arbol.quitar("mesada", mesada);
+        arbol.agregar("mesada", producto(3, "mesada", 40));
+        assertEquals(List.of(3L, 1L, 2L), ids(arbol.sugerir("mes", 10)));
+        assertEquals(List.of(3L, 1L), ids(arbol.sugerir("mesa", 10)));
+
+        // al quitar "mesa" el nodo queda sin terminales y se junta con su unico hijo
+        arbol.quitar("mesa", mesa);
+        assertEquals(List.of(3L, 2L), ids(arbol.sugerir("mes", 10)));
+        assertEquals(List.of(3L), ids(arbol.sugerir("mesa", 10)));
+        assertEquals(List.of(3L), ids(arbol.sugerir("mesad", 10)));
+
+        arbol.quitar("mesita", mesita);
+        arbol.quitar("mesada", producto(3, "mesada", 40));
+        assertTrue(arbol.sugerir("m", 10).isEmpty());
+
+        // quitar algo que no esta no cambia nada
+        arbol.agregar("mesa", mesa);
+        arbol.quitar("mesas", mesa);
+        arbol.quitar("mesa", mesita);
+        assertEquals(List.of(1L), ids(arbol.sugerir("me", 10)));
+    }
+
+    // muchas altas, bajas y cambios de peso al azar: cada prefijo tiene que dar lo
+    // mismo que un arbol armado de cero con la carga completa
+    @Test
+    void incrementalIgualACargaCompleta() {
+        Random azar = new Random(42);
+        String[] palabras = { "tv", "tele", "televisor", "tablet", "mesa", "mesita", "silla", "sillon" };
+        int productos = 300;
+        String[] claves = new String[productos];
+        ArbolPrefijos.Entrada[] actuales = new ArbolPrefijos.Entrada[productos];
+        ArbolPrefijos incremental = new ArbolPrefijos();
+
+        for (int paso = 0; paso < 3000; paso++) {
+            int i = azar.nextInt(productos);
+            if (actuales[i] != null) {
+                incremental.quitar(claves[i], actuales[i]);
+                actuales[i] = null;
+            }
+            if (azar.nextInt(4) > 0) {
+                claves[i] = palabras[azar.nextInt(palabras.length)] + " " + azar.nextInt(20);
+                actuales[i] = producto(i, claves[i], azar.nextInt(50));
+                incremental.agregar(claves[i], actuales[i]);
+            }
+        }
+
+        ArbolPrefijos completo = new ArbolPrefijos();
+        for (int i = 0; i < productos; i++) {
+            if (actuales[i] != null) {
+                completo.agregarSinRecalcular(claves[i], actuales[i]);
+            }
+        }
+        completo.recalcularTodo();
+
+        List<String> prefijos = new ArrayList<>(List.of("t", "te", "tel", "tv ", "m", "mesa", "mesi", "s", "sillo"));
+        for (String palabra : palabras) {
+            for (int n = 0; n < 20; n++) {
+                prefijos.add(palabra + " " + n);
+            }
+        }
+        for (String prefijo : prefijos) {
+            assertEquals(ids(completo.sugerir(prefijo, ArbolPrefijos.K)),
+                    ids(incremental.sugerir(prefijo, ArbolPrefijos.K)), prefijo);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.catalogo;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+
+// Los bitsets solos, sin Spring: cada faceta se cuenta con todos los filtros menos
+// el suyo, y la pagina sale por id (o en el orden del texto)
+class FacetasCatalogoTests {
+
+    private FacetasCatalogo facetas;
+
+    private static ProductoDTO producto(long id, long categoriaId, long vendedorId, double precio,
+            boolean descuento) {
+        return ProductoDTO.builder()
+                .id(id)
+                .categoriaId(categoriaId)
+                .categoriaNombre("categoria " + categoriaId)
+                .vendedorId(vendedorId)
+                .precio(precio)
+                .tieneDescuento(descuento)
+                .build();
+    }
+
+    private void sincronizar(ProductoDTO p) {
+        facetas.sincronizar(p.getId(), () -> p);
+    }
+
+    // rangos: 0-1000, 1000-5000, 5000-10000, 10000-50000, 50000-100000, 100000+
+    @BeforeEach
+    void preparar() {
+        facetas = new FacetasCatalogo();
+        sincronizar(producto(1, 10, 100, 500, true));
+        sincronizar(producto(2, 10, 100, 2_000, false));
+        sincronizar(producto(3, 20, 200, 7_000, true));
+        sincronizar(producto(4, 20, 100, 60_000, false));
+        sincronizar(producto(5, 10, 200, 200_000, false));
+    }
+
+    @Test
+    void sinFiltrosCuentaTodo() {
+        FacetasCatalogo.Resultado r = facetas.filtrar(null, null, null, null, null, null, 0, 10);
+
+        assertEquals(5, r.total);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), r.pagina);
+        assertEquals(Map.of(10L, 3L, 20L, 2L), r.porCategoria);
+        assertArrayEquals(new long[] { 1, 1, 1, 0, 1, 1 }, r.porRango);
+        assertEquals(2, r.conDescuento);
+        assertEquals(3, r.sinDescuento);
+        assertEquals("categoria 20", facetas.nombreCategoria(20L));
+    }
+
+    @Test
+    void cadaFacetaIgnoraSuPropioFiltro() {
+        FacetasCatalogo.Resultado r = facetas.filtrar(null, 10L, null, null, null, null, 0, 10);
+
+        assertEquals(3, r.total);
+        assertEquals(List.of(1L, 2L, 5L), r.pagina);
+        // las categorias se cuentan sin el filtro de categoria
+        assertEquals(Map.of(10L, 3L, 20L, 2L), r.porCategoria);
+        // el resto, dentro de la categoria elegida
+        assertArrayEquals(new long[] { 1, 1, 0, 0, 0, 1 }, r.porRango);
+        assertEquals(1, r.conDescuento);
+        assertEquals(2, r.sinDescuento);
+
+        r = facetas.filtrar(null, null, null, null, 100L, false, 0, 10);
+        assertEquals(List.of(2L, 4L), r.pagina);
+        assertEquals(Map.of(10L, 1L, 20L, 1L), r.porCategoria);
+        assertArrayEquals(new long[] { 0, 1, 0, 0, 1, 0 }, r.porRango);
+        // descuento se cuenta solo con el vendedor
+        assertEquals(1, r.conDescuento);
+        assertEquals(2, r.sinDescuento);
+    }
+
+    @Test
+    void precioYPaginacion() {
+        FacetasCatalogo.Resultado r = facetas.filtrar(null, null, 1_000.0, 10_000.0, null, null, 1, 1);
+
+        assertEquals(2, r.total);
+        assertEquals(List.of(3L), r.pagina);
+        // los rangos se cuentan sin el filtro de precio
+        assertArrayEquals(new long[] { 1, 1, 1, 0, 1, 1 }, r.porRango);
+        assertEquals(Map.of(10L, 1L, 20L, 1L), r.porCategoria);
+    }
+
+    @Test
+    void conTextoRespetaElOrdenDeLosIds() {
+        FacetasCatalogo.Resultado r = facetas.filtrar(List.of(5L, 3L, 99L, 1L), null, null, null, null, null, 0, 10);
+
+        assertEquals(3, r.total);
+        assertEquals(List.of(5L, 3L, 1L), r.pagina);
+        assertEquals(Map.of(10L, 2L, 20L, 1L), r.porCategoria);
+
+        r = facetas.filtrar(List.of(5L, 3L, 99L, 1L), null, null, null, null, true, 1, 5);
+        assertEquals(2, r.total);
+        assertEquals(List.of(1L), r.pagina);
+    }
+
+    @Test
+    void actualizarQuitarYVolverAAgregar() {
+        // cambia de categoria, precio y descuento
+        sincronizar(producto(3, 10, 200, 500, false));
+        facetas.sincronizar(1L, () -> null);
+
+        FacetasCatalogo.Resultado r = facetas.filtrar(null, null, null, null, null, null, 0, 10);
+        assertEquals(List.of(2L, 3L, 4L, 5L), r.pagina);
+        assertEquals(Map.of(10L, 3L, 20L, 1L), r.porCategoria);
+        assertArrayEquals(new long[] { 1, 1, 0, 0, 1, 1 }, r.porRango);
+        assertEquals(0, r.conDescuento);
+
+        // vuelve a su lugar por id, y un id menor que el ultimo tambien
+        sincronizar(producto(1, 10, 100, 500, true));
+        facetas.sincronizar(0L, () -> producto(0, 20, 100, 500, false));
+        r = facetas.filtrar(null, null, null, null, null, null, 0, 10);
+        assertEquals(List.of(0L, 1L, 2L, 3L, 4L, 5L), r.pagina);
+        assertEquals(Map.of(10L, 4L, 20L, 2L), r.porCategoria);
+        assertEquals(1, r.conDescuento);
+    }
+}
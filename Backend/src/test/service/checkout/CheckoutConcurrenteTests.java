@@ -0,0 +1,194 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.checkout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.cart.ItemCarrito;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CarritoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemCarritoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.DatosDePrueba;
+import com.example.uade.tpo.ecommerce_grupo10.service.carrito.CarritoService;
+
+// Muchos compradores hacen checkout del mismo producto a la vez: se tienen que
+// vender exactamente las unidades en stock, ni una mas. La misma carga se corre
+// tambien como antes del descuento condicionado (la fila del producto bloqueada
+// desde el inicio de cada checkout) para comparar los checkouts por segundo
+@SpringBootTest
+class CheckoutConcurrenteTests {
+
+    private static final int STOCK_INICIAL = 50;
+    private static final int COMPRADORES = 300;
+    private static final int HILOS = 32;
+    // margen para el ruido de la medicion: el camino actual no puede quedar por
+    // debajo de esta fraccion del bloqueo pesimista
+    private static final double TOLERANCIA = 0.8;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private CarritoRepository carritoRepository;
+
+    @Autowired
+    private ItemCarritoRepository itemCarritoRepository;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosDePrueba datos;
+    private Categoria categoria;
+    private Usuario vendedor;
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosDePrueba("stress", usuarioRepository, jdbcTemplate);
+        Categoria c = new Categoria();
+        c.setNombre(datos.prefijo());
+        categoria = categoriaRepository.save(c);
+        vendedor = datos.crearUsuario("vendedor", Rol.VENDEDOR);
+    }
+
+    @Test
+    void checkoutsConcurrentesNoVendenMasQueElStock(TestReporter reporte) throws Exception {
+        // primero el camino anterior, asi el actual no corre con la base mas fria
+        double pesimista = correr("pesimista", true);
+        double actual = correr("actual", false);
+
+        reporte.publishEntry("checkouts por segundo (pesimista)", String.format("%.1f", pesimista));
+        reporte.publishEntry("checkouts por segundo (actual)", String.format("%.1f", actual));
+        assertTrue(actual >= pesimista * TOLERANCIA,
+                "el descuento condicionado bajo de " + pesimista + " a " + actual + " checkouts/s");
+    }
+
+    // corre COMPRADORES checkouts en paralelo contra un producto nuevo y devuelve los
+    // checkouts por segundo. bloquearFila: cada checkout toma el lock de la fila del
+    // producto al empezar y lo tiene toda la transaccion, como el leer-restar-guardar
+    private double correr(String tanda, boolean bloquearFila) throws Exception {
+        Producto producto = new Producto();
+        producto.setTitulo(datos.nombre(tanda));
+        producto.setDescripcion("Producto para prueba de concurrencia");
+        producto.setPrecio(100.0);
+        producto.setStock(STOCK_INICIAL);
+        producto.setCategoria(categoria);
+        producto.setVendedor(vendedor);
+        Long productoId = productoRepository.save(producto).getId();
+
+        // cada comprador tiene 1 unidad en el carrito. Los items se cargan sin pasar
+        // por agregarItem (como si sus reservas ya hubieran vencido): si no, la
+        // reserva cortaria en 50 antes de llegar al checkout
+        List<Long> compradores = new ArrayList<>();
+        for (int i = 0; i < COMPRADORES; i++) {
+            Long id = datos.crearUsuario(tanda + "-comprador" + i, Rol.COMPRADOR).getId();
+            carritoService.crearSiNoExiste(id);
+            ItemCarrito it = new ItemCarrito();
+            it.setCarrito(carritoRepository.findByUsuarioId(id).orElseThrow());
+            it.setProducto(producto);
+            it.setCantidad(1);
+            it.setPrecioUnitario(producto.getPrecio());
+            itemCarritoRepository.save(it);
+            compradores.add(id);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(HILOS);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicInteger exitosos = new AtomicInteger();
+        List<String> rechazos = Collections.synchronizedList(new ArrayList<>());
+
+        List<Future<?>> tareas = new ArrayList<>();
+        for (Long compradorId : compradores) {
+            tareas.add(pool.submit(() -> {
+                largada.await();
+                try {
+                    if (bloquearFila) {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            jdbcTemplate.queryForObject("SELECT stock FROM productos WHERE id = ? FOR UPDATE",
+                                    Integer.class, productoId);
+                            checkoutService.realizarCheckout(compradorId);
+                        });
+                    } else {
+                        checkoutService.realizarCheckout(compradorId);
+                    }
+                    exitosos.incrementAndGet();
+                } catch (IllegalArgumentException e) {
+                    rechazos.add(e.getMessage());
+                }
+                return null;
+            }));
+        }
+
+        long inicio = System.nanoTime();
+        largada.countDown();
+        for (Future<?> t : tareas) {
+            t.get(); // cualquier otro error (deadlock, lock timeout) hace fallar el test
+        }
+        double segundos = (System.nanoTime() - inicio) / 1_000_000_000.0;
+        pool.shutdown();
+
+        int stockFinal = productoRepository.findById(productoId).orElseThrow().getStock();
+        Integer vendidos = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(cantidad), 0) FROM items_ordenes WHERE id_producto = ?", Integer.class,
+                productoId);
+        Integer ordenes = jdbcTemplate.queryForObject(
+                "SELECT COUNT(DISTINCT orden_id) FROM items_ordenes WHERE id_producto = ?", Integer.class,
+                productoId);
+
+        // ni una unidad de mas: el stock no queda negativo y lo que falta es lo vendido
+        assertTrue(stockFinal >= 0, "stock negativo: " + stockFinal);
+        assertEquals(STOCK_INICIAL - exitosos.get(), stockFinal);
+        assertEquals(exitosos.get(), vendidos);
+        assertEquals(exitosos.get(), ordenes);
+        // con mas compradores que unidades se vende todo el stock
+        assertEquals(STOCK_INICIAL, exitosos.get());
+        // los demas solo pueden fallar por falta de stock
+        assertEquals(COMPRADORES - exitosos.get(), rechazos.size());
+        for (String motivo : rechazos) {
+            assertTrue(motivo.startsWith("Stock insuficiente para "), "rechazo inesperado: " + motivo);
+        }
+        return COMPRADORES / segundos;
+    }
+
+    @AfterEach
+    void limpiar() {
+        datos.limpiar();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.orden;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__mappers__.MapperOrden;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.DatosDePrueba;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Historial de ordenes: una pagina de 50 ordenes con sus items tiene que salir en dos
+// sentencias (ordenes e items), mas el COUNT en la version Page, tengan las ordenes
+// pocos o muchos items. Como referencia se mide tambien el camino por entidades (un
+// SELECT de items por orden)
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class HistorialOrdenesTests {
+
+    private static final int ORDENES = 50;
+    private static final int POCOS_ITEMS = 3;
+    private static final int MUCHOS_ITEMS = 20;
+
+    @Autowired
+    private OrdenService ordenService;
+
+    @Autowired
+    private OrdenRepository ordenRepository;
+
+    @Autowired
+    private ItemOrdenRepository itemOrdenRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private MapperOrden mapperOrden;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosDePrueba datos;
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosDePrueba("historial", usuarioRepository, jdbcTemplate);
+    }
+
+    @Test
+    void paginaDeCincuentaOrdenesEnDosSentencias() {
+        verificarSentencias(crearComprador("pocos", POCOS_ITEMS), POCOS_ITEMS);
+    }
+
+    @Test
+    void lasSentenciasNoDependenDeLaCantidadDeItems() {
+        verificarSentencias(crearComprador("muchos", MUCHOS_ITEMS), MUCHOS_ITEMS);
+    }
+
+    private void verificarSentencias(Long usuarioId, int itemsPorOrden) {
+        PageRequest pagina = PageRequest.of(0, ORDENES);
+
+        Medicion entidades = medir(() -> transactionTemplate.execute(status -> ordenRepository
+                .findByUsuarioId(usuarioId, pagina).map(mapperOrden::toDTO).getContent()));
+        Medicion sinTotal = medir(() -> ordenService.listarPorUsuarioSinTotal(usuarioId, pagina, false)
+                .getContenido());
+        Medicion cursor = medir(() -> ordenService.listarPorUsuarioCursor(usuarioId, null, ORDENES).getContenido());
+        Medicion conTotal = medir(() -> ordenService.listarPorUsuario(usuarioId, pagina).getContent());
+
+        verificar(sinTotal.ordenes, usuarioId, itemsPorOrden);
+        verificar(cursor.ordenes, usuarioId, itemsPorOrden);
+        verificar(conTotal.ordenes, usuarioId, itemsPorOrden);
+        assertEquals(2, sinTotal.sentencias);
+        assertEquals(2, cursor.sentencias);
+        // la pagina esta completa, asi que el total no se deduce: va el COUNT
+        assertEquals(3, conTotal.sentencias);
+        assertTrue(entidades.sentencias > ORDENES);
+    }
+
+    // comprador con ORDENES ordenes de itemsPorOrden items cada una
+    private Long crearComprador(String nombre, int itemsPorOrden) {
+        Usuario usuario = datos.crearUsuario(nombre, Rol.COMPRADOR);
+        LocalDateTime ahora = LocalDateTime.now();
+        List<Orden> ordenes = new ArrayList<>();
+        List<ItemOrden> items = new ArrayList<>();
+        for (int i = 0; i < ORDENES; i++) {
+            Orden o = new Orden();
+            o.setUsuario(usuario);
+            o.setFechaCreacion(ahora.minusMinutes(i));
+            o.setEstado("COMPLETADA");
+            o.setTotal(itemsPorOrden * 100.0);
+            ordenes.add(o);
+            for (int j = 0; j < itemsPorOrden; j++) {
+                ItemOrden it = new ItemOrden();
+                it.setOrden(o);
+                it.setIdProducto((long) j + 1);
+                it.setTitulo(datos.nombre("item-" + j));
+                it.setCantidad(1);
+                it.setPrecioUnitario(100.0);
+                items.add(it);
+            }
+        }
+        ordenRepository.saveAll(ordenes);
+        itemOrdenRepository.saveAll(items);
+        return usuario.getId();
+    }
+
+    private static final class Medicion {
+        final List<OrdenDTO> ordenes;
+        final long sentencias;
+
+        Medicion(List<OrdenDTO> ordenes, long sentencias) {
+            this.ordenes = ordenes;
+            this.sentencias = sentencias;
+        }
+    }
+
+    private Medicion medir(Supplier<List<OrdenDTO>> lectura) {
+        Statistics estadisticas = DatosDePrueba.estadisticasEnCero(entityManagerFactory);
+        List<OrdenDTO> ordenes = lectura.get();
+        return new Medicion(ordenes, estadisticas.getPrepareStatementCount());
+    }
+
+    private void verificar(List<OrdenDTO> ordenes, Long usuarioId, int itemsPorOrden) {
+        assertEquals(ORDENES, ordenes.size());
+        for (OrdenDTO o : ordenes) {
+            assertEquals(usuarioId, o.getUsuarioId());
+            assertEquals(itemsPorOrden, o.getItems().size());
+            assertEquals(itemsPorOrden, o.getItemIds().size());
+            o.getItems().forEach(it -> assertEquals(o.getId(), it.getOrdenId()));
+        }
+    }
+
+    @AfterEach
+    void limpiar() {
+        datos.limpiar();
+    }
+}
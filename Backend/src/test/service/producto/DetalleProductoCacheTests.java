@@ -0,0 +1,121 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.producto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.DescuentoProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.service.cache.CargasCompartidas;
+import com.example.uade.tpo.ecommerce_grupo10.service.catalogo.ProductosModificadosEvent;
+import com.example.uade.tpo.ecommerce_grupo10.service.descuentoProducto.DescuentoProductoService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Los bytes cacheados del detalle vencen justo cuando el descuento entra y sale de
+// vigencia, sin ninguna escritura que los invalide; entre fronteras se sirven sin
+// volver a armar el DTO
+class DetalleProductoCacheTests {
+
+    private static final Long PRODUCTO = 7L;
+    // margen para que la frontera ya haya pasado al despertar
+    private static final long MARGEN_MS = 100;
+
+    private final AtomicInteger serializados = new AtomicInteger();
+    private DetalleProductoServiceImpl detalle;
+    private long inicio;
+    private long fin;
+
+    @BeforeEach
+    void preparar() {
+        long ahora = System.currentTimeMillis();
+        inicio = ahora + 500;
+        fin = inicio + 500;
+        DescuentoProductoDTO descuento = DescuentoProductoDTO.builder()
+                .id(1L)
+                .productoId(PRODUCTO)
+                .porcentajeDescuento(20.0)
+                .fechaInicio(new Date(inicio))
+                .fechaFin(new Date(fin))
+                .activo(true)
+                .build();
+
+        // el DTO aplica el descuento solo dentro de su vigencia, como ProductoServiceImpl
+        ProductoService productoService = mock(ProductoService.class);
+        when(productoService.obtenerDTO(PRODUCTO)).thenAnswer(invocacion -> {
+            serializados.incrementAndGet();
+            long t = System.currentTimeMillis();
+            boolean vigente = t >= inicio && t <= fin;
+            return ProductoDTO.builder()
+                    .id(PRODUCTO)
+                    .titulo("Producto")
+                    .precio(100.0)
+                    .tieneDescuento(vigente)
+                    .precioConDescuento(vigente ? 80.0 : 100.0)
+                    .build();
+        });
+        DescuentoProductoService descuentoProductoService = mock(DescuentoProductoService.class);
+        when(descuentoProductoService.obtenerPorProductoOptional(PRODUCTO)).thenReturn(Optional.of(descuento));
+
+        detalle = new DetalleProductoServiceImpl(productoService, descuentoProductoService, new ObjectMapper(),
+                new CargasCompartidas(new SimpleMeterRegistry()));
+    }
+
+    private String json() {
+        return new String(detalle.obtener(PRODUCTO).getJson(), StandardCharsets.UTF_8);
+    }
+
+    private static void esperarHasta(long instante) throws InterruptedException {
+        long espera = instante - System.currentTimeMillis();
+        if (espera > 0) {
+            Thread.sleep(espera);
+        }
+    }
+
+    @Test
+    void venceEnCadaFronteraDelDescuento() throws Exception {
+        byte[] antes = detalle.obtener(PRODUCTO).getJson();
+        assertTrue(json().contains("\"tieneDescuento\":false"));
+        assertArrayEquals(antes, detalle.obtener(PRODUCTO).getJson());
+        assertEquals(1, serializados.get());
+
+        // empieza el descuento: se vuelve a serializar una sola vez
+        esperarHasta(inicio + MARGEN_MS);
+        assertTrue(json().contains("\"tieneDescuento\":true"));
+        assertTrue(json().contains("\"precioConDescuento\":80.0"));
+        assertEquals(2, serializados.get());
+
+        // termina el descuento
+        esperarHasta(fin + MARGEN_MS);
+        assertTrue(json().contains("\"tieneDescuento\":false"));
+        json();
+        assertEquals(3, serializados.get());
+    }
+
+    @Test
+    void seInvalidaConLosCambiosDelProducto() {
+        json();
+        json();
+        assertEquals(1, serializados.get());
+
+        detalle.onProductosModificados(ProductosModificadosEvent.de(PRODUCTO));
+        json();
+        assertEquals(2, serializados.get());
+
+        // otro producto no la toca
+        detalle.onProductosModificados(ProductosModificadosEvent.de(PRODUCTO + 1));
+        json();
+        assertEquals(2, serializados.get());
+    }
+}
@@ -0,0 +1,295 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.producto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.hibernate.Session;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
+import com.example.uade.tpo.ecommerce_grupo10.entity.ItemOrden;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Orden;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.OrdenDTO;
+import com.example.uade.tpo.ecommerce_grupo10.entity.cart.ItemCarrito;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CarritoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemCarritoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ItemOrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.OrdenRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.DatosDePrueba;
+import com.example.uade.tpo.ecommerce_grupo10.service.carrito.CarritoService;
+import com.example.uade.tpo.ecommerce_grupo10.service.checkout.CheckoutService;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+
+// Sentencias de los inserts en batch: las entidades se persisten antes de medir (los
+// ids salen de la tabla de secuencias) y se cuenta solo el flush. Con batch JDBC de 1
+// es una sentencia por fila, lo mismo que costaba IDENTITY; con el batch configurado
+// tiene que ser una sentencia por cada batch_size filas de la misma tabla. El checkout
+// completo se mide aparte: ahi se cuentan solo los INSERT de items de la orden
+@SpringBootTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.example.uade.tpo.ecommerce_grupo10.service.producto.EscrituraEnLoteTests$InsertsDeItems" })
+class EscrituraEnLoteTests {
+
+    private static final int PRODUCTOS_ALTA = 1000;
+    private static final int ITEMS_ORDEN = 40;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size}")
+    private int batch;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private OrdenRepository ordenRepository;
+
+    @Autowired
+    private ItemOrdenRepository itemOrdenRepository;
+
+    @Autowired
+    private CheckoutService checkoutService;
+
+    @Autowired
+    private CarritoService carritoService;
+
+    @Autowired
+    private CarritoRepository carritoRepository;
+
+    @Autowired
+    private ItemCarritoRepository itemCarritoRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosDePrueba datos;
+    private Categoria categoria;
+    private Usuario vendedor;
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosDePrueba("lote", usuarioRepository, jdbcTemplate);
+        Categoria c = new Categoria();
+        c.setNombre(datos.prefijo());
+        categoria = categoriaRepository.save(c);
+        vendedor = datos.crearUsuario("vendedor", Rol.VENDEDOR);
+    }
+
+    @Test
+    void altaMasivaDeProductos() {
+        Medicion antes = medir(1, () -> altaDeProductos("antes", PRODUCTOS_ALTA));
+        Medicion despues = medir(null, () -> altaDeProductos("despues", PRODUCTOS_ALTA));
+
+        assertEquals(PRODUCTOS_ALTA, antes.filas);
+        assertEquals(PRODUCTOS_ALTA, despues.filas);
+        assertEquals(PRODUCTOS_ALTA, antes.sentencias);
+        assertEquals(batches(PRODUCTOS_ALTA), despues.sentencias);
+    }
+
+    // lo que escribe el checkout: la orden y sus items
+    @Test
+    void ordenConMuchosItems() {
+        Usuario comprador = datos.crearUsuario("comprador", Rol.COMPRADOR);
+
+        Medicion antes = medir(1, () -> altaDeOrden(comprador, ITEMS_ORDEN));
+        Medicion despues = medir(null, () -> altaDeOrden(comprador, ITEMS_ORDEN));
+
+        assertEquals(ITEMS_ORDEN, antes.filas);
+        assertEquals(ITEMS_ORDEN, despues.filas);
+        assertEquals(1 + ITEMS_ORDEN, antes.sentencias);
+        assertEquals(1 + batches(ITEMS_ORDEN), despues.sentencias);
+    }
+
+    // el checkout completo (carrito con descuentos, reservas, orden, stock y carrito
+    // vacio) con batch 1 y con el configurado. Antes se corre uno sin medir para que
+    // ninguno de los dos pague el arranque
+    @Test
+    void checkoutConMuchosItems(TestReporter reporte) {
+        Long comprador = datos.crearUsuario("comprador", Rol.COMPRADOR).getId();
+        carritoService.crearSiNoExiste(comprador);
+        List<Producto> productos = new ArrayList<>(ITEMS_ORDEN);
+        for (int i = 0; i < ITEMS_ORDEN; i++) {
+            productos.add(nuevoProducto("checkout-" + i));
+        }
+        productoRepository.saveAll(productos);
+
+        checkout(null, comprador, productos);
+        MedicionCheckout antes = checkout(1, comprador, productos);
+        MedicionCheckout despues = checkout(null, comprador, productos);
+
+        reporte.publishEntry("checkout de " + ITEMS_ORDEN + " items con batch 1 (ms)", String.valueOf(antes.ms));
+        reporte.publishEntry("checkout de " + ITEMS_ORDEN + " items con batch " + batch + " (ms)",
+                String.valueOf(despues.ms));
+        assertEquals(ITEMS_ORDEN, antes.items);
+        assertEquals(ITEMS_ORDEN, despues.items);
+        assertEquals(ITEMS_ORDEN, antes.inserts);
+        assertEquals(batches(ITEMS_ORDEN), despues.inserts);
+    }
+
+    // cuenta los INSERT de items de orden que se preparan en el hilo actual; con el
+    // batch JDBC activo es uno por batch, no por fila
+    public static final class InsertsDeItems implements StatementInspector {
+
+        private static final ThreadLocal<AtomicInteger> CONTADOR = ThreadLocal.withInitial(AtomicInteger::new);
+
+        @Override
+        public String inspect(String sql) {
+            if (sql.toLowerCase().startsWith("insert into items_ordenes")) {
+                CONTADOR.get().incrementAndGet();
+            }
+            return sql;
+        }
+    }
+
+    private static final class MedicionCheckout {
+        final int items;
+        final int inserts;
+        final long ms;
+
+        MedicionCheckout(int items, int inserts, long ms) {
+            this.items = items;
+            this.inserts = inserts;
+            this.ms = ms;
+        }
+    }
+
+    // una unidad de cada producto en el carrito y checkout en una transaccion con ese
+    // tamaño de batch (null = el configurado); el checkout se suma a esa transaccion
+    private MedicionCheckout checkout(Integer batchJdbc, Long compradorId, List<Producto> productos) {
+        var carrito = carritoRepository.findByUsuarioId(compradorId).orElseThrow();
+        List<ItemCarrito> items = new ArrayList<>(productos.size());
+        for (Producto p : productos) {
+            ItemCarrito it = new ItemCarrito();
+            it.setCarrito(carrito);
+            it.setProducto(p);
+            it.setCantidad(1);
+            it.setPrecioUnitario(p.getPrecio());
+            items.add(it);
+        }
+        itemCarritoRepository.saveAll(items);
+
+        AtomicInteger inserts = InsertsDeItems.CONTADOR.get();
+        inserts.set(0);
+        long inicio = System.nanoTime();
+        OrdenDTO orden = transactionTemplate.execute(status -> {
+            if (batchJdbc != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchJdbc);
+            }
+            return checkoutService.realizarCheckout(compradorId);
+        });
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+        return new MedicionCheckout(orden.getItems().size(), inserts.get(), ms);
+    }
+
+    private static final class Medicion {
+        final int filas;
+        final long sentencias;
+
+        Medicion(int filas, long sentencias) {
+            this.filas = filas;
+            this.sentencias = sentencias;
+        }
+    }
+
+    // persiste en una transaccion con ese tamaño de batch (null = el configurado en
+    // application.properties) y cuenta las sentencias del flush
+    private Medicion medir(Integer batchJdbc, Supplier<Integer> alta) {
+        return transactionTemplate.execute(status -> {
+            if (batchJdbc != null) {
+                entityManager.unwrap(Session.class).setJdbcBatchSize(batchJdbc);
+            }
+            int filas = alta.get();
+            Statistics estadisticas = DatosDePrueba.estadisticasEnCero(entityManagerFactory);
+            entityManager.flush();
+            return new Medicion(filas, estadisticas.getPrepareStatementCount());
+        });
+    }
+
+    private long batches(int filas) {
+        return (filas + batch - 1) / batch;
+    }
+
+    private int altaDeProductos(String tanda, int cantidad) {
+        List<Producto> productos = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            productos.add(nuevoProducto(tanda + "-" + i));
+        }
+        productoRepository.saveAll(productos);
+        return productos.size();
+    }
+
+    private int altaDeOrden(Usuario comprador, int cantidad) {
+        Orden orden = new Orden();
+        orden.setUsuario(comprador);
+        orden.setFechaCreacion(LocalDateTime.now());
+        orden.setEstado("COMPLETADA");
+        orden.setTotal(cantidad * 100.0);
+        ordenRepository.save(orden);
+
+        List<ItemOrden> items = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            ItemOrden it = new ItemOrden();
+            it.setOrden(orden);
+            it.setIdProducto((long) i + 1);
+            it.setTitulo(datos.nombre("item-" + i));
+            it.setCantidad(1);
+            it.setPrecioUnitario(100.0);
+            items.add(it);
+        }
+        itemOrdenRepository.saveAll(items);
+        return items.size();
+    }
+
+    private Producto nuevoProducto(String nombre) {
+        Producto p = new Producto();
+        p.setTitulo(datos.nombre(nombre));
+        p.setDescripcion("Producto para prueba de escritura en lote");
+        p.setPrecio(100.0);
+        p.setStock(10);
+        p.setCategoria(categoria);
+        p.setVendedor(vendedor);
+        return p;
+    }
+
+    @AfterEach
+    void limpiar() {
+        datos.limpiar();
+    }
+}
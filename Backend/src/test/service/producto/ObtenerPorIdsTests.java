@@ -0,0 +1,107 @@
+package com.example.uade.tpo.ecommerce_grupo10.service.producto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.uade.tpo.ecommerce_grupo10.entity.Categoria;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Producto;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Rol;
+import com.example.uade.tpo.ecommerce_grupo10.entity.Usuario;
+import com.example.uade.tpo.ecommerce_grupo10.entity.__dto__.ProductoDTO;
+import com.example.uade.tpo.ecommerce_grupo10.repository.CategoriaRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.ProductoRepository;
+import com.example.uade.tpo.ecommerce_grupo10.repository.UsuarioRepository;
+import com.example.uade.tpo.ecommerce_grupo10.service.DatosDePrueba;
+
+// Consulta de productos por lista de ids: vuelven en el orden pedido, sin repetidos
+// y sin los que no existen
+@SpringBootTest
+class ObtenerPorIdsTests {
+
+    @Autowired
+    private ProductoService productoService;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private CategoriaRepository categoriaRepository;
+
+    @Autowired
+    private UsuarioRepository usuarioRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private DatosDePrueba datos;
+    private Categoria categoria;
+    private Usuario vendedor;
+
+    @BeforeEach
+    void preparar() {
+        datos = new DatosDePrueba("por-ids", usuarioRepository, jdbcTemplate);
+        Categoria c = new Categoria();
+        c.setNombre(datos.prefijo());
+        categoria = categoriaRepository.save(c);
+        vendedor = datos.crearUsuario("vendedor", Rol.VENDEDOR);
+    }
+
+    private Long crearProducto(String nombre) {
+        Producto p = new Producto();
+        p.setTitulo(datos.nombre(nombre));
+        p.setDescripcion("Producto para prueba de consulta por ids");
+        p.setPrecio(100.0);
+        p.setStock(5);
+        p.setCategoria(categoria);
+        p.setVendedor(vendedor);
+        return productoRepository.save(p).getId();
+    }
+
+    @Test
+    void respetaElOrdenPedido() {
+        Long a = crearProducto("a");
+        Long b = crearProducto("b");
+        Long c = crearProducto("c");
+        Long inexistente = LongStream.of(a, b, c).max().getAsLong() + 1_000_000;
+
+        List<ProductoDTO> productos = productoService.obtenerPorIds(Arrays.asList(c, a, inexistente, null, b, a));
+
+        assertEquals(List.of(c, a, b), productos.stream().map(ProductoDTO::getId).toList());
+        assertEquals(datos.nombre("c"), productos.get(0).getTitulo());
+        assertEquals(datos.prefijo(), productos.get(0).getCategoriaNombre());
+        assertEquals(List.of(b, a), productoService.obtenerPorIds(List.of(b, a)).stream()
+                .map(ProductoDTO::getId)
+                .toList());
+    }
+
+    @Test
+    void listaVaciaONulaYLimite() {
+        assertTrue(productoService.obtenerPorIds(List.of()).isEmpty());
+        assertTrue(productoService.obtenerPorIds(null).isEmpty());
+        assertTrue(productoService.obtenerPorIds(Arrays.asList((Long) null)).isEmpty());
+
+        List<Long> demasiados = new ArrayList<>();
+        for (long id = 1; id <= 501; id++) {
+            demasiados.add(id);
+        }
+        assertThrows(IllegalArgumentException.class, () -> productoService.obtenerPorIds(demasiados));
+    }
+
+    @AfterEach
+    void limpiar() {
+        datos.limpiar();
+    }
+}